@@ -16,9 +16,13 @@
 package com.twilio.video.app.data
 
 import android.content.SharedPreferences
+import com.twilio.video.app.ApplicationScope
 import com.twilio.video.app.android.SharedPreferencesWrapper
 import com.twilio.video.app.data.api.AuthService
 import com.twilio.video.app.data.api.AuthServiceRepository
+import com.twilio.video.app.data.api.CachingTokenService
+import com.twilio.video.app.data.api.SampledLoggingInterceptor
+import com.twilio.video.app.data.api.TokenCache
 import com.twilio.video.app.data.api.TokenService
 import com.twilio.video.app.security.SecurePreferences
 import com.twilio.video.app.security.SecurityModule
@@ -27,7 +31,6 @@ import dagger.Module
 import dagger.Provides
 import java.util.concurrent.TimeUnit
 import okhttp3.OkHttpClient
-import okhttp3.logging.HttpLoggingInterceptor
 import retrofit2.Retrofit
 import retrofit2.converter.gson.GsonConverterFactory
 
@@ -37,9 +40,7 @@ class AuthServiceModule {
     fun providesOkHttpClient(): OkHttpClient {
         val builder = OkHttpClient.Builder()
         if (!isReleaseBuildType) {
-            val interceptor = HttpLoggingInterceptor()
-            interceptor.level = HttpLoggingInterceptor.Level.BODY
-            builder.addInterceptor(interceptor)
+            builder.addInterceptor(SampledLoggingInterceptor())
         }
         return builder
                 .readTimeout(30, TimeUnit.SECONDS)
@@ -62,11 +63,17 @@ class AuthServiceModule {
     }
 
     @Provides
+    @ApplicationScope
     fun providesTokenService(
         authService: AuthService,
         securePreferences: SecurePreferences,
-        sharedPreferences: SharedPreferences
+        sharedPreferences: SharedPreferences,
+        tokenCache: TokenCache,
+        callConfigurationProvider: CallConfigurationProvider
     ): TokenService {
-        return AuthServiceRepository(authService, securePreferences, SharedPreferencesWrapper(sharedPreferences))
+        return CachingTokenService(
+                AuthServiceRepository(authService, securePreferences, SharedPreferencesWrapper(sharedPreferences)),
+                tokenCache,
+                callConfigurationProvider)
     }
 }
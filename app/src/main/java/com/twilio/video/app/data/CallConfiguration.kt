@@ -0,0 +1,235 @@
+package com.twilio.video.app.data
+
+import android.content.SharedPreferences
+import com.twilio.video.AudioCodec
+import com.twilio.video.BandwidthProfileMode
+import com.twilio.video.G722Codec
+import com.twilio.video.H264Codec
+import com.twilio.video.IsacCodec
+import com.twilio.video.OpusCodec
+import com.twilio.video.PcmaCodec
+import com.twilio.video.PcmuCodec
+import com.twilio.video.TrackPriority
+import com.twilio.video.TrackSwitchOffMode
+import com.twilio.video.VideoCodec
+import com.twilio.video.VideoDimensions
+import com.twilio.video.Vp8Codec
+import com.twilio.video.Vp9Codec
+import com.twilio.video.app.data.Preferences.ADAPTIVE_CAPTURE_FORMAT
+import com.twilio.video.app.data.Preferences.ADAPTIVE_CAPTURE_FORMAT_DEFAULT
+import com.twilio.video.app.data.Preferences.AUDIO_CODEC
+import com.twilio.video.app.data.Preferences.AUDIO_CODEC_DEFAULT
+import com.twilio.video.app.data.Preferences.AUDIO_IN_CONNECT_OPTIONS
+import com.twilio.video.app.data.Preferences.AUDIO_IN_CONNECT_OPTIONS_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_DOMINANT_SPEAKER_PRIORITY
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_DOMINANT_SPEAKER_PRIORITY_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_MAX_SUBSCRIPTION_BITRATE
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_MAX_SUBSCRIPTION_BITRATE_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_MAX_VIDEO_TRACKS
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_MAX_VIDEO_TRACKS_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_MODE
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_MODE_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_TRACK_SWITCH_OFF_MODE
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_TRACK_SWITCH_OFF_MODE_DEFAULT
+import com.twilio.video.app.data.Preferences.ENABLE_AUTOMATIC_TRACK_SUBSCRIPTION
+import com.twilio.video.app.data.Preferences.ENABLE_AUTOMATIC_TRACK_SUBSCRIPTION_DEFAULT
+import com.twilio.video.app.data.Preferences.ENABLE_DOMINANT_SPEAKER
+import com.twilio.video.app.data.Preferences.ENABLE_DOMINANT_SPEAKER_DEFAULT
+import com.twilio.video.app.data.Preferences.ENABLE_INSIGHTS
+import com.twilio.video.app.data.Preferences.ENABLE_INSIGHTS_DEFAULT
+import com.twilio.video.app.data.Preferences.ENABLE_NETWORK_QUALITY_LEVEL
+import com.twilio.video.app.data.Preferences.ENABLE_NETWORK_QUALITY_LEVEL_DEFAULT
+import com.twilio.video.app.data.Preferences.ENVIRONMENT
+import com.twilio.video.app.data.Preferences.ENVIRONMENT_DEFAULT
+import com.twilio.video.app.data.Preferences.KEEP_CAMERA_ALIVE
+import com.twilio.video.app.data.Preferences.KEEP_CAMERA_ALIVE_DEFAULT
+import com.twilio.video.app.data.Preferences.LOW_LATENCY_AUDIO_MUTE
+import com.twilio.video.app.data.Preferences.LOW_LATENCY_AUDIO_MUTE_DEFAULT
+import com.twilio.video.app.data.Preferences.MAX_AUDIO_BITRATE
+import com.twilio.video.app.data.Preferences.MAX_AUDIO_BITRATE_DEFAULT
+import com.twilio.video.app.data.Preferences.MAX_VIDEO_BITRATE
+import com.twilio.video.app.data.Preferences.MAX_VIDEO_BITRATE_DEFAULT
+import com.twilio.video.app.data.Preferences.NORMALIZE_CAMERA_ROTATION
+import com.twilio.video.app.data.Preferences.NORMALIZE_CAMERA_ROTATION_DEFAULT
+import com.twilio.video.app.data.Preferences.RECORD_PARTICIPANTS_ON_CONNECT
+import com.twilio.video.app.data.Preferences.RECORD_PARTICIPANTS_ON_CONNECT_DEFAULT
+import com.twilio.video.app.data.Preferences.TOPOLOGY
+import com.twilio.video.app.data.Preferences.TOPOLOGY_DEFAULT
+import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION
+import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION_DEFAULT
+import com.twilio.video.app.data.Preferences.VIDEO_CODEC
+import com.twilio.video.app.data.Preferences.VIDEO_CODEC_DEFAULT
+import com.twilio.video.app.data.Preferences.VP8_SIMULCAST
+import com.twilio.video.app.data.Preferences.VP8_SIMULCAST_DEFAULT
+import com.twilio.video.app.sdk.parseVideoDimensions
+import com.twilio.video.app.util.get
+
+/*
+ * Immutable snapshot of the preferences that configure a call, from the token request and the
+ * connect options to the local tracks. Values are parsed and codecs are created once per
+ * snapshot. Render dimensions only hold the ones set in preferences, falling back to measured
+ * dimensions is left to the caller since those change without a preference change.
+ */
+data class CallConfiguration(
+    val environment: String,
+    val topology: String,
+    val isRecordParticipantsOnConnect: Boolean,
+    val isInsightsEnabled: Boolean,
+    val isAutomaticTrackSubscriptionEnabled: Boolean,
+    val isDominantSpeakerEnabled: Boolean,
+    val isNetworkQualityEnabled: Boolean,
+    val videoCodec: VideoCodec,
+    val audioCodec: AudioCodec,
+    val bandwidthProfileMode: BandwidthProfileMode?,
+    val maxSubscriptionBitrate: Long,
+    val maxVideoTracks: Long,
+    val dominantSpeakerPriority: TrackPriority?,
+    val trackSwitchOffMode: TrackSwitchOffMode?,
+    val renderDimensions: Map<TrackPriority, VideoDimensions>,
+    val maxAudioBitrate: Int,
+    val maxVideoBitrate: Int,
+    val videoCaptureResolutionIndex: Int,
+    val isKeepCameraAliveEnabled: Boolean,
+    val isAdaptiveCaptureFormatEnabled: Boolean,
+    val isCameraRotationNormalized: Boolean,
+    val isAudioPublishedOnConnect: Boolean,
+    val isLowLatencyAudioMuteEnabled: Boolean
+) {
+
+    companion object {
+        /*
+         * The preference keys a snapshot is built from. Changes to any other key keep the
+         * current snapshot.
+         */
+        val KEYS = setOf(
+                ENVIRONMENT,
+                TOPOLOGY,
+                RECORD_PARTICIPANTS_ON_CONNECT,
+                ENABLE_INSIGHTS,
+                ENABLE_AUTOMATIC_TRACK_SUBSCRIPTION,
+                ENABLE_DOMINANT_SPEAKER,
+                ENABLE_NETWORK_QUALITY_LEVEL,
+                VIDEO_CODEC,
+                VP8_SIMULCAST,
+                AUDIO_CODEC,
+                BANDWIDTH_PROFILE_MODE,
+                BANDWIDTH_PROFILE_MAX_SUBSCRIPTION_BITRATE,
+                BANDWIDTH_PROFILE_MAX_VIDEO_TRACKS,
+                BANDWIDTH_PROFILE_DOMINANT_SPEAKER_PRIORITY,
+                BANDWIDTH_PROFILE_TRACK_SWITCH_OFF_MODE,
+                BANDWIDTH_PROFILE_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS,
+                BANDWIDTH_PROFILE_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS,
+                BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS,
+                MAX_AUDIO_BITRATE,
+                MAX_VIDEO_BITRATE,
+                VIDEO_CAPTURE_RESOLUTION,
+                KEEP_CAMERA_ALIVE,
+                ADAPTIVE_CAPTURE_FORMAT,
+                NORMALIZE_CAMERA_ROTATION,
+                AUDIO_IN_CONNECT_OPTIONS,
+                LOW_LATENCY_AUDIO_MUTE)
+
+        fun fromSharedPreferences(sharedPreferences: SharedPreferences): CallConfiguration {
+            val renderDimensions = mutableMapOf<TrackPriority, VideoDimensions>()
+            listOf(
+                    Triple(TrackPriority.LOW,
+                            BANDWIDTH_PROFILE_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS,
+                            BANDWIDTH_PROFILE_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT),
+                    Triple(TrackPriority.STANDARD,
+                            BANDWIDTH_PROFILE_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS,
+                            BANDWIDTH_PROFILE_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT),
+                    Triple(TrackPriority.HIGH,
+                            BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS,
+                            BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT)
+            ).forEach { (trackPriority, key, defaultValue) ->
+                sharedPreferences.getString(key, defaultValue)
+                        ?.let { parseVideoDimensions(it) }
+                        ?.let { renderDimensions[trackPriority] = it }
+            }
+
+            return CallConfiguration(
+                    environment = sharedPreferences.getString(ENVIRONMENT, ENVIRONMENT_DEFAULT)
+                            ?: ENVIRONMENT_DEFAULT,
+                    topology = sharedPreferences.getString(TOPOLOGY, TOPOLOGY_DEFAULT)
+                            ?: TOPOLOGY_DEFAULT,
+                    isRecordParticipantsOnConnect = sharedPreferences.getBoolean(
+                            RECORD_PARTICIPANTS_ON_CONNECT, RECORD_PARTICIPANTS_ON_CONNECT_DEFAULT),
+                    isInsightsEnabled = sharedPreferences.getBoolean(
+                            ENABLE_INSIGHTS, ENABLE_INSIGHTS_DEFAULT),
+                    isAutomaticTrackSubscriptionEnabled = sharedPreferences.getBoolean(
+                            ENABLE_AUTOMATIC_TRACK_SUBSCRIPTION,
+                            ENABLE_AUTOMATIC_TRACK_SUBSCRIPTION_DEFAULT),
+                    isDominantSpeakerEnabled = sharedPreferences.getBoolean(
+                            ENABLE_DOMINANT_SPEAKER, ENABLE_DOMINANT_SPEAKER_DEFAULT),
+                    isNetworkQualityEnabled = sharedPreferences.getBoolean(
+                            ENABLE_NETWORK_QUALITY_LEVEL, ENABLE_NETWORK_QUALITY_LEVEL_DEFAULT),
+                    videoCodec = videoCodec(sharedPreferences),
+                    audioCodec = audioCodec(sharedPreferences),
+                    bandwidthProfileMode = sharedPreferences.getString(BANDWIDTH_PROFILE_MODE,
+                            BANDWIDTH_PROFILE_MODE_DEFAULT)
+                            ?.let { enumValueOrNull<BandwidthProfileMode>(it) },
+                    maxSubscriptionBitrate = sharedPreferences.get(
+                            BANDWIDTH_PROFILE_MAX_SUBSCRIPTION_BITRATE,
+                            BANDWIDTH_PROFILE_MAX_SUBSCRIPTION_BITRATE_DEFAULT).toLong(),
+                    maxVideoTracks = sharedPreferences.get(BANDWIDTH_PROFILE_MAX_VIDEO_TRACKS,
+                            BANDWIDTH_PROFILE_MAX_VIDEO_TRACKS_DEFAULT).toLong(),
+                    dominantSpeakerPriority = sharedPreferences.getString(
+                            BANDWIDTH_PROFILE_DOMINANT_SPEAKER_PRIORITY,
+                            BANDWIDTH_PROFILE_DOMINANT_SPEAKER_PRIORITY_DEFAULT)
+                            ?.let { enumValueOrNull<TrackPriority>(it) },
+                    trackSwitchOffMode = sharedPreferences.getString(
+                            BANDWIDTH_PROFILE_TRACK_SWITCH_OFF_MODE,
+                            BANDWIDTH_PROFILE_TRACK_SWITCH_OFF_MODE_DEFAULT)
+                            ?.let { enumValueOrNull<TrackSwitchOffMode>(it) },
+                    renderDimensions = renderDimensions,
+                    maxAudioBitrate = sharedPreferences.get(MAX_AUDIO_BITRATE,
+                            MAX_AUDIO_BITRATE_DEFAULT),
+                    maxVideoBitrate = sharedPreferences.get(MAX_VIDEO_BITRATE,
+                            MAX_VIDEO_BITRATE_DEFAULT),
+                    videoCaptureResolutionIndex = (sharedPreferences.getString(
+                            VIDEO_CAPTURE_RESOLUTION, VIDEO_CAPTURE_RESOLUTION_DEFAULT)
+                            ?.toIntOrNull() ?: VIDEO_CAPTURE_RESOLUTION_DEFAULT.toInt())
+                            .coerceIn(0, Preferences.VIDEO_DIMENSIONS.size - 1),
+                    isKeepCameraAliveEnabled = sharedPreferences.getBoolean(
+                            KEEP_CAMERA_ALIVE, KEEP_CAMERA_ALIVE_DEFAULT),
+                    isAdaptiveCaptureFormatEnabled = sharedPreferences.getBoolean(
+                            ADAPTIVE_CAPTURE_FORMAT, ADAPTIVE_CAPTURE_FORMAT_DEFAULT),
+                    isCameraRotationNormalized = sharedPreferences.getBoolean(
+                            NORMALIZE_CAMERA_ROTATION, NORMALIZE_CAMERA_ROTATION_DEFAULT),
+                    isAudioPublishedOnConnect = sharedPreferences.getBoolean(
+                            AUDIO_IN_CONNECT_OPTIONS, AUDIO_IN_CONNECT_OPTIONS_DEFAULT),
+                    isLowLatencyAudioMuteEnabled = sharedPreferences.getBoolean(
+                            LOW_LATENCY_AUDIO_MUTE, LOW_LATENCY_AUDIO_MUTE_DEFAULT))
+        }
+
+        private fun videoCodec(sharedPreferences: SharedPreferences): VideoCodec =
+                when (sharedPreferences.getString(VIDEO_CODEC, VIDEO_CODEC_DEFAULT)) {
+                    Vp8Codec.NAME -> Vp8Codec(sharedPreferences.getBoolean(
+                            VP8_SIMULCAST, VP8_SIMULCAST_DEFAULT))
+                    H264Codec.NAME -> H264Codec()
+                    Vp9Codec.NAME -> Vp9Codec()
+                    else -> Vp8Codec()
+                }
+
+        private fun audioCodec(sharedPreferences: SharedPreferences): AudioCodec =
+                when (sharedPreferences.getString(AUDIO_CODEC, AUDIO_CODEC_DEFAULT)) {
+                    IsacCodec.NAME -> IsacCodec()
+                    PcmaCodec.NAME -> PcmaCodec()
+                    PcmuCodec.NAME -> PcmuCodec()
+                    G722Codec.NAME -> G722Codec()
+                    else -> OpusCodec()
+                }
+
+        /*
+         * Unknown names, such as the server default, map to null.
+         */
+        private inline fun <reified T : Enum<T>> enumValueOrNull(name: String): T? =
+                enumValues<T>().find { it.name == name }
+    }
+}
@@ -0,0 +1,44 @@
+package com.twilio.video.app.data
+
+import android.content.SharedPreferences
+import androidx.annotation.VisibleForTesting
+import timber.log.Timber
+
+/*
+ * Keeps a CallConfiguration snapshot of the shared preferences so that connecting and creating
+ * local tracks do not read and parse preferences every time. The snapshot is built on first
+ * access and dropped whenever one of the preferences it is built from changes.
+ */
+class CallConfigurationProvider(
+    private val sharedPreferences: SharedPreferences
+) : SharedPreferences.OnSharedPreferenceChangeListener {
+
+    @Volatile
+    private var snapshot: CallConfiguration? = null
+    @VisibleForTesting
+    @Volatile
+    internal var buildCount = 0
+        private set
+
+    val callConfiguration: CallConfiguration
+        get() = snapshot ?: synchronized(this) {
+            snapshot ?: CallConfiguration.fromSharedPreferences(sharedPreferences).also {
+                snapshot = it
+                buildCount++
+                Timber.d("Built call configuration %s", it)
+            }
+        }
+
+    init {
+        // The preferences only hold a weak reference to the listener
+        sharedPreferences.registerOnSharedPreferenceChangeListener(this)
+    }
+
+    override fun onSharedPreferenceChanged(sharedPreferences: SharedPreferences, key: String?) {
+        // A null key is reported when the preferences are cleared
+        if (key == null || key in CallConfiguration.KEYS) {
+            // Waits for a build in progress so that it cannot restore a stale snapshot
+            synchronized(this) { snapshot = null }
+        }
+    }
+}
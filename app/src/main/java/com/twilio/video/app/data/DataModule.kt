@@ -17,8 +17,14 @@
 package com.twilio.video.app.data
 
 import android.app.Application
+import android.content.Context
 import android.content.SharedPreferences
 import com.twilio.video.app.ApplicationScope
+import com.twilio.video.app.data.api.TokenCache
+import com.twilio.video.app.participant.ROSTER_CACHE_PREFERENCES
+import com.twilio.video.app.participant.RosterCache
+import com.twilio.video.app.sdk.RenderDimensionsTracker
+import com.twilio.video.app.ui.room.FrameSnapshotCache
 import com.twilio.video.app.util.getSharedPreferences
 import dagger.Module
 import dagger.Provides
@@ -30,4 +36,38 @@ class DataModule {
     internal fun provideSharedPreferences(app: Application): SharedPreferences {
         return getSharedPreferences(app)
     }
+
+    @Provides
+    @ApplicationScope
+    internal fun provideRosterCache(app: Application): RosterCache {
+        return RosterCache(app.getSharedPreferences(ROSTER_CACHE_PREFERENCES, Context.MODE_PRIVATE))
+    }
+
+    @Provides
+    @ApplicationScope
+    internal fun provideRenderDimensionsTracker(
+        sharedPreferences: SharedPreferences
+    ): RenderDimensionsTracker {
+        return RenderDimensionsTracker(sharedPreferences)
+    }
+
+    @Provides
+    @ApplicationScope
+    internal fun provideCallConfigurationProvider(
+        sharedPreferences: SharedPreferences
+    ): CallConfigurationProvider {
+        return CallConfigurationProvider(sharedPreferences)
+    }
+
+    @Provides
+    @ApplicationScope
+    internal fun provideTokenCache(): TokenCache {
+        return TokenCache()
+    }
+
+    @Provides
+    @ApplicationScope
+    internal fun provideFrameSnapshotCache(): FrameSnapshotCache {
+        return FrameSnapshotCache()
+    }
 }
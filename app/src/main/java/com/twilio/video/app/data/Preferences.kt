@@ -49,6 +49,18 @@ object Preferences {
     const val LOGOUT = "pref_logout"
     const val ENABLE_STATS = "pref_enable_stats"
     const val ENABLE_STATS_DEFAULT = true
+    const val SHOW_RENDER_METRICS = "pref_show_render_metrics"
+    const val SHOW_RENDER_METRICS_DEFAULT = false
+    const val KEEP_CAMERA_ALIVE = "pref_keep_camera_alive"
+    const val KEEP_CAMERA_ALIVE_DEFAULT = false
+    const val ADAPTIVE_CAPTURE_FORMAT = "pref_adaptive_capture_format"
+    const val ADAPTIVE_CAPTURE_FORMAT_DEFAULT = true
+    const val NORMALIZE_CAMERA_ROTATION = "pref_normalize_camera_rotation"
+    const val NORMALIZE_CAMERA_ROTATION_DEFAULT = false
+    const val AUDIO_IN_CONNECT_OPTIONS = "pref_audio_in_connect_options"
+    const val AUDIO_IN_CONNECT_OPTIONS_DEFAULT = true
+    const val LOW_LATENCY_AUDIO_MUTE = "pref_low_latency_audio_mute"
+    const val LOW_LATENCY_AUDIO_MUTE_DEFAULT = true
     const val ENABLE_INSIGHTS = "pref_enable_insights"
     const val ENABLE_NETWORK_QUALITY_LEVEL = "pref_enable_network_quality_level"
     const val ENABLE_NETWORK_QUALITY_LEVEL_DEFAULT = true
@@ -85,4 +97,7 @@ object Preferences {
     const val BANDWIDTH_PROFILE_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT = SERVER_DEFAULT
     const val BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS = "pref_bandwidth_profile_high_track_priority_dimensions"
     const val BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT = SERVER_DEFAULT
+    const val MEASURED_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS = "pref_measured_low_track_priority_dimensions"
+    const val MEASURED_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS = "pref_measured_standard_track_priority_dimensions"
+    const val MEASURED_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS = "pref_measured_high_track_priority_dimensions"
 }
@@ -0,0 +1,32 @@
+package com.twilio.video.app.data.api
+
+import java.net.InetAddress
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.TimeUnit
+import okhttp3.Dns
+
+private val DNS_CACHE_TTL_MS = TimeUnit.MINUTES.toMillis(1)
+
+/*
+ * Keeps the addresses of the few hosts the app talks to for a short time, so that reconnecting
+ * after the connection pool evicted a connection does not wait for a lookup. Failed lookups are
+ * not cached.
+ */
+class CachingDns @JvmOverloads constructor(
+    private val dns: Dns = Dns.SYSTEM,
+    private val ttlMillis: Long = DNS_CACHE_TTL_MS,
+    private val clock: () -> Long = System::currentTimeMillis
+) : Dns {
+
+    private val addresses = ConcurrentHashMap<String, CachedAddresses>()
+
+    override fun lookup(hostname: String): List<InetAddress> {
+        val nowMillis = clock()
+        addresses[hostname]?.takeIf { nowMillis < it.expiresAtMillis }?.let { return it.addresses }
+        return dns.lookup(hostname).also {
+            addresses[hostname] = CachedAddresses(it, nowMillis + ttlMillis)
+        }
+    }
+
+    private class CachedAddresses(val addresses: List<InetAddress>, val expiresAtMillis: Long)
+}
@@ -0,0 +1,76 @@
+package com.twilio.video.app.data.api
+
+import com.twilio.video.app.data.CallConfigurationProvider
+import java.util.concurrent.TimeUnit
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.launch
+import timber.log.Timber
+
+private val MIN_TOKEN_VALIDITY_MS = TimeUnit.MINUTES.toMillis(1)
+private val TOKEN_REFRESH_AHEAD_MS = TimeUnit.MINUTES.toMillis(10)
+
+/*
+ * Serves room tokens from the TokenCache while they remain valid, so that rejoining a room skips
+ * the token round trip. Tokens are keyed by identity, room name, topology and environment. A
+ * cached token close to its expiration is still served, and a fresh one is requested in the
+ * background for the next connect. Passcode requests are used to log in and are never cached.
+ */
+class CachingTokenService @JvmOverloads constructor(
+    private val tokenService: TokenService,
+    private val tokenCache: TokenCache,
+    private val callConfigurationProvider: CallConfigurationProvider,
+    private val refreshScope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
+    private val clock: () -> Long = System::currentTimeMillis
+) : TokenService {
+
+    private val refreshingKeys = mutableSetOf<TokenKey>()
+
+    override suspend fun getToken(identity: String?, roomName: String?): String {
+        val callConfiguration = callConfigurationProvider.callConfiguration
+        val key = TokenKey(identity, roomName, callConfiguration.topology,
+                callConfiguration.environment, callConfiguration.isRecordParticipantsOnConnect)
+        tokenCache.get(key)?.let { cachedToken ->
+            val validityMillis = cachedToken.expiresAtMillis - clock()
+            if (validityMillis > MIN_TOKEN_VALIDITY_MS) {
+                Timber.d("Using cached token for room %s, valid for %d s", roomName,
+                        TimeUnit.MILLISECONDS.toSeconds(validityMillis))
+                if (validityMillis < TOKEN_REFRESH_AHEAD_MS) refreshInBackground(key)
+                return cachedToken.token
+            }
+            tokenCache.remove(key)
+        }
+        return fetchToken(key)
+    }
+
+    override suspend fun getToken(identity: String?, roomName: String?, passcode: String?) =
+            tokenService.getToken(identity, roomName, passcode)
+
+    private suspend fun fetchToken(key: TokenKey): String {
+        val generation = tokenCache.generation
+        val startNanos = System.nanoTime()
+        val token = tokenService.getToken(key.identity, key.roomName)
+        Timber.d("Fetched token for room %s in %d ms", key.roomName,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+        jwtExpirationMillis(token)?.let { expiresAtMillis ->
+            tokenCache.put(key, CachedToken(token, expiresAtMillis), generation)
+        }
+        return token
+    }
+
+    private fun refreshInBackground(key: TokenKey) {
+        synchronized(refreshingKeys) {
+            if (!refreshingKeys.add(key)) return
+        }
+        refreshScope.launch {
+            try {
+                fetchToken(key)
+            } catch (e: Exception) {
+                Timber.w(e, "Failed to refresh the token for room %s", key.roomName)
+            } finally {
+                synchronized(refreshingKeys) { refreshingKeys.remove(key) }
+            }
+        }
+    }
+}
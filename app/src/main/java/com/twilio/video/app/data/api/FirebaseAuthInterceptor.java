@@ -16,63 +16,29 @@
 
 package com.twilio.video.app.data.api;
 
-import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.auth.FirebaseUser;
 import java.io.IOException;
-import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.TimeUnit;
 import okhttp3.Interceptor;
 import okhttp3.Request;
 import okhttp3.Response;
-import timber.log.Timber;
 
 class FirebaseAuthInterceptor implements Interceptor {
-    private static final int FIREBASE_TOKEN_TIMEOUT_MS = 10000;
-    private static final String HEADER_AUTHORIZATION = "Authorization";
-    private static final String FIREBASE_TOKEN_TASK_FAILED = "Failed to get Firebase Token";
+    static final String HEADER_AUTHORIZATION = "Authorization";
 
-    @Override
-    public Response intercept(Chain chain) throws IOException {
-        Request authorizedRequest =
-                chain.request()
-                        .newBuilder()
-                        .addHeader(HEADER_AUTHORIZATION, getFirebaseToken())
-                        .build();
+    private final FirebaseIdTokenProvider idTokenProvider;
 
-        return chain.proceed(authorizedRequest);
+    FirebaseAuthInterceptor(FirebaseIdTokenProvider idTokenProvider) {
+        this.idTokenProvider = idTokenProvider;
     }
 
-    /*
-     * Performs a synchronous Firebase token retrieval.
-     */
-    private String getFirebaseToken() {
-        FirebaseUser firebaseUser = FirebaseAuth.getInstance().getCurrentUser();
-        final CountDownLatch tokenRequestComplete = new CountDownLatch(1);
-        final StringBuffer tokenBuffer = new StringBuffer();
-
-        if (firebaseUser == null) {
-            throw new IllegalStateException("Firebase user is not found");
-        }
-
-        firebaseUser
-                .getIdToken(true)
-                .addOnSuccessListener(
-                        getTokenResult -> {
-                            tokenBuffer.append(getTokenResult.getToken());
-                            tokenRequestComplete.countDown();
-                        })
-                .addOnFailureListener(
-                        e -> {
-                            Timber.e(e, FIREBASE_TOKEN_TASK_FAILED);
-                            tokenRequestComplete.countDown();
-                        });
-
-        try {
-            tokenRequestComplete.await(FIREBASE_TOKEN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
-        } catch (InterruptedException e) {
-            Timber.e(e, FIREBASE_TOKEN_TASK_FAILED);
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        String token = idTokenProvider.getToken();
+        if (token == null) {
+            throw new IOException("Failed to get Firebase Token");
         }
+        Request authorizedRequest =
+                chain.request().newBuilder().header(HEADER_AUTHORIZATION, token).build();
 
-        return tokenBuffer.toString();
+        return chain.proceed(authorizedRequest);
     }
 }
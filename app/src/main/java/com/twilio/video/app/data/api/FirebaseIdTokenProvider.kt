@@ -0,0 +1,163 @@
+package com.twilio.video.app.data.api
+
+import androidx.annotation.VisibleForTesting
+import com.twilio.video.app.auth.FirebaseWrapper
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executor
+import java.util.concurrent.TimeUnit
+import timber.log.Timber
+
+private const val ID_TOKEN_TIMEOUT_MS = 10000L
+private val MIN_ID_TOKEN_VALIDITY_MS = TimeUnit.MINUTES.toMillis(1)
+private val ID_TOKEN_REFRESH_AHEAD_MS = TimeUnit.MINUTES.toMillis(5)
+
+data class IdToken(val token: String, val expiresAtMillis: Long, val userId: String)
+
+interface IdTokenSource {
+    val userId: String?
+
+    /*
+     * Requests an ID token for the current user. Exactly one of the callbacks is invoked, on any
+     * thread.
+     */
+    fun getIdToken(
+        forceRefresh: Boolean,
+        onSuccess: (IdToken) -> Unit,
+        onFailure: (Exception) -> Unit
+    )
+}
+
+class FirebaseIdTokenSource(private val firebaseWrapper: FirebaseWrapper) : IdTokenSource {
+
+    // Delivers the results on the Firebase thread, the main thread might be waiting for them
+    private val directExecutor = Executor { it.run() }
+
+    override val userId: String?
+        get() = firebaseWrapper.instance.currentUser?.uid
+
+    override fun getIdToken(
+        forceRefresh: Boolean,
+        onSuccess: (IdToken) -> Unit,
+        onFailure: (Exception) -> Unit
+    ) {
+        val firebaseUser = firebaseWrapper.instance.currentUser
+                ?: return onFailure(IllegalStateException("Firebase user is not found"))
+        firebaseUser.getIdToken(forceRefresh)
+                .addOnSuccessListener(directExecutor) { result ->
+                    val token = result.token
+                    if (token != null) {
+                        onSuccess(IdToken(token,
+                                TimeUnit.SECONDS.toMillis(result.expirationTimestamp),
+                                firebaseUser.uid))
+                    } else {
+                        onFailure(IllegalStateException("Firebase ID token is null"))
+                    }
+                }
+                .addOnFailureListener(directExecutor) { onFailure(it) }
+    }
+}
+
+/*
+ * Provides the Firebase ID token of the signed in user to the video app service requests. The
+ * token is kept until shortly before it expires so that requests do not wait for Firebase. Tokens
+ * close to their expiration are still used while a new one is requested in the background, and
+ * concurrent refreshes share a single Firebase request. Requests only wait when no usable token
+ * is cached, such as for the first request after signing in. A forced refresh does not share a
+ * pending request that is not forced, as that may only return the cached token.
+ */
+class FirebaseIdTokenProvider @JvmOverloads constructor(
+    private val idTokenSource: IdTokenSource,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+
+    @Volatile
+    private var idToken: IdToken? = null
+    private var pendingRefresh: Refresh? = null
+    private val lock = Any()
+    @VisibleForTesting
+    @Volatile
+    internal var requestCount = 0
+        private set
+
+    /*
+     * Returns a usable ID token, waiting for Firebase only if none is cached. Returns null if
+     * the token could not be retrieved.
+     */
+    fun getToken(): String? {
+        idToken?.takeIf { it.userId == idTokenSource.userId }?.let { idToken ->
+            val validityMillis = idToken.expiresAtMillis - clock()
+            if (validityMillis > MIN_ID_TOKEN_VALIDITY_MS) {
+                if (validityMillis < ID_TOKEN_REFRESH_AHEAD_MS) refresh(forceRefresh = true)
+                return idToken.token
+            }
+        }
+        return refresh(forceRefresh = false).await()
+    }
+
+    /*
+     * Replaces a token rejected by the server. A token that was already replaced by another
+     * request is not refreshed again.
+     */
+    fun refreshToken(rejectedToken: String?): String? {
+        idToken?.let { idToken ->
+            if (idToken.token != rejectedToken && idToken.userId == idTokenSource.userId) {
+                return idToken.token
+            }
+        }
+        return refresh(forceRefresh = true).await()
+    }
+
+    private fun refresh(forceRefresh: Boolean): Refresh {
+        val refresh = synchronized(lock) {
+            pendingRefresh?.takeIf { it.forceRefresh || !forceRefresh }?.let { return it }
+            requestCount++
+            Refresh(forceRefresh).also { pendingRefresh = it }
+        }
+        val startNanos = System.nanoTime()
+        idTokenSource.getIdToken(forceRefresh, { idToken ->
+            Timber.d("Retrieved Firebase ID token in %d ms",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+            updateIdToken(idToken)
+            refresh.complete(idToken.token)
+        }, { exception ->
+            Timber.e(exception, "Failed to get Firebase ID token")
+            refresh.complete(null)
+        })
+        return refresh
+    }
+
+    /*
+     * Keeps the token that expires last, so that a request that was not forced and completes
+     * after a forced one does not bring back the token it replaced.
+     */
+    private fun updateIdToken(idToken: IdToken) = synchronized(lock) {
+        val currentIdToken = this.idToken
+        if (currentIdToken == null || currentIdToken.userId != idToken.userId ||
+                idToken.expiresAtMillis >= currentIdToken.expiresAtMillis) {
+            this.idToken = idToken
+        }
+    }
+
+    private inner class Refresh(val forceRefresh: Boolean) {
+        private val completed = CountDownLatch(1)
+        @Volatile
+        private var token: String? = null
+
+        fun complete(token: String?) {
+            synchronized(lock) { if (pendingRefresh === this) pendingRefresh = null }
+            this.token = token
+            completed.countDown()
+        }
+
+        fun await(): String? {
+            try {
+                if (!completed.await(ID_TOKEN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    Timber.e("Timed out waiting for Firebase ID token")
+                }
+            } catch (e: InterruptedException) {
+                Thread.currentThread().interrupt()
+            }
+            return token
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.twilio.video.app.data.api
+
+import okhttp3.Authenticator
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.Route
+import timber.log.Timber
+
+/*
+ * Retries a request rejected with 401 once, with a new Firebase ID token in place of the
+ * rejected one.
+ */
+internal class FirebaseTokenAuthenticator(
+    private val idTokenProvider: FirebaseIdTokenProvider
+) : Authenticator {
+
+    override fun authenticate(route: Route?, response: Response): Request? {
+        if (response.priorResponse() != null) {
+            Timber.w("Request was rejected again after refreshing the Firebase ID token")
+            return null
+        }
+        val rejectedToken = response.request().header(FirebaseAuthInterceptor.HEADER_AUTHORIZATION)
+        val token = idTokenProvider.refreshToken(rejectedToken) ?: return null
+        return response.request()
+                .newBuilder()
+                .header(FirebaseAuthInterceptor.HEADER_AUTHORIZATION, token)
+                .build()
+    }
+}
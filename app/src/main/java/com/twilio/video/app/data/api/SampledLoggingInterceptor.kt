@@ -0,0 +1,61 @@
+package com.twilio.video.app.data.api
+
+import java.io.IOException
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import okhttp3.Interceptor
+import okhttp3.MediaType
+import okhttp3.Response
+import okio.Buffer
+import timber.log.Timber
+
+private const val BODY_SAMPLE_INTERVAL = 10
+private const val MAX_LOGGED_BODY_BYTES = 2048L
+
+/*
+ * Logs one line per request with its status and duration, and the text bodies of one request in
+ * every bodySampleInterval. Bodies are capped at maxBodyBytes: larger request bodies are skipped
+ * and response bodies are peeked up to the cap, so a large body is never buffered for logging.
+ */
+class SampledLoggingInterceptor @JvmOverloads constructor(
+    private val bodySampleInterval: Int = BODY_SAMPLE_INTERVAL,
+    private val maxBodyBytes: Long = MAX_LOGGED_BODY_BYTES,
+    private val log: (String) -> Unit = { Timber.tag("OkHttp").d("%s", it) }
+) : Interceptor {
+
+    private val requestCount = AtomicInteger()
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+        val isBodySampled = requestCount.getAndIncrement() % bodySampleInterval == 0
+        val startNanos = System.nanoTime()
+        val response = try {
+            chain.proceed(request)
+        } catch (e: IOException) {
+            log("${request.method()} ${request.url()} failed: $e")
+            throw e
+        }
+        log("${request.method()} ${request.url()} ${response.code()} ${response.protocol()} " +
+                "in ${TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)} ms")
+
+        if (isBodySampled) {
+            request.body()?.takeIf { body ->
+                isText(body.contentType()) && body.contentLength() in 0..maxBodyBytes
+            }?.let { body ->
+                val buffer = Buffer()
+                body.writeTo(buffer)
+                log("Request body: ${buffer.readUtf8()}")
+            }
+            response.body()?.takeIf { isText(it.contentType()) }?.let {
+                log("Response body: ${response.peekBody(maxBodyBytes).string()}")
+            }
+        }
+        return response
+    }
+
+    private fun isText(mediaType: MediaType?) = mediaType != null &&
+            (mediaType.type() == "text" ||
+                    mediaType.subtype().contains("json") ||
+                    mediaType.subtype().contains("xml") ||
+                    mediaType.subtype() == "x-www-form-urlencoded")
+}
@@ -0,0 +1,73 @@
+package com.twilio.video.app.data.api
+
+import android.util.Base64
+import com.google.gson.Gson
+import com.google.gson.JsonSyntaxException
+import java.util.concurrent.TimeUnit
+
+private const val MAX_CACHED_TOKENS = 8
+private val gson = Gson()
+
+data class TokenKey(
+    val identity: String?,
+    val roomName: String?,
+    val topology: String,
+    val environment: String,
+    val isRecordParticipantsOnConnect: Boolean
+)
+
+data class CachedToken(val token: String, val expiresAtMillis: Long)
+
+/*
+ * Keeps the access tokens of the most recently joined rooms in memory. Entries are evicted in
+ * least recently used order and dropped altogether on logout. Clearing bumps the generation so
+ * that requests started before the clear cannot put their tokens back.
+ */
+class TokenCache(private val maxSize: Int = MAX_CACHED_TOKENS) {
+
+    private val tokens = object : LinkedHashMap<TokenKey, CachedToken>(maxSize, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<TokenKey, CachedToken>) =
+                size > maxSize
+    }
+    @get:Synchronized
+    var generation = 0
+        private set
+
+    @Synchronized
+    fun get(key: TokenKey): CachedToken? = tokens[key]
+
+    @Synchronized
+    fun put(key: TokenKey, cachedToken: CachedToken, generation: Int) {
+        if (generation == this.generation) tokens[key] = cachedToken
+    }
+
+    @Synchronized
+    fun remove(key: TokenKey) {
+        tokens.remove(key)
+    }
+
+    @Synchronized
+    fun clear() {
+        generation++
+        tokens.clear()
+    }
+}
+
+/*
+ * Decodes the exp claim of a JWT without verifying the signature, which is left to the server
+ * the token is presented to. Returns null for tokens that are not a JWT or have no expiration.
+ */
+internal fun jwtExpirationMillis(token: String): Long? {
+    val payload = token.split('.').takeIf { it.size == 3 }?.get(1) ?: return null
+    return try {
+        val json = String(Base64.decode(payload,
+                Base64.URL_SAFE or Base64.NO_WRAP or Base64.NO_PADDING), Charsets.UTF_8)
+        gson.fromJson(json, JwtClaims::class.java)?.exp?.let { TimeUnit.SECONDS.toMillis(it) }
+    } catch (e: IllegalArgumentException) {
+        null
+    } catch (e: JsonSyntaxException) {
+        null
+    }
+}
+
+private class JwtClaims(val exp: Long? = null)
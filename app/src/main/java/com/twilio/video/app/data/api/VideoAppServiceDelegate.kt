@@ -16,40 +16,27 @@
 
 package com.twilio.video.app.data.api
 
-import android.content.SharedPreferences
-import com.twilio.video.app.data.Preferences.ENVIRONMENT
-import com.twilio.video.app.data.Preferences.ENVIRONMENT_DEFAULT
-import com.twilio.video.app.data.Preferences.RECORD_PARTICIPANTS_ON_CONNECT
-import com.twilio.video.app.data.Preferences.RECORD_PARTICIPANTS_ON_CONNECT_DEFAULT
-import com.twilio.video.app.data.Preferences.TOPOLOGY
-import com.twilio.video.app.data.Preferences.TOPOLOGY_DEFAULT
+import com.twilio.video.app.data.CallConfigurationProvider
 import timber.log.Timber
 
 class VideoAppServiceDelegate(
-    private val sharedPreferences: SharedPreferences,
     private val videoAppServiceDev: VideoAppService,
     private val videoAppServiceStage: VideoAppService,
-    private val videoAppServiceProd: VideoAppService
+    private val videoAppServiceProd: VideoAppService,
+    private val callConfigurationProvider: CallConfigurationProvider
 ) : TokenService {
 
     override suspend fun getToken(identity: String?, roomName: String?): String {
-        val topology = sharedPreferences.getString(
-                TOPOLOGY,
-                TOPOLOGY_DEFAULT)
-        val isRecordParticipantsOnConnect = sharedPreferences.getBoolean(
-                RECORD_PARTICIPANTS_ON_CONNECT,
-                RECORD_PARTICIPANTS_ON_CONNECT_DEFAULT)
-        val env = sharedPreferences.getString(
-                ENVIRONMENT, ENVIRONMENT_DEFAULT)
+        val callConfiguration = callConfigurationProvider.callConfiguration
 
-        val videoAppService = resolveVideoAppService(env!!)
+        val videoAppService = resolveVideoAppService(callConfiguration.environment)
         Timber.d("app service env = $videoAppService")
         return videoAppService.getToken(
                 identity,
                 roomName,
                 "production",
-                topology,
-                isRecordParticipantsOnConnect)
+                callConfiguration.topology,
+                callConfiguration.isRecordParticipantsOnConnect)
     }
 
     private fun resolveVideoAppService(env: String): VideoAppService {
@@ -0,0 +1,44 @@
+package com.twilio.video.app.data.api
+
+import dagger.Lazy
+import okhttp3.Call
+import okhttp3.OkHttpClient
+import retrofit2.Retrofit
+import retrofit2.converter.gson.GsonConverterFactory
+import retrofit2.converter.scalars.ScalarsConverterFactory
+
+/*
+ * Creates the VideoAppService of each environment. A service is only built when its first
+ * request is made, and all of them share the converters and the OkHttpClient, which is itself
+ * built on the first request of any environment.
+ */
+class VideoAppServiceFactory(okHttpClient: Lazy<OkHttpClient>) {
+
+    private val callFactory = Call.Factory { request -> okHttpClient.get().newCall(request) }
+    private val scalarsConverterFactory = ScalarsConverterFactory.create()
+    private val gsonConverterFactory = GsonConverterFactory.create()
+
+    fun create(baseUrl: String): VideoAppService = LazyVideoAppService {
+        Retrofit.Builder()
+                .callFactory(callFactory)
+                .baseUrl(baseUrl)
+                .addConverterFactory(scalarsConverterFactory)
+                .addConverterFactory(gsonConverterFactory)
+                .build()
+                .create(VideoAppService::class.java)
+    }
+
+    private class LazyVideoAppService(create: () -> VideoAppService) : VideoAppService {
+
+        private val videoAppService by lazy(create)
+
+        override suspend fun getToken(
+            identity: String?,
+            roomName: String?,
+            appEnvironment: String?,
+            topology: String?,
+            recordParticipantsOnConnect: Boolean
+        ) = videoAppService.getToken(identity, roomName, appEnvironment, topology,
+                recordParticipantsOnConnect)
+    }
+}
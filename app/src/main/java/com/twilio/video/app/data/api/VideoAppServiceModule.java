@@ -18,17 +18,21 @@ package com.twilio.video.app.data.api;
 
 import static com.twilio.video.app.util.BuildConfigUtilsKt.isReleaseBuildType;
 
-import android.content.SharedPreferences;
+import android.app.Application;
 import com.twilio.video.app.ApplicationScope;
+import com.twilio.video.app.auth.FirebaseWrapper;
+import com.twilio.video.app.data.CallConfigurationProvider;
+import dagger.Lazy;
 import dagger.Module;
 import dagger.Provides;
+import java.io.File;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Named;
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
-import retrofit2.Retrofit;
-import retrofit2.converter.gson.GsonConverterFactory;
-import retrofit2.converter.scalars.ScalarsConverterFactory;
+import okhttp3.Protocol;
 
 @Module
 public class VideoAppServiceModule {
@@ -36,80 +40,94 @@ public class VideoAppServiceModule {
     private static final String VIDEO_APP_SERVICE_STAGE_URL =
             "https://app.stage.video.bytwilio.com";
     private static final String VIDEO_APP_SERVICE_PROD_URL = "https://app.video.bytwilio.com";
+    private static final String HTTP_CACHE_DIRECTORY = "video_app_service";
+    private static final long HTTP_CACHE_SIZE_BYTES = 1024 * 1024;
+    private static final int MAX_IDLE_CONNECTIONS = 2;
+    private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+
+    @Provides
+    @ApplicationScope
+    FirebaseIdTokenProvider providesFirebaseIdTokenProvider(FirebaseWrapper firebaseWrapper) {
+        return new FirebaseIdTokenProvider(new FirebaseIdTokenSource(firebaseWrapper));
+    }
 
     @Provides
     @ApplicationScope
     @Named("VideoAppService")
-    OkHttpClient providesOkHttpClient() {
+    OkHttpClient providesOkHttpClient(
+            Application application, FirebaseIdTokenProvider idTokenProvider) {
         OkHttpClient.Builder builder = new OkHttpClient.Builder();
         if (!isReleaseBuildType()) {
-            HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-            interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-            builder.addInterceptor(interceptor);
+            builder.addInterceptor(new SampledLoggingInterceptor());
         }
         return builder.readTimeout(30, TimeUnit.SECONDS)
                 .connectTimeout(30, TimeUnit.SECONDS)
-                .addInterceptor(new FirebaseAuthInterceptor())
+                .connectionPool(
+                        new ConnectionPool(
+                                MAX_IDLE_CONNECTIONS,
+                                KEEP_ALIVE_DURATION_MINUTES,
+                                TimeUnit.MINUTES))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .cache(
+                        new Cache(
+                                new File(application.getCacheDir(), HTTP_CACHE_DIRECTORY),
+                                HTTP_CACHE_SIZE_BYTES))
+                .dns(new CachingDns())
+                .addInterceptor(new FirebaseAuthInterceptor(idTokenProvider))
+                .authenticator(new FirebaseTokenAuthenticator(idTokenProvider))
                 .build();
     }
 
+    @Provides
+    @ApplicationScope
+    VideoAppServiceFactory providesVideoAppServiceFactory(
+            @Named("VideoAppService") Lazy<OkHttpClient> okHttpClient) {
+        return new VideoAppServiceFactory(okHttpClient);
+    }
+
     @Provides
     @ApplicationScope
     @Named("VideoAppServiceDev")
-    VideoAppService providesVideoAppServiceDev(
-            @Named("VideoAppService") OkHttpClient okHttpClient) {
-        return new Retrofit.Builder()
-                .client(okHttpClient)
-                .baseUrl(VIDEO_APP_SERVICE_DEV_URL)
-                .addConverterFactory(ScalarsConverterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build()
-                .create(VideoAppService.class);
+    VideoAppService providesVideoAppServiceDev(VideoAppServiceFactory videoAppServiceFactory) {
+        return videoAppServiceFactory.create(VIDEO_APP_SERVICE_DEV_URL);
     }
 
     @Provides
     @ApplicationScope
     @Named("VideoAppServiceStage")
-    VideoAppService providesVideoAppServiceStage(
-            @Named("VideoAppService") OkHttpClient okHttpClient) {
-        return new Retrofit.Builder()
-                .client(okHttpClient)
-                .baseUrl(VIDEO_APP_SERVICE_STAGE_URL)
-                .addConverterFactory(ScalarsConverterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build()
-                .create(VideoAppService.class);
+    VideoAppService providesVideoAppServiceStage(VideoAppServiceFactory videoAppServiceFactory) {
+        return videoAppServiceFactory.create(VIDEO_APP_SERVICE_STAGE_URL);
     }
 
     @Provides
     @ApplicationScope
     @Named("VideoAppServiceProd")
-    VideoAppService providesVideoAppServiceProd(
-            @Named("VideoAppService") OkHttpClient okHttpClient) {
-        return new Retrofit.Builder()
-                .client(okHttpClient)
-                .baseUrl(VIDEO_APP_SERVICE_PROD_URL)
-                .addConverterFactory(ScalarsConverterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .build()
-                .create(VideoAppService.class);
+    VideoAppService providesVideoAppServiceProd(VideoAppServiceFactory videoAppServiceFactory) {
+        return videoAppServiceFactory.create(VIDEO_APP_SERVICE_PROD_URL);
     }
 
     @Provides
     @ApplicationScope
     VideoAppServiceDelegate providesVideoAppServiceDelegate(
-            SharedPreferences sharedPreferences,
             @Named("VideoAppServiceDev") VideoAppService videoAppServiceDev,
             @Named("VideoAppServiceStage") VideoAppService videoAppServiceStage,
-            @Named("VideoAppServiceProd") VideoAppService videoAppServiceProd) {
+            @Named("VideoAppServiceProd") VideoAppService videoAppServiceProd,
+            CallConfigurationProvider callConfigurationProvider) {
 
         return new VideoAppServiceDelegate(
-                sharedPreferences, videoAppServiceDev, videoAppServiceStage, videoAppServiceProd);
+                videoAppServiceDev,
+                videoAppServiceStage,
+                videoAppServiceProd,
+                callConfigurationProvider);
     }
 
     @Provides
     @ApplicationScope
-    TokenService providesTokenService(final VideoAppServiceDelegate videoAppServiceDelegate) {
-        return videoAppServiceDelegate;
+    TokenService providesTokenService(
+            final VideoAppServiceDelegate videoAppServiceDelegate,
+            TokenCache tokenCache,
+            CallConfigurationProvider callConfigurationProvider) {
+        return new CachingTokenService(
+                videoAppServiceDelegate, tokenCache, callConfigurationProvider);
     }
 }
@@ -2,13 +2,22 @@ package com.twilio.video.app.participant
 
 import com.twilio.video.NetworkQualityLevel
 import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
+import com.twilio.video.VideoTrack
 import com.twilio.video.app.sdk.VideoTrackViewState
 import timber.log.Timber
 
 class ParticipantManager {
 
     private val mutableParticipants = mutableListOf<ParticipantViewState>()
-    val participantThumbnails: List<ParticipantViewState> get() = mutableParticipants.toList()
+    private val searchIndex = ParticipantSearchIndex()
+    private var participantFilter: String? = null
+    val participants: List<ParticipantViewState> get() = mutableParticipants.toList()
+    val participantThumbnails: List<ParticipantViewState> get() =
+        participantFilter?.let { filter ->
+            val matchingSids = searchIndex.search(filter)
+            mutableParticipants.filter { it.isLocalParticipant || it.sid in matchingSids }
+        } ?: mutableParticipants.toList()
     var primaryParticipant: ParticipantViewState
         private set
 
@@ -21,13 +30,39 @@ class ParticipantManager {
     fun addParticipant(participantViewState: ParticipantViewState) {
         Timber.d("Adding participant: %s", participantViewState)
         mutableParticipants.add(participantViewState)
+        participantViewState.sid?.let { searchIndex.add(it, participantViewState.identity) }
         updatePrimaryParticipant()
     }
 
+    /*
+     * Reconciles the remote participants against the actual room roster. Participants that are
+     * already present, for example placeholders restored from a RosterCache, are updated in
+     * place so the thumbnail strip only rebinds the entries that actually changed.
+     */
+    fun reconcileParticipants(participantViewStates: List<ParticipantViewState>) {
+        val sids = participantViewStates.mapNotNullTo(HashSet()) { it.sid }
+        mutableParticipants.filter { !it.isLocalParticipant && it.sid !in sids }
+                .forEach { stale -> stale.sid?.let { removeParticipant(it) } }
+
+        participantViewStates.forEach { participantViewState ->
+            getParticipant(participantViewState.sid ?: return@forEach)?.let { existing ->
+                val reconciled = participantViewState.copy(
+                        isPinned = existing.isPinned,
+                        isDominantSpeaker = existing.isDominantSpeaker)
+                if (reconciled != existing) updateParticipant(reconciled)
+            } ?: addParticipant(participantViewState)
+        }
+    }
+
     fun updateLocalParticipantVideoTrack(videoTrack: VideoTrackViewState?) =
             mutableParticipants.find { it.isLocalParticipant }?.copy(
                     videoTrack = videoTrack)?.let { updateLocalParticipant(it) }
 
+    fun updateLocalParticipantVideoTrackEnabled(isEnabled: Boolean) =
+            mutableParticipants.find { it.isLocalParticipant }?.videoTrack?.let {
+                updateLocalParticipantVideoTrack(it.copy(isEnabled = isEnabled))
+            }
+
     fun updateLocalParticipantSid(sid: String) =
             mutableParticipants.find { it.isLocalParticipant }?.copy(
                     sid = sid)?.let { updateLocalParticipant(it) }
@@ -50,6 +85,7 @@ class ParticipantManager {
     fun removeParticipant(sid: String) {
         Timber.d("Removing participant: %s", sid)
         mutableParticipants.removeAll { it.sid == sid }
+        searchIndex.remove(sid)
         updatePrimaryParticipant()
     }
 
@@ -71,6 +107,18 @@ class ParticipantManager {
                 screenTrack = screenTrack)?.let { updateParticipant(it) }
     }
 
+    /*
+     * Updates the enabled state of the video or screen track of a participant, so that views
+     * bind a sink once a track that was disabled when subscribed gets enabled.
+     */
+    fun updateVideoTrackEnabled(sid: String, videoTrack: VideoTrack, isEnabled: Boolean) {
+        val participant = getParticipant(sid) ?: return
+        participant.copy(
+                videoTrack = participant.videoTrack?.withEnabled(videoTrack, isEnabled),
+                screenTrack = participant.screenTrack?.withEnabled(videoTrack, isEnabled)
+        ).takeIf { it != participant }?.let { updateParticipant(it) }
+    }
+
     fun muteParticipant(sid: String, mute: Boolean) {
         getParticipant(sid)?.copy(isMuted = mute)?.let {
             updateParticipant(it)
@@ -119,9 +167,53 @@ class ParticipantManager {
 
     fun clearRemoteParticipants() {
         mutableParticipants.removeAll { !it.isLocalParticipant }
+        searchIndex.clear()
+        participantFilter = null
         updatePrimaryParticipant()
     }
 
+    /*
+     * Restricts the remote participant thumbnails to the participants whose identity contains
+     * the filter. The local participant thumbnail is always shown. A null or blank filter shows
+     * all participants.
+     */
+    fun filterParticipants(filter: String?) {
+        participantFilter = filter?.takeIf { it.isNotBlank() }
+    }
+
+    /*
+     * Requests the remote video tracks of everyone but the primary participant at a low priority
+     * while only the primary participant is shown, such as in picture-in-picture.
+     */
+    fun deprioritizeThumbnails() {
+        val primaryVideoTrack = primaryParticipant.getRemoteVideoTrack()
+        mutableParticipants.forEach { participant ->
+            participant.getRemoteVideoTrack()
+                    ?.takeIf { it !== primaryVideoTrack && it.priority != LOW }
+                    ?.priority = LOW
+        }
+    }
+
+    /*
+     * Clears the priorities other layouts, such as the participant grid, requested for the remote
+     * video tracks and requests the primary participant at the priority it is shown with.
+     */
+    fun restoreTrackPriorities() {
+        mutableParticipants.forEach { participant ->
+            participant.getRemoteVideoTrack()?.takeIf { it.priority != null }?.priority = null
+        }
+        primaryParticipant.run {
+            when {
+                isScreenSharing -> getRemoteScreenTrack()?.priority = HIGH
+                !isDominantSpeaker -> getRemoteVideoTrack()?.priority = HIGH
+            }
+        }
+        Timber.d("Restored track priorities for primary participant with sid: ${primaryParticipant.sid}")
+    }
+
+    private fun VideoTrackViewState.withEnabled(videoTrack: VideoTrack, isEnabled: Boolean) =
+            if (this.videoTrack === videoTrack) copy(isEnabled = isEnabled) else this
+
     private fun updatePrimaryParticipant() {
         primaryParticipant = retrievePrimaryParticipant()
         Timber.d("Participant Cache: $mutableParticipants")
@@ -0,0 +1,85 @@
+package com.twilio.video.app.participant
+
+import androidx.annotation.VisibleForTesting
+import java.util.Locale
+import java.util.TreeMap
+
+private const val MAX_INDEXED_IDENTITY_LENGTH = 64
+
+/*
+ * Incrementally maintained search index over participant identities. Every suffix of an
+ * identity is stored in a sorted map so that both prefix and substring lookups resolve to a
+ * bounded range scan instead of a pass over every participant.
+ */
+class ParticipantSearchIndex {
+
+    private val identities = HashMap<String, String>()
+    private val suffixIndex = TreeMap<String, MutableSet<String>>()
+
+    val size: Int get() = identities.size
+    @VisibleForTesting
+    internal var scannedSuffixCount = 0
+        private set
+
+    fun add(sid: String, identity: String?) {
+        remove(sid)
+        val normalizedIdentity = identity?.let { normalize(it) }
+        if (normalizedIdentity.isNullOrEmpty()) return
+
+        identities[sid] = normalizedIdentity
+        forEachSuffix(normalizedIdentity) { suffix ->
+            suffixIndex.getOrPut(suffix) { HashSet(1) }.add(sid)
+        }
+    }
+
+    fun remove(sid: String) {
+        identities.remove(sid)?.let { normalizedIdentity ->
+            forEachSuffix(normalizedIdentity) { suffix ->
+                suffixIndex[suffix]?.let { sids ->
+                    sids.remove(sid)
+                    if (sids.isEmpty()) suffixIndex.remove(suffix)
+                }
+            }
+        }
+    }
+
+    fun clear() {
+        identities.clear()
+        suffixIndex.clear()
+    }
+
+    /*
+     * Returns the sids of all participants whose identity starts with the query.
+     */
+    fun searchPrefix(query: String): Set<String> {
+        val normalizedQuery = normalize(query)
+        return search(normalizedQuery).filterTo(HashSet()) { sid ->
+            identities[sid]?.startsWith(normalizedQuery) == true
+        }
+    }
+
+    /*
+     * Returns the sids of all participants whose identity contains the query.
+     */
+    fun search(query: String): Set<String> {
+        val normalizedQuery = normalize(query)
+        if (normalizedQuery.isEmpty()) return identities.keys.toSet()
+
+        val matches = HashSet<String>()
+        var scannedSuffixCount = 0
+        for ((suffix, sids) in suffixIndex.tailMap(normalizedQuery, true)) {
+            scannedSuffixCount++
+            if (!suffix.startsWith(normalizedQuery)) break
+            matches.addAll(sids)
+        }
+        this.scannedSuffixCount = scannedSuffixCount
+        return matches
+    }
+
+    private inline fun forEachSuffix(normalizedIdentity: String, action: (String) -> Unit) {
+        for (index in normalizedIdentity.indices) action(normalizedIdentity.substring(index))
+    }
+
+    private fun normalize(value: String) =
+            value.trim().toLowerCase(Locale.ROOT).take(MAX_INDEXED_IDENTITY_LENGTH)
+}
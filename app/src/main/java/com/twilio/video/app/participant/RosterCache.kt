@@ -0,0 +1,133 @@
+package com.twilio.video.app.participant
+
+import android.content.SharedPreferences
+import androidx.annotation.VisibleForTesting
+import androidx.core.content.edit
+import com.twilio.video.NetworkQualityLevel
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_UNKNOWN
+
+const val ROSTER_CACHE_PREFERENCES = "roster_cache"
+private const val ROSTER_KEY_PREFIX = "roster_"
+private const val ROSTER_ROOMS_KEY = "roster_rooms"
+private const val MAX_CACHED_ROOMS = 8
+private const val FIELD_SEPARATOR = '\t'
+private const val ENTRY_SEPARATOR = '\n'
+
+data class RosterEntry(
+    val sid: String,
+    val identity: String?,
+    val isMuted: Boolean = false,
+    val networkQualityLevel: NetworkQualityLevel = NETWORK_QUALITY_LEVEL_UNKNOWN
+) {
+    fun toParticipantViewState() = ParticipantViewState(
+            sid,
+            identity,
+            isMuted = isMuted,
+            networkQualityLevel = networkQualityLevel)
+}
+
+/*
+ * Keeps the last known remote participant roster per room name so the participant strip can be
+ * rendered with placeholders before the room connects. Rosters are held in memory and, when
+ * SharedPreferences are provided, persisted as a compact tab separated string per room.
+ */
+class RosterCache(private val sharedPreferences: SharedPreferences? = null) {
+
+    private val rosters = object : LinkedHashMap<String, List<RosterEntry>>(
+            MAX_CACHED_ROOMS, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, List<RosterEntry>>) =
+                size > MAX_CACHED_ROOMS
+    }
+
+    @Synchronized
+    fun get(roomName: String): List<RosterEntry>? =
+            rosters[roomName] ?: sharedPreferences?.getString(rosterKey(roomName), null)
+                    ?.let { decodeRoster(it) }
+                    ?.also { rosters[roomName] = it }
+
+    @Synchronized
+    fun update(roomName: String, participants: List<ParticipantViewState>) {
+        rosters[roomName] = participants.mapNotNull { participant ->
+            participant.sid?.takeUnless { participant.isLocalParticipant }?.let { sid ->
+                RosterEntry(sid, participant.identity, participant.isMuted,
+                        participant.networkQualityLevel)
+            }
+        }
+    }
+
+    @Synchronized
+    fun persist(roomName: String) {
+        val roster = rosters[roomName] ?: return
+        sharedPreferences?.let { sharedPreferences ->
+            val rooms = sharedPreferences.getString(ROSTER_ROOMS_KEY, null)
+                    ?.split(ENTRY_SEPARATOR)
+                    ?.filter { it.isNotEmpty() && it != roomName }
+                    ?.toMutableList() ?: mutableListOf()
+            rooms.add(roomName)
+            val evictedRooms = rooms.take((rooms.size - MAX_CACHED_ROOMS).coerceAtLeast(0))
+            rooms.removeAll(evictedRooms)
+
+            sharedPreferences.edit {
+                evictedRooms.forEach { remove(rosterKey(it)) }
+                putString(rosterKey(roomName), encodeRoster(roster))
+                putString(ROSTER_ROOMS_KEY, rooms.joinToString(ENTRY_SEPARATOR.toString()))
+            }
+        }
+    }
+
+    @Synchronized
+    fun clear() {
+        rosters.clear()
+        sharedPreferences?.edit { clear() }
+    }
+
+    private fun rosterKey(roomName: String) = ROSTER_KEY_PREFIX + roomName
+
+    @VisibleForTesting
+    internal fun encodeRoster(roster: List<RosterEntry>) =
+            roster.joinToString(ENTRY_SEPARATOR.toString()) { entry ->
+                listOf(escape(entry.sid),
+                        escape(entry.identity ?: ""),
+                        if (entry.isMuted) "1" else "0",
+                        entry.networkQualityLevel.ordinal.toString())
+                        .joinToString(FIELD_SEPARATOR.toString())
+            }
+
+    @VisibleForTesting
+    internal fun decodeRoster(encodedRoster: String): List<RosterEntry> =
+            encodedRoster.split(ENTRY_SEPARATOR).mapNotNull { encodedEntry ->
+                encodedEntry.split(FIELD_SEPARATOR).takeIf { it.size == 4 }?.let { fields ->
+                    RosterEntry(
+                            unescape(fields[0]),
+                            unescape(fields[1]).takeIf { it.isNotEmpty() },
+                            fields[2] == "1",
+                            NetworkQualityLevel.values().getOrNull(fields[3].toIntOrNull() ?: -1)
+                                    ?: NETWORK_QUALITY_LEVEL_UNKNOWN)
+                }
+            }
+
+    private fun escape(value: String) = value
+            .replace("\\", "\\\\")
+            .replace("$FIELD_SEPARATOR", "\\t")
+            .replace("$ENTRY_SEPARATOR", "\\n")
+
+    private fun unescape(value: String): String {
+        val builder = StringBuilder(value.length)
+        var index = 0
+        while (index < value.length) {
+            val char = value[index]
+            if (char == '\\' && index + 1 < value.length) {
+                builder.append(when (value[index + 1]) {
+                    't' -> FIELD_SEPARATOR
+                    'n' -> ENTRY_SEPARATOR
+                    else -> value[index + 1]
+                })
+                index += 2
+            } else {
+                builder.append(char)
+                index++
+            }
+        }
+        return builder.toString()
+    }
+}
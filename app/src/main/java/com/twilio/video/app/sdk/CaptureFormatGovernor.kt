@@ -0,0 +1,159 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.NetworkQualityLevel
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FOUR
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_TWO
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_UNKNOWN
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ZERO
+import com.twilio.video.VideoDimensions
+import com.twilio.video.VideoFormat
+import com.twilio.video.app.data.Preferences.VIDEO_DIMENSIONS
+import timber.log.Timber
+
+private val LOW_FRAME_RATES = listOf(20, 15)
+private const val DOWNGRADE_SAMPLES = 3
+private const val UPGRADE_SAMPLES = 10
+private const val UPGRADE_HOLD_MS = 15_000L
+private const val MAX_ROUND_TRIP_TIME_MS = 400L
+private const val HEALTHY_ROUND_TRIP_TIME_MS = 200L
+private const val MIN_BITS_PER_PIXEL = 0.04
+
+/*
+ * A sample of the send side stats of the camera track.
+ */
+data class CaptureFormatSample(
+    val bytesSent: Long,
+    val roundTripTimeMs: Long,
+    val encodeFps: Int,
+    val sentDimensions: VideoDimensions,
+    val captureDimensions: VideoDimensions,
+    val timestampMs: Long
+)
+
+/*
+ * Steps the capture format of the camera down or up a ladder of the VIDEO_DIMENSIONS up to the
+ * one picked in the settings, followed by lower frame rates at the smallest dimensions.
+ *
+ * A step down needs three consecutive constrained stats samples: a poor network quality level,
+ * a high round trip time, an encoder that cannot keep up with the capture frame rate or that
+ * scales frames down, or a bitrate too low for the format. A step up needs ten consecutive
+ * samples with headroom for the next step and is held off for 15 seconds after any change, so
+ * the format does not oscillate around a constraint.
+ */
+class CaptureFormatGovernor(maxDimensionsIndex: Int, maxFrameRate: Int) {
+
+    private val ladder: List<VideoFormat> =
+            (maxDimensionsIndex.coerceIn(0, VIDEO_DIMENSIONS.lastIndex) downTo 0).map {
+                VideoFormat(VIDEO_DIMENSIONS[it], maxFrameRate)
+            } + LOW_FRAME_RATES.filter { it < maxFrameRate }.map {
+                VideoFormat(VIDEO_DIMENSIONS[0], it)
+            }
+    private var step = 0
+    private var networkQualityLevel = NETWORK_QUALITY_LEVEL_UNKNOWN
+    private var previousSample: CaptureFormatSample? = null
+    private var constrainedSamples = 0
+    private var headroomSamples = 0
+    private var lastChangeMs: Long? = null
+
+    val videoFormat: VideoFormat @Synchronized get() = ladder[step]
+
+    @Synchronized
+    fun onNetworkQualityLevelChanged(networkQualityLevel: NetworkQualityLevel) {
+        this.networkQualityLevel = networkQualityLevel
+    }
+
+    /*
+     * Drops the previous sample and the consecutive sample counts while the track sends no
+     * frames, so that the samples around a disabled period do not count towards a step.
+     */
+    @Synchronized
+    fun onTrackDisabled() {
+        previousSample = null
+        constrainedSamples = 0
+        headroomSamples = 0
+    }
+
+    /*
+     * Returns the format to capture at when the sample results in a step, otherwise null.
+     */
+    @Synchronized
+    fun onStats(sample: CaptureFormatSample): VideoFormat? {
+        val bitrateBps = previousSample?.let { previousSample ->
+            val intervalMs = sample.timestampMs - previousSample.timestampMs
+            if (intervalMs > 0 && sample.bytesSent >= previousSample.bytesSent) {
+                (sample.bytesSent - previousSample.bytesSent) * 8 * 1000 / intervalMs
+            } else null
+        }
+        previousSample = sample
+
+        if (isConstrained(sample, bitrateBps)) {
+            headroomSamples = 0
+            if (++constrainedSamples >= DOWNGRADE_SAMPLES && step < ladder.lastIndex) {
+                return changeStep(step + 1, sample, bitrateBps)
+            }
+        } else {
+            constrainedSamples = 0
+            val isHeld = lastChangeMs?.let { sample.timestampMs - it < UPGRADE_HOLD_MS } ?: false
+            if (step > 0 && !isHeld && hasHeadroom(sample, bitrateBps)) {
+                if (++headroomSamples >= UPGRADE_SAMPLES) {
+                    return changeStep(step - 1, sample, bitrateBps)
+                }
+            } else {
+                headroomSamples = 0
+            }
+        }
+        return null
+    }
+
+    private fun changeStep(
+        newStep: Int,
+        sample: CaptureFormatSample,
+        bitrateBps: Long?
+    ): VideoFormat {
+        Timber.i("Capture format %s -> %s, network quality %s, rtt %d ms, encode fps %d, " +
+                "bitrate %s bps", describe(ladder[step]), describe(ladder[newStep]),
+                networkQualityLevel, sample.roundTripTimeMs, sample.encodeFps, bitrateBps)
+        step = newStep
+        constrainedSamples = 0
+        headroomSamples = 0
+        lastChangeMs = sample.timestampMs
+        return ladder[step]
+    }
+
+    private fun isConstrained(sample: CaptureFormatSample, bitrateBps: Long?): Boolean {
+        val videoFormat = ladder[step]
+        return networkQualityLevel in CONSTRAINED_NETWORK_QUALITY_LEVELS ||
+                sample.roundTripTimeMs > MAX_ROUND_TRIP_TIME_MS ||
+                sample.encodeFps * 10 < videoFormat.framerate * 6 ||
+                pixels(sample.sentDimensions) * 4 < pixels(sample.captureDimensions) * 3 ||
+                bitrateBps?.let { it * 2 < minBitrateBps(videoFormat) } ?: false
+    }
+
+    private fun hasHeadroom(sample: CaptureFormatSample, bitrateBps: Long?): Boolean {
+        val videoFormat = ladder[step]
+        return networkQualityLevel in HEADROOM_NETWORK_QUALITY_LEVELS &&
+                sample.roundTripTimeMs < HEALTHY_ROUND_TRIP_TIME_MS &&
+                sample.encodeFps * 10 >= videoFormat.framerate * 9 &&
+                pixels(sample.sentDimensions) >= pixels(sample.captureDimensions) &&
+                bitrateBps?.let { it >= minBitrateBps(ladder[step - 1]) } ?: false
+    }
+
+    private fun minBitrateBps(videoFormat: VideoFormat) =
+            (pixels(videoFormat.dimensions) * videoFormat.framerate * MIN_BITS_PER_PIXEL).toLong()
+
+    private fun pixels(dimensions: VideoDimensions) = dimensions.width.toLong() * dimensions.height
+
+    private fun describe(videoFormat: VideoFormat) = videoFormat.run {
+        "${dimensions.width}x${dimensions.height}@$framerate"
+    }
+
+    private companion object {
+        val CONSTRAINED_NETWORK_QUALITY_LEVELS = setOf(NETWORK_QUALITY_LEVEL_ZERO,
+                NETWORK_QUALITY_LEVEL_ONE, NETWORK_QUALITY_LEVEL_TWO)
+        // Unknown when network quality reporting is disabled in the settings
+        val HEADROOM_NETWORK_QUALITY_LEVELS = setOf(NETWORK_QUALITY_LEVEL_FOUR,
+                NETWORK_QUALITY_LEVEL_FIVE, NETWORK_QUALITY_LEVEL_UNKNOWN)
+    }
+}
@@ -0,0 +1,33 @@
+package com.twilio.video.app.sdk
+
+import tvi.webrtc.VideoFrame
+import tvi.webrtc.VideoSink
+
+/*
+ * Measures the time from a call to start until the next frame of the track it is a sink of.
+ * The probe stays attached to the track and only does work for the first frame after start.
+ */
+internal class FirstFrameProbe(
+    private val clock: () -> Long = System::nanoTime,
+    private val onFirstFrame: (latencyNanos: Long) -> Unit
+) : VideoSink {
+
+    @Volatile
+    private var startNanos: Long? = null
+
+    val isWaiting: Boolean get() = startNanos != null
+
+    fun start() {
+        startNanos = clock()
+    }
+
+    fun cancel() {
+        startNanos = null
+    }
+
+    override fun onFrame(videoFrame: VideoFrame) {
+        val startNanos = startNanos ?: return
+        this.startNanos = null
+        onFirstFrame(clock() - startNanos)
+    }
+}
@@ -0,0 +1,42 @@
+package com.twilio.video.app.sdk
+
+import android.content.Context
+import com.twilio.video.VideoCapturer
+import tvi.webrtc.CapturerObserver
+import tvi.webrtc.SurfaceTextureHelper
+import tvi.webrtc.VideoFrame
+
+/*
+ * Video capturer that runs the frames of another capturer through a FrameProcessorChain before
+ * they reach the track.
+ */
+internal class FrameProcessingCapturer(
+    private val videoCapturer: VideoCapturer,
+    private val frameProcessorChain: FrameProcessorChain
+) : VideoCapturer by videoCapturer {
+
+    override fun initialize(
+        surfaceTextureHelper: SurfaceTextureHelper,
+        context: Context,
+        capturerObserver: CapturerObserver
+    ) {
+        videoCapturer.initialize(surfaceTextureHelper, context,
+                FrameProcessingObserver(capturerObserver))
+    }
+
+    private inner class FrameProcessingObserver(
+        private val capturerObserver: CapturerObserver
+    ) : CapturerObserver {
+
+        override fun onCapturerStarted(success: Boolean) =
+                capturerObserver.onCapturerStarted(success)
+
+        override fun onCapturerStopped() = capturerObserver.onCapturerStopped()
+
+        override fun onFrameCaptured(frame: VideoFrame) {
+            val processedFrame = frameProcessorChain.process(frame) ?: return
+            capturerObserver.onFrameCaptured(processedFrame)
+            if (processedFrame !== frame) processedFrame.release()
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.twilio.video.app.sdk
+
+import java.util.concurrent.TimeUnit
+import tvi.webrtc.VideoFrame
+import tvi.webrtc.YuvHelper
+
+/*
+ * A cheap transform applied to captured frames before they reach the local video track.
+ * Processors return the input frame to pass it through unchanged, null to drop it, or a new
+ * frame, preferably backed by a buffer from the pool. Returned new frames are owned, and
+ * released, by the caller. Processors run on the capture thread.
+ */
+interface FrameProcessor {
+    fun process(frame: VideoFrame, bufferPool: I420BufferPool): VideoFrame?
+}
+
+/*
+ * Runs frames through the processors in order, releasing the intermediate frames.
+ */
+class FrameProcessorChain(
+    private val frameProcessors: List<FrameProcessor>,
+    private val bufferPool: I420BufferPool = I420BufferPool()
+) {
+
+    fun process(frame: VideoFrame): VideoFrame? {
+        var processedFrame = frame
+        for (frameProcessor in frameProcessors) {
+            val nextFrame = frameProcessor.process(processedFrame, bufferPool)
+            if (nextFrame !== processedFrame && processedFrame !== frame) processedFrame.release()
+            processedFrame = nextFrame ?: return null
+        }
+        return processedFrame
+    }
+}
+
+/*
+ * Drops frames that arrive sooner than the frame interval of the maximum frame rate.
+ */
+class FrameRateLimitingProcessor(maxFrameRate: Int) : FrameProcessor {
+
+    private val minFrameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / maxFrameRate
+    private var lastTimestampNanos: Long? = null
+
+    override fun process(frame: VideoFrame, bufferPool: I420BufferPool): VideoFrame? {
+        val lastTimestampNanos = lastTimestampNanos
+        if (lastTimestampNanos != null && frame.timestampNs >= lastTimestampNanos &&
+                frame.timestampNs - lastTimestampNanos < minFrameIntervalNanos) {
+            return null
+        }
+        this.lastTimestampNanos = frame.timestampNs
+        return frame
+    }
+}
+
+/*
+ * Center crops frames to the aspect ratio of the target dimensions and scales them down to fit,
+ * e.g. to send a portrait crop of a landscape camera. Dimensions are those of the upright frame.
+ * Frames that already fit are passed through. Cropping and scaling is left to the buffer, which
+ * does it natively, through JavaI420Buffer.cropAndScaleI420 for I420 buffers.
+ */
+class CenterCropScaler(private val targetWidth: Int, private val targetHeight: Int) : FrameProcessor {
+
+    override fun process(frame: VideoFrame, bufferPool: I420BufferPool): VideoFrame? {
+        val isRotated = frame.rotation % 180 != 0
+        val bufferTargetWidth = if (isRotated) targetHeight else targetWidth
+        val bufferTargetHeight = if (isRotated) targetWidth else targetHeight
+        val buffer = frame.buffer
+        val cropWidth = minOf(buffer.width,
+                buffer.height * bufferTargetWidth / bufferTargetHeight) and 1.inv()
+        val cropHeight = minOf(buffer.height,
+                buffer.width * bufferTargetHeight / bufferTargetWidth) and 1.inv()
+        val scaleWidth = minOf(cropWidth, bufferTargetWidth) and 1.inv()
+        val scaleHeight = minOf(cropHeight, bufferTargetHeight) and 1.inv()
+        if (scaleWidth == buffer.width && scaleHeight == buffer.height) return frame
+
+        val cropX = (buffer.width - cropWidth) / 4 * 2
+        val cropY = (buffer.height - cropHeight) / 4 * 2
+        return VideoFrame(buffer.cropAndScale(cropX, cropY, cropWidth, cropHeight, scaleWidth,
+                scaleHeight), frame.rotation, frame.timestampNs)
+    }
+}
+
+/*
+ * Rotates the pixels of frames so they are upright and carry no rotation, for consumers that
+ * ignore the rotation of a frame. The planes are rotated natively into a pooled buffer, unless
+ * another rotation is given, as tests on the JVM do.
+ */
+class RotationNormalizer(
+    private val rotatePlanes: (
+        source: VideoFrame.I420Buffer,
+        target: VideoFrame.I420Buffer,
+        rotation: Int
+    ) -> Unit = ::rotateI420
+) : FrameProcessor {
+
+    override fun process(frame: VideoFrame, bufferPool: I420BufferPool): VideoFrame? {
+        val rotation = (frame.rotation % 360 + 360) % 360
+        if (rotation == 0) return frame
+
+        val source = frame.buffer.toI420() ?: return null
+        return try {
+            val target = bufferPool.acquire(frame.rotatedWidth, frame.rotatedHeight)
+            rotatePlanes(source, target, rotation)
+            VideoFrame(target, 0, frame.timestampNs)
+        } finally {
+            source.release()
+        }
+    }
+}
+
+private fun rotateI420(
+    source: VideoFrame.I420Buffer,
+    target: VideoFrame.I420Buffer,
+    rotation: Int
+) = YuvHelper.I420Rotate(source.dataY, source.strideY, source.dataU, source.strideU,
+        source.dataV, source.strideV, target.dataY, target.strideY, target.dataU,
+        target.strideU, target.dataV, target.strideV, source.width, source.height, rotation)
@@ -0,0 +1,129 @@
+package com.twilio.video.app.sdk
+
+import java.nio.ByteBuffer
+import java.util.ArrayDeque
+import java.util.concurrent.atomic.AtomicInteger
+import tvi.webrtc.JavaI420Buffer
+import tvi.webrtc.VideoFrame
+
+private const val DEFAULT_MAX_POOLED_BUFFERS = 4
+private const val MAX_POOLED_SIZES = 4
+
+/*
+ * Pool of I420 buffers for frame processors. Buffers go back to the pool when their last
+ * reference is released and are handed out again for the same dimensions, so processing frames
+ * of a steady size allocates no new buffers. A few sizes are pooled at once since a processor
+ * chain produces one size per stage; the least recently used size is dropped beyond that.
+ */
+class I420BufferPool(private val maxPooledBuffers: Int = DEFAULT_MAX_POOLED_BUFFERS) {
+
+    private val sizePools = ArrayList<SizePool>(MAX_POOLED_SIZES)
+
+    var allocationCount = 0
+        private set
+
+    @Synchronized
+    fun acquire(width: Int, height: Int): VideoFrame.I420Buffer {
+        val buffer = sizePool(width, height)?.buffers?.pollFirst()
+                ?: PooledI420Buffer(this, width, height).also { allocationCount++ }
+        return buffer.apply { reuse() }
+    }
+
+    @Synchronized
+    fun clear() {
+        sizePools.clear()
+    }
+
+    @Synchronized
+    private fun recycle(buffer: PooledI420Buffer) {
+        val sizePool = sizePool(buffer.bufferWidth, buffer.bufferHeight)
+                ?: SizePool(buffer.bufferWidth, buffer.bufferHeight).also { sizePool ->
+                    if (sizePools.size == MAX_POOLED_SIZES) sizePools.removeAt(sizePools.size - 1)
+                    sizePools.add(0, sizePool)
+                }
+        if (sizePool.buffers.size < maxPooledBuffers) sizePool.buffers.addFirst(buffer)
+    }
+
+    /*
+     * Looks up the pool of a size with a linear scan over the few pooled sizes, moving it to the
+     * front, so lookups do not allocate keys.
+     */
+    private fun sizePool(width: Int, height: Int): SizePool? {
+        for (index in sizePools.indices) {
+            val sizePool = sizePools[index]
+            if (sizePool.width == width && sizePool.height == height) {
+                if (index > 0) {
+                    sizePools.removeAt(index)
+                    sizePools.add(0, sizePool)
+                }
+                return sizePool
+            }
+        }
+        return null
+    }
+
+    private class SizePool(val width: Int, val height: Int) {
+        val buffers = ArrayDeque<PooledI420Buffer>()
+    }
+
+    private class PooledI420Buffer(
+        private val pool: I420BufferPool,
+        val bufferWidth: Int,
+        val bufferHeight: Int
+    ) : VideoFrame.I420Buffer {
+
+        private val lumaSize = bufferWidth * bufferHeight
+        private val chromaWidth = (bufferWidth + 1) / 2
+        private val chromaSize = chromaWidth * ((bufferHeight + 1) / 2)
+        private val data = ByteBuffer.allocateDirect(lumaSize + 2 * chromaSize)
+        private val dataY = slice(0, lumaSize)
+        private val dataU = slice(lumaSize, chromaSize)
+        private val dataV = slice(lumaSize + chromaSize, chromaSize)
+        private val refCount = AtomicInteger()
+
+        fun reuse() = refCount.set(1)
+
+        override fun getWidth() = bufferWidth
+
+        override fun getHeight() = bufferHeight
+
+        override fun getDataY(): ByteBuffer = dataY.apply { clear() }
+
+        override fun getDataU(): ByteBuffer = dataU.apply { clear() }
+
+        override fun getDataV(): ByteBuffer = dataV.apply { clear() }
+
+        override fun getStrideY() = bufferWidth
+
+        override fun getStrideU() = chromaWidth
+
+        override fun getStrideV() = chromaWidth
+
+        override fun toI420(): VideoFrame.I420Buffer = apply { retain() }
+
+        override fun retain() {
+            refCount.incrementAndGet()
+        }
+
+        override fun release() {
+            if (refCount.decrementAndGet() == 0) pool.recycle(this)
+        }
+
+        override fun cropAndScale(
+            cropX: Int,
+            cropY: Int,
+            cropWidth: Int,
+            cropHeight: Int,
+            scaleWidth: Int,
+            scaleHeight: Int
+        ): VideoFrame.Buffer = JavaI420Buffer.cropAndScaleI420(this, cropX, cropY, cropWidth,
+                cropHeight, scaleWidth, scaleHeight)
+
+        private fun slice(offset: Int, length: Int): ByteBuffer {
+            data.clear()
+            data.position(offset)
+            data.limit(offset + length)
+            return data.slice().also { data.clear() }
+        }
+    }
+}
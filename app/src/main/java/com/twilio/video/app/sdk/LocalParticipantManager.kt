@@ -2,17 +2,23 @@ package com.twilio.video.app.sdk
 
 import android.content.Context
 import android.content.Intent
-import android.content.SharedPreferences
+import android.os.Handler
+import android.os.Looper
+import androidx.annotation.VisibleForTesting
+import androidx.annotation.VisibleForTesting.PRIVATE
+import com.twilio.video.EncodingParameters
 import com.twilio.video.LocalAudioTrack
 import com.twilio.video.LocalParticipant
 import com.twilio.video.LocalTrackPublicationOptions
 import com.twilio.video.LocalVideoTrack
+import com.twilio.video.NetworkQualityLevel
 import com.twilio.video.ScreenCapturer
+import com.twilio.video.StatsReport
 import com.twilio.video.TrackPriority
+import com.twilio.video.TwilioException
 import com.twilio.video.VideoFormat
 import com.twilio.video.app.R
-import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION
-import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION_DEFAULT
+import com.twilio.video.app.data.CallConfigurationProvider
 import com.twilio.video.app.data.Preferences.VIDEO_DIMENSIONS
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.AudioDisabled
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.AudioEnabled
@@ -23,24 +29,37 @@ import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.ScreenCaptur
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.VideoDisabled
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.VideoEnabled
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.VideoTrackUpdated
+import com.twilio.video.app.util.CameraCapabilityCache
 import com.twilio.video.app.util.CameraCapturerCompat
-import com.twilio.video.app.util.get
 import com.twilio.video.ktx.createLocalAudioTrack
 import com.twilio.video.ktx.createLocalVideoTrack
+import java.util.concurrent.TimeUnit
 import timber.log.Timber
 
+private const val CAMERA_FRAME_RATE = 30
+
 class LocalParticipantManager(
     private val context: Context,
     private val roomManager: RoomManager,
-    private val sharedPreferences: SharedPreferences
+    private val callConfigurationProvider: CallConfigurationProvider,
+    private val cameraCapabilityCache: CameraCapabilityCache =
+            CameraCapabilityCache.getInstance(context)
 ) {
 
-    private var localAudioTrack: LocalAudioTrack? = null
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal var localAudioTrack: LocalAudioTrack? = null
         set(value) {
             field = value
             roomManager.sendRoomEvent(if (value == null) AudioOff else AudioOn)
         }
     internal var localParticipant: LocalParticipant? = null
+        set(value) {
+            field = value
+            if (value == null) {
+                trackPublicationScheduler.stop()
+                publishedFrameProbe.cancel()
+            }
+        }
     private var cameraVideoTrack: LocalVideoTrack? = null
         set(value) {
             field = value
@@ -62,16 +81,103 @@ class LocalParticipantManager(
             roomManager.sendRoomEvent(if (value == null) ScreenCaptureOff else ScreenCaptureOn)
         }
     private var isAudioMuted = false
+    private var isAudioTrackMuted = false
+    private var isAudioPaused = false
+    private var audioToggleStartNanos: Long? = null
     private var isVideoMuted = false
+    private var isCameraPaused = false
+    private var wasCameraEnabled = true
+    private var isKeepAliveResume = false
+    private val firstFrameProbe = FirstFrameProbe { latencyNanos ->
+        Timber.i("Camera resumed to first frame in %d ms with %s",
+                TimeUnit.NANOSECONDS.toMillis(latencyNanos),
+                if (isKeepAliveResume) "the kept alive track" else "a new track")
+    }
+    @Volatile
+    private var connectStartNanos: Long? = null
+    private var audioConnectStartNanos: Long? = null
+    @Volatile
+    private var isAudioInConnectOptions = false
+    private val publishedFrameProbe = FirstFrameProbe {
+        connectStartNanos?.let { connectStartNanos ->
+            Timber.i("Connect to first published camera frame in %d ms %s",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartNanos),
+                    connectPath())
+        }
+        connectStartNanos = null
+    }
     internal val localVideoTrackNames: MutableMap<String, String> = HashMap()
+    @Volatile
+    private var captureFormatGovernor: CaptureFormatGovernor? = null
+    private var captureFormatSettings: Pair<Int, Int>? = null
+    private val mainHandler by lazy { Handler(Looper.getMainLooper()) }
+    private val trackPublicationScheduler = TrackPublicationScheduler({ delayMillis, action ->
+        mainHandler.postDelayed({ action() }, delayMillis)
+    })
+
+    init {
+        // Scan the cameras before the first resume needs them
+        cameraCapabilityCache.prefetch()
+    }
 
     fun onResume() {
         if (!isAudioMuted) setupLocalAudioTrack()
-        if (!isVideoMuted) setupLocalVideoTrack()
+        if (!isVideoMuted) {
+            firstFrameProbe.start()
+            isKeepAliveResume = isCameraPaused
+            if (isCameraPaused) resumeCameraTrack() else setupLocalVideoTrack()
+        }
+    }
+
+    /*
+     * The ready audio tracks, which are published as part of connecting so that audio does not
+     * wait for a separate publication once connected. The camera track is still published once
+     * connected because its LOW priority can only be requested through publishTrack. Called when
+     * connecting starts, which is where the connect to published audio and first published
+     * camera frame times are measured from, so that both ways of publishing audio can be compared.
+     */
+    fun connectAudioTracks(): List<LocalAudioTrack> {
+        isAudioInConnectOptions =
+                callConfigurationProvider.callConfiguration.isAudioPublishedOnConnect
+        publishedFrameProbe.cancel()
+        connectStartNanos = System.nanoTime()
+        audioConnectStartNanos = connectStartNanos
+        return if (isAudioInConnectOptions) {
+            listOfNotNull(localAudioTrack?.takeIf { isAudioPublishable() })
+        } else {
+            emptyList()
+        }
     }
 
+    fun onAudioTrackPublicationFailed(
+        localAudioTrack: LocalAudioTrack,
+        twilioException: TwilioException
+    ) = trackPublicationScheduler.onAudioTrackPublicationFailed(localAudioTrack, twilioException)
+
+    fun onVideoTrackPublicationFailed(
+        localVideoTrack: LocalVideoTrack,
+        twilioException: TwilioException
+    ) = trackPublicationScheduler.onVideoTrackPublicationFailed(localVideoTrack, twilioException)
+
+    fun onVideoTrackPublished(localVideoTrack: LocalVideoTrack) {
+        trackPublicationScheduler.onVideoTrackPublished(localVideoTrack)
+        if (localVideoTrack == cameraVideoTrack && connectStartNanos != null) {
+            publishedFrameProbe.start()
+        }
+    }
+
+    /*
+     * Releases the camera track, or when the camera is kept alive only stops capturing and
+     * disables the still published track so that resuming does not need to recreate and
+     * republish it.
+     */
     fun onPause() {
-        removeCameraTrack()
+        firstFrameProbe.cancel()
+        if (callConfigurationProvider.callConfiguration.isKeepCameraAliveEnabled) {
+            pauseCameraTrack()
+        } else {
+            removeCameraTrack()
+        }
     }
 
     fun toggleLocalVideo() {
@@ -95,22 +201,49 @@ class LocalParticipantManager(
     }
 
     fun enableLocalAudio() {
-        localAudioTrack?.enable(true)
+        isAudioPaused = false
+        localAudioTrack?.enable(!isAudioTrackMuted)
         roomManager.sendRoomEvent(AudioEnabled)
     }
 
     fun disableLocalAudio() {
+        isAudioPaused = true
         localAudioTrack?.enable(false)
         roomManager.sendRoomEvent(AudioDisabled)
     }
 
+    /*
+     * In low latency mode muting only disables the audio track, which stays published, so
+     * unmuting neither restarts the audio device nor republishes the track. Otherwise the track
+     * is released on mute and recreated on unmute.
+     */
     fun toggleLocalAudio() {
+        audioToggleStartNanos = System.nanoTime()
         if (!isAudioMuted) {
             isAudioMuted = true
-            removeAudioTrack()
+            if (localAudioTrack != null &&
+                    callConfigurationProvider.callConfiguration.isLowLatencyAudioMuteEnabled) {
+                muteAudioTrack()
+            } else {
+                removeAudioTrack()
+                onAudioToggleEffective("mute by unpublishing")
+            }
         } else {
             isAudioMuted = false
-            setupLocalAudioTrack()
+            if (isAudioTrackMuted) {
+                unmuteAudioTrack()
+            } else {
+                setupLocalAudioTrack()
+                if (localParticipant == null) onAudioToggleEffective("unmute with a new track")
+            }
+        }
+    }
+
+    fun onAudioTrackPublished(localAudioTrack: LocalAudioTrack) {
+        trackPublicationScheduler.onAudioTrackPublished(localAudioTrack)
+        if (localAudioTrack == this.localAudioTrack) {
+            onAudioToggleEffective("unmute by publishing a new track")
+            onConnectAudioPublished()
         }
     }
 
@@ -118,8 +251,8 @@ class LocalParticipantManager(
         screenCapturer = ScreenCapturer(context, captureResultCode, captureIntent,
                 screenCapturerListener)
         screenCapturer?.let { screenCapturer ->
-            screenVideoTrack = createLocalVideoTrack(context, true, screenCapturer,
-                    name = SCREEN_TRACK_NAME)
+            screenVideoTrack = createLocalVideoTrack(context, true,
+                    StaticContentScreenCapturer(screenCapturer), name = SCREEN_TRACK_NAME)
             screenVideoTrack?.let { screenVideoTrack ->
                 localVideoTrackNames[screenVideoTrack.name] =
                         context.getString(R.string.screen_video_track)
@@ -138,13 +271,94 @@ class LocalParticipantManager(
         }
     }
 
+    /*
+     * Publishes the tracks of a newly connected participant, audio first and video after it.
+     */
     fun publishLocalTracks() {
-        publishAudioTrack(localAudioTrack)
-        publishCameraTrack(cameraVideoTrack)
+        val localParticipant = localParticipant ?: return
+        val callConfiguration = callConfigurationProvider.callConfiguration
+        val audioTrack = localAudioTrack?.takeIf { isAudioPublishable() }
+        val videoTrack = cameraVideoTrack?.takeUnless { isVideoMuted }
+        // Only the tracks published as part of this connect are measured
+        if (audioTrack == null) audioConnectStartNanos = null
+        if (videoTrack == null) connectStartNanos = null
+        trackPublicationScheduler.start(localParticipant, audioTrack, videoTrack,
+                EncodingParameters(callConfiguration.maxAudioBitrate,
+                        callConfiguration.maxVideoBitrate))
+        if (localParticipant.localAudioTracks.any { it.localAudioTrack == audioTrack }) {
+            onConnectAudioPublished()
+        }
     }
 
     fun switchCamera() = cameraCapturer?.switchCamera()
 
+    fun onNetworkQualityLevelChanged(networkQualityLevel: NetworkQualityLevel) {
+        captureFormatGovernor?.onNetworkQualityLevelChanged(networkQualityLevel)
+    }
+
+    /*
+     * Feeds the send side stats of the camera track to the capture format governor. Called on
+     * the stats thread, format changes are applied on the main thread.
+     */
+    fun onStats(statsReports: List<StatsReport>) {
+        val captureFormatGovernor = captureFormatGovernor ?: return
+        // A disabled track sends no frames, its stats would read as an encoder that stalled
+        if (cameraVideoTrack?.isEnabled != true) return captureFormatGovernor.onTrackDisabled()
+        val cameraTrackSid = localParticipant?.localVideoTracks
+                ?.find { it.localVideoTrack == cameraVideoTrack }?.trackSid ?: return
+        val stats = statsReports.flatMap { it.localVideoTrackStats }
+                .find { it.trackSid == cameraTrackSid } ?: return
+        val sample = CaptureFormatSample(stats.bytesSent, stats.roundTripTime, stats.frameRate,
+                stats.dimensions, stats.captureDimensions, System.currentTimeMillis())
+        captureFormatGovernor.onStats(sample)?.let { videoFormat ->
+            mainHandler.post {
+                if (this.captureFormatGovernor === captureFormatGovernor) {
+                    cameraCapturer?.changeCaptureFormat(videoFormat.dimensions.width,
+                            videoFormat.dimensions.height, videoFormat.framerate)
+                }
+            }
+        }
+    }
+
+    private fun muteAudioTrack() {
+        localAudioTrack?.enable(false)
+        isAudioTrackMuted = true
+        onAudioToggleEffective("mute by disabling the track")
+        roomManager.sendRoomEvent(AudioOff)
+    }
+
+    private fun unmuteAudioTrack() {
+        localAudioTrack?.enable(!isAudioPaused)
+        isAudioTrackMuted = false
+        onAudioToggleEffective("unmute by enabling the track")
+        roomManager.sendRoomEvent(AudioOn)
+    }
+
+    private fun onConnectAudioPublished() {
+        audioConnectStartNanos?.let { audioConnectStartNanos ->
+            Timber.i("Connect to published audio in %d ms %s",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - audioConnectStartNanos),
+                    connectPath())
+        }
+        audioConnectStartNanos = null
+    }
+
+    private fun connectPath() = if (isAudioInConnectOptions) {
+        "with audio in the connect options"
+    } else {
+        "with audio published after connecting"
+    }
+
+    private fun onAudioToggleEffective(action: String) {
+        audioToggleStartNanos?.let { audioToggleStartNanos ->
+            Timber.i("Audio %s took %d us", action,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - audioToggleStartNanos))
+        }
+        audioToggleStartNanos = null
+    }
+
+    private fun isAudioPublishable() = !isAudioMuted || isAudioTrackMuted
+
     private fun setupLocalAudioTrack() {
         if (localAudioTrack == null && !isAudioMuted) {
             localAudioTrack = createLocalAudioTrack(context, true, MICROPHONE_TRACK_NAME)
@@ -163,8 +377,13 @@ class LocalParticipantManager(
     }
 
     private fun publishAudioTrack(localAudioTrack: LocalAudioTrack?) {
-        if (!isAudioMuted) {
-            localAudioTrack?.let { localParticipant?.publishTrack(it) }
+        if (isAudioPublishable()) {
+            localAudioTrack?.let { localAudioTrack ->
+                // Tracks handed to the connect options are already published
+                localParticipant?.takeIf { localParticipant ->
+                    localParticipant.localAudioTracks.none { it.localAudioTrack == localAudioTrack }
+                }?.publishTrack(localAudioTrack)
+            }
         }
     }
 
@@ -175,29 +394,81 @@ class LocalParticipantManager(
             localAudioTrack?.let { localParticipant?.unpublishTrack(it) }
 
     private fun setupLocalVideoTrack() {
-        val dimensionsIndex = sharedPreferences.get(VIDEO_CAPTURE_RESOLUTION,
-                VIDEO_CAPTURE_RESOLUTION_DEFAULT).toInt()
-        val videoFormat = VideoFormat(VIDEO_DIMENSIONS[dimensionsIndex], 30)
+        val callConfiguration = callConfigurationProvider.callConfiguration
+        val dimensionsIndex = callConfiguration.videoCaptureResolutionIndex
 
-        cameraCapturer = CameraCapturerCompat.newInstance(context)
+        cameraCapturer = CameraCapturerCompat.newInstance(context, cameraCapabilityCache)
         cameraVideoTrack = cameraCapturer?.let { cameraCapturer ->
+            val maxFps = cameraCapabilityCache.get()?.maxFps(cameraCapturer.cameraId)
+                    ?.takeIf { it > 0 }
+            val frameRate = maxFps?.coerceAtMost(CAMERA_FRAME_RATE) ?: CAMERA_FRAME_RATE
+            val videoFormat = updateCaptureFormatGovernor(dimensionsIndex, frameRate)?.videoFormat
+                    ?: VideoFormat(VIDEO_DIMENSIONS[dimensionsIndex], frameRate)
             LocalVideoTrack.create(
                     context,
                     true,
-                    cameraCapturer,
+                    if (!callConfiguration.isCameraRotationNormalized) cameraCapturer
+                    else FrameProcessingCapturer(cameraCapturer,
+                            FrameProcessorChain(listOf(RotationNormalizer()))),
                     videoFormat,
                     CAMERA_TRACK_NAME)
         }
         cameraVideoTrack?.let { cameraVideoTrack ->
             localVideoTrackNames[cameraVideoTrack.name] = context.getString(R.string.camera_video_track)
+            cameraVideoTrack.addSink(firstFrameProbe)
+            cameraVideoTrack.addSink(publishedFrameProbe)
             publishCameraTrack(cameraVideoTrack)
         } ?: run {
             Timber.e(RuntimeException(), "Failed to create the local camera video track")
         }
     }
 
+    /*
+     * Keeps the governor, and with it the last adapted format, across camera tracks of the same
+     * settings.
+     */
+    private fun updateCaptureFormatGovernor(
+        dimensionsIndex: Int,
+        frameRate: Int
+    ): CaptureFormatGovernor? {
+        if (!callConfigurationProvider.callConfiguration.isAdaptiveCaptureFormatEnabled) {
+            captureFormatGovernor = null
+        } else if (captureFormatSettings != dimensionsIndex to frameRate) {
+            captureFormatGovernor = CaptureFormatGovernor(dimensionsIndex, frameRate)
+        }
+        captureFormatSettings = dimensionsIndex to frameRate
+        return captureFormatGovernor
+    }
+
+    private fun pauseCameraTrack() {
+        val cameraVideoTrack = cameraVideoTrack ?: return
+        val cameraCapturer = cameraCapturer ?: return removeCameraTrack()
+        if (isCameraPaused) return
+        wasCameraEnabled = cameraVideoTrack.isEnabled
+        cameraVideoTrack.enable(false)
+        cameraCapturer.stopCapture()
+        isCameraPaused = true
+    }
+
+    private fun resumeCameraTrack() {
+        isCameraPaused = false
+        val cameraVideoTrack = cameraVideoTrack
+        if (cameraVideoTrack == null || cameraCapturer?.restartCapture() != true) {
+            Timber.w("Unable to resume the kept alive camera track, recreating it")
+            isKeepAliveResume = false
+            removeCameraTrack()
+            setupLocalVideoTrack()
+            return
+        }
+        if (wasCameraEnabled) cameraVideoTrack.enable(true)
+    }
+
     private fun removeCameraTrack() {
+        isCameraPaused = false
         cameraVideoTrack?.let { cameraVideoTrack ->
+            cameraVideoTrack.removeSink(firstFrameProbe)
+            cameraVideoTrack.removeSink(publishedFrameProbe)
+            trackPublicationScheduler.remove(cameraVideoTrack)
             unpublishTrack(cameraVideoTrack)
             localVideoTrackNames.remove(cameraVideoTrack.name)
             cameraVideoTrack.release()
@@ -206,7 +477,9 @@ class LocalParticipantManager(
     }
 
     private fun removeAudioTrack() {
+        isAudioTrackMuted = false
         localAudioTrack?.let { localAudioTrack ->
+            trackPublicationScheduler.remove(localAudioTrack)
             unpublishTrack(localAudioTrack)
             localAudioTrack.release()
             this.localAudioTrack = null
@@ -13,6 +13,7 @@ import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteP
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackEnabledChanged
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
 import timber.log.Timber
 
@@ -108,9 +109,25 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
 
     override fun onVideoTrackPublished(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {}
 
-    override fun onVideoTrackEnabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {}
+    override fun onVideoTrackEnabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {
+        Timber.i("RemoteVideoTrack enabled for RemoteParticipant sid: %s, RemoteVideoTrack sid: %s",
+                remoteParticipant.sid, remoteVideoTrackPublication.trackSid)
 
-    override fun onVideoTrackDisabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {}
+        remoteVideoTrackPublication.remoteVideoTrack?.let { remoteVideoTrack ->
+            roomManager.sendRoomEvent(VideoTrackEnabledChanged(remoteParticipant.sid,
+                    remoteVideoTrack, true))
+        }
+    }
+
+    override fun onVideoTrackDisabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {
+        Timber.i("RemoteVideoTrack disabled for RemoteParticipant sid: %s, RemoteVideoTrack sid: %s",
+                remoteParticipant.sid, remoteVideoTrackPublication.trackSid)
+
+        remoteVideoTrackPublication.remoteVideoTrack?.let { remoteVideoTrack ->
+            roomManager.sendRoomEvent(VideoTrackEnabledChanged(remoteParticipant.sid,
+                    remoteVideoTrack, false))
+        }
+    }
 
     override fun onDataTrackSubscriptionFailed(remoteParticipant: RemoteParticipant, remoteDataTrackPublication: RemoteDataTrackPublication, twilioException: TwilioException) {}
 
@@ -0,0 +1,112 @@
+package com.twilio.video.app.sdk
+
+import android.content.SharedPreferences
+import androidx.core.content.edit
+import com.twilio.video.StatsReport
+import com.twilio.video.TrackPriority
+import com.twilio.video.VideoDimensions
+import com.twilio.video.app.data.Preferences
+import java.util.concurrent.ConcurrentHashMap
+import timber.log.Timber
+
+private const val DIMENSION_ALIGNMENT = 16
+
+/*
+ * Collects the sizes remote video tracks are actually rendered at on this device. The largest
+ * view currently showing a track of a priority is used as the bandwidth profile render dimensions
+ * for that priority when the user has not configured them explicitly. Views that shrink lower the
+ * dimensions again, while hidden views keep the last settled size. Render dimensions can only be
+ * provided when connecting, so measurements made during a call apply to the next connection.
+ *
+ * Stats reports are compared against the rendered sizes to estimate how many received bytes
+ * were spent on pixels that were scaled away.
+ */
+class RenderDimensionsTracker(private val sharedPreferences: SharedPreferences) {
+
+    private val renderedTracks = ConcurrentHashMap<String, RenderedTrack>()
+    private val trackBytesReceived = HashMap<String, Long>()
+    private var excessBytes = 0L
+
+    @Synchronized
+    fun onTrackRendered(trackSid: String, priority: TrackPriority, width: Int, height: Int) {
+        if (width <= 0 || height <= 0) return
+        renderedTracks[trackSid] = RenderedTrack(priority,
+                VideoDimensions(align(width), align(height)))
+
+        val preferenceKey = preferenceKey(priority)
+        val dimensions = renderedTracks.values
+                .filter { preferenceKey(it.priority) == preferenceKey }
+                .map { it.dimensions }
+                .maxByOrNull { it.width.toLong() * it.height } ?: return
+        val value = "${dimensions.width}x${dimensions.height}"
+        if (sharedPreferences.getString(preferenceKey, null) != value) {
+            Timber.d("Measured %s render dimensions %s", priority, value)
+            sharedPreferences.edit { putString(preferenceKey, value) }
+        }
+    }
+
+    fun onTrackHidden(trackSid: String) {
+        renderedTracks.remove(trackSid)
+    }
+
+    fun renderDimensions(priority: TrackPriority) = measuredDimensions(preferenceKey(priority))
+
+    /*
+     * Invoked on the stats thread for every stats report of the connected room.
+     */
+    @Synchronized
+    fun onStats(statsReports: List<StatsReport>) {
+        var reportExcessBytes = 0L
+        statsReports.flatMap { it.remoteVideoTrackStats }.forEach { stats ->
+            val previousBytesReceived = trackBytesReceived.put(stats.trackSid, stats.bytesReceived)
+            val renderDimensions = renderedTracks[stats.trackSid]?.dimensions ?: return@forEach
+            val receivedPixels = stats.dimensions.width.toLong() * stats.dimensions.height
+            val renderedPixels = renderDimensions.width.toLong() * renderDimensions.height
+            if (previousBytesReceived == null || receivedPixels <= renderedPixels) return@forEach
+
+            val bytesReceived = (stats.bytesReceived - previousBytesReceived).coerceAtLeast(0)
+            reportExcessBytes += bytesReceived - bytesReceived * renderedPixels / receivedPixels
+        }
+        if (reportExcessBytes > 0) {
+            excessBytes += reportExcessBytes
+            Timber.d("Received %d bytes of video scaled away by smaller views, %d in total",
+                    reportExcessBytes, excessBytes)
+        }
+    }
+
+    @Synchronized
+    fun onDisconnected() {
+        if (excessBytes > 0) {
+            Timber.i("Render dimension hints could have saved %d received bytes", excessBytes)
+        }
+        renderedTracks.clear()
+        trackBytesReceived.clear()
+        excessBytes = 0
+    }
+
+    private fun measuredDimensions(preferenceKey: String) =
+            sharedPreferences.getString(preferenceKey, null)?.let { parseVideoDimensions(it) }
+
+    private fun preferenceKey(priority: TrackPriority) = when (priority) {
+        TrackPriority.LOW -> Preferences.MEASURED_LOW_TRACK_PRIORITY_RENDER_DIMENSIONS
+        TrackPriority.STANDARD -> Preferences.MEASURED_STANDARD_TRACK_PRIORITY_RENDER_DIMENSIONS
+        else -> Preferences.MEASURED_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS
+    }
+
+    private fun align(value: Int) =
+            (value + DIMENSION_ALIGNMENT - 1) / DIMENSION_ALIGNMENT * DIMENSION_ALIGNMENT
+
+    private class RenderedTrack(val priority: TrackPriority, val dimensions: VideoDimensions)
+}
+
+private val videoDimensionsRegex = Regex("(\\d+)x(\\d+)")
+
+/*
+ * Extracts the VideoDimensions from a string in the NxN format or null if the string does not
+ * match.
+ */
+fun parseVideoDimensions(value: String): VideoDimensions? =
+        videoDimensionsRegex.find(value)?.let { match ->
+            val (width, height) = match.destructured
+            VideoDimensions(width.toInt(), height.toInt())
+        }
@@ -2,15 +2,18 @@ package com.twilio.video.app.sdk
 
 import android.content.Context
 import android.content.Intent
-import android.content.SharedPreferences
 import androidx.annotation.VisibleForTesting
 import androidx.annotation.VisibleForTesting.PRIVATE
+import com.twilio.video.LocalAudioTrack
+import com.twilio.video.LocalVideoTrack
+import com.twilio.video.NetworkQualityLevel
 import com.twilio.video.Participant
 import com.twilio.video.RemoteParticipant
 import com.twilio.video.Room
 import com.twilio.video.StatsReport
 import com.twilio.video.TwilioException
 import com.twilio.video.TwilioException.ROOM_MAX_PARTICIPANTS_EXCEEDED_EXCEPTION
+import com.twilio.video.app.data.CallConfigurationProvider
 import com.twilio.video.app.data.api.AuthServiceError
 import com.twilio.video.app.data.api.AuthServiceException
 import com.twilio.video.app.ui.room.RoomEvent
@@ -42,8 +45,9 @@ const val SCREEN_TRACK_NAME = "screen"
 class RoomManager(
     private val context: Context,
     private val videoClient: VideoClient,
-    sharedPreferences: SharedPreferences,
-    coroutineDispatcher: CoroutineDispatcher = Dispatchers.IO
+    callConfigurationProvider: CallConfigurationProvider,
+    coroutineDispatcher: CoroutineDispatcher = Dispatchers.IO,
+    private val renderDimensionsTracker: RenderDimensionsTracker? = null
 ) {
 
     private var statsScheduler: StatsScheduler? = null
@@ -54,7 +58,7 @@ class RoomManager(
     val roomEvents: SharedFlow<RoomEvent> = mutableRoomEvents
     @VisibleForTesting(otherwise = PRIVATE)
     internal var localParticipantManager: LocalParticipantManager =
-            LocalParticipantManager(context, this, sharedPreferences)
+            LocalParticipantManager(context, this, callConfigurationProvider)
     var room: Room? = null
 
     fun disconnect() {
@@ -63,13 +67,17 @@ class RoomManager(
 
     suspend fun connect(identity: String, roomName: String) {
         sendRoomEvent(Connecting)
-        connectToRoom(identity, roomName)
+        connectToRoom(identity, roomName, localParticipantManager.connectAudioTracks())
     }
 
-    private suspend fun connectToRoom(identity: String, roomName: String) {
+    private suspend fun connectToRoom(
+        identity: String,
+        roomName: String,
+        audioTracks: List<LocalAudioTrack>
+    ) {
         roomScope.launch {
             try {
-                videoClient.connect(identity, roomName, roomListener)
+                videoClient.connect(identity, roomName, roomListener, audioTracks)
             } catch (e: AuthServiceException) {
                 handleTokenException(e, e.error)
             } catch (e: Exception) {
@@ -115,7 +123,28 @@ class RoomManager(
 
     fun switchCamera() = localParticipantManager.switchCamera()
 
+    fun onLocalAudioTrackPublished(localAudioTrack: LocalAudioTrack) =
+            localParticipantManager.onAudioTrackPublished(localAudioTrack)
+
+    fun onLocalAudioTrackPublicationFailed(
+        localAudioTrack: LocalAudioTrack,
+        twilioException: TwilioException
+    ) = localParticipantManager.onAudioTrackPublicationFailed(localAudioTrack, twilioException)
+
+    fun onLocalVideoTrackPublicationFailed(
+        localVideoTrack: LocalVideoTrack,
+        twilioException: TwilioException
+    ) = localParticipantManager.onVideoTrackPublicationFailed(localVideoTrack, twilioException)
+
+    fun onLocalVideoTrackPublished(localVideoTrack: LocalVideoTrack) =
+            localParticipantManager.onVideoTrackPublished(localVideoTrack)
+
+    fun onLocalNetworkQualityLevelChanged(networkQualityLevel: NetworkQualityLevel) =
+            localParticipantManager.onNetworkQualityLevelChanged(networkQualityLevel)
+
     fun sendStatsUpdate(statsReports: List<StatsReport>) {
+        renderDimensionsTracker?.onStats(statsReports)
+        localParticipantManager.onStats(statsReports)
         room?.let { room ->
             val roomStats = RoomStats(
                     room.remoteParticipants,
@@ -159,6 +188,7 @@ class RoomManager(
 
             statsScheduler?.stop()
             statsScheduler = null
+            renderDimensionsTracker?.onDisconnected()
         }
 
         override fun onConnectFailure(room: Room, twilioException: TwilioException) {
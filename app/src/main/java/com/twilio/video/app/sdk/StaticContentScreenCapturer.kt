@@ -0,0 +1,79 @@
+package com.twilio.video.app.sdk
+
+import android.content.Context
+import com.twilio.video.ScreenCapturer
+import com.twilio.video.VideoCapturer
+import kotlin.math.max
+import kotlin.math.min
+import timber.log.Timber
+import tvi.webrtc.CapturerObserver
+import tvi.webrtc.SurfaceTextureHelper
+import tvi.webrtc.VideoFrame
+
+private const val HASH_MAX_DIMENSION = 320
+
+/*
+ * Screen capturer that only hands frames with changed content to the track at the capture rate.
+ * Unchanged frames, the common case for slides and code, are dropped down to the floor rate of
+ * the StaticFrameDropper so they are neither encoded nor sent.
+ */
+internal class StaticContentScreenCapturer(
+    private val screenCapturer: ScreenCapturer,
+    private val staticFrameDropper: StaticFrameDropper = StaticFrameDropper()
+) : VideoCapturer by screenCapturer {
+
+    override fun initialize(
+        surfaceTextureHelper: SurfaceTextureHelper,
+        context: Context,
+        capturerObserver: CapturerObserver
+    ) {
+        screenCapturer.initialize(surfaceTextureHelper, context,
+                StaticContentObserver(capturerObserver))
+    }
+
+    private inner class StaticContentObserver(
+        private val capturerObserver: CapturerObserver
+    ) : CapturerObserver {
+
+        override fun onCapturerStarted(success: Boolean) {
+            staticFrameDropper.reset()
+            capturerObserver.onCapturerStarted(success)
+        }
+
+        override fun onCapturerStopped() {
+            Timber.d("Screen capture stopped, dropped %d of %d static frames",
+                    staticFrameDropper.framesDropped, staticFrameDropper.framesSeen)
+            capturerObserver.onCapturerStopped()
+        }
+
+        override fun onFrameCaptured(frame: VideoFrame) {
+            val contentHash = hashContent(frame.buffer)
+            if (contentHash == null ||
+                    staticFrameDropper.shouldForward(contentHash, frame.timestampNs)) {
+                capturerObserver.onFrameCaptured(frame)
+            }
+        }
+
+        /*
+         * Screen frames are textures, so they are scaled down on the GPU before the luma is read
+         * back for hashing.
+         */
+        private fun hashContent(buffer: VideoFrame.Buffer): Long? {
+            val scale = min(1f, HASH_MAX_DIMENSION.toFloat() / max(buffer.width, buffer.height))
+            val width = max(1, (buffer.width * scale).toInt())
+            val height = max(1, (buffer.height * scale).toInt())
+            val scaledBuffer = buffer.cropAndScale(0, 0, buffer.width, buffer.height, width, height)
+            val i420Buffer = try {
+                scaledBuffer.toI420()
+            } finally {
+                scaledBuffer.release()
+            } ?: return null
+
+            return try {
+                hashLuma(i420Buffer.dataY, i420Buffer.width, i420Buffer.height, i420Buffer.strideY)
+            } finally {
+                i420Buffer.release()
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.twilio.video.app.sdk
+
+import androidx.annotation.VisibleForTesting
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+
+private const val HASH_BLOCK_SIZE = 8
+private const val FNV_OFFSET_BASIS = -0x340d631b7bdddcdbL
+private const val FNV_PRIME = 0x100000001b3L
+private val DEFAULT_FLOOR_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1)
+
+/*
+ * Drops screen share frames whose content did not change since the last forwarded frame down to
+ * a floor rate. Content is compared by a hash of the downscaled luma so the decision costs a
+ * fraction of encoding the frame, and the first frame with new content is always forwarded so
+ * the full capture rate returns immediately.
+ */
+internal class StaticFrameDropper(
+    private val floorIntervalNanos: Long = DEFAULT_FLOOR_INTERVAL_NANOS
+) {
+
+    private var lastForwardedHash: Long? = null
+    private var lastForwardedNanos = 0L
+
+    var framesSeen = 0L
+        private set
+    var framesForwarded = 0L
+        private set
+    val framesDropped: Long get() = framesSeen - framesForwarded
+
+    fun shouldForward(contentHash: Long, timestampNanos: Long): Boolean {
+        framesSeen++
+        val isForwarded = contentHash != lastForwardedHash ||
+                timestampNanos - lastForwardedNanos >= floorIntervalNanos
+        if (isForwarded) {
+            framesForwarded++
+            lastForwardedHash = contentHash
+            lastForwardedNanos = timestampNanos
+        }
+        return isForwarded
+    }
+
+    fun reset() {
+        lastForwardedHash = null
+        lastForwardedNanos = 0L
+        framesSeen = 0L
+        framesForwarded = 0L
+    }
+}
+
+/*
+ * Hashes a luma plane by computing a polynomial hash of every pixel of each 8x8 block and folding
+ * the block hashes into an FNV-1a hash. Covering every pixel keeps small changes like a moving
+ * cursor detectable while the inner loop stays a multiply and an add per pixel.
+ */
+@VisibleForTesting
+internal fun hashLuma(dataY: ByteBuffer, width: Int, height: Int, strideY: Int): Long {
+    var hash = FNV_OFFSET_BASIS
+    var blockY = 0
+    while (blockY < height) {
+        val blockBottom = minOf(blockY + HASH_BLOCK_SIZE, height)
+        var blockX = 0
+        while (blockX < width) {
+            val blockRight = minOf(blockX + HASH_BLOCK_SIZE, width)
+            var blockHash = 0L
+            for (y in blockY until blockBottom) {
+                val rowOffset = y * strideY
+                for (x in blockX until blockRight) {
+                    blockHash = blockHash * 31 + (dataY.get(rowOffset + x).toInt() and 0xff)
+                }
+            }
+            hash = (hash xor blockHash) * FNV_PRIME
+            blockX += HASH_BLOCK_SIZE
+        }
+        blockY += HASH_BLOCK_SIZE
+    }
+    return hash
+}
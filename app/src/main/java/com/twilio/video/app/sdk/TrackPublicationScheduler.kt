@@ -0,0 +1,209 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.EncodingParameters
+import com.twilio.video.LocalAudioTrack
+import com.twilio.video.LocalParticipant
+import com.twilio.video.LocalTrackPublicationOptions
+import com.twilio.video.LocalVideoTrack
+import com.twilio.video.TrackPriority
+import com.twilio.video.TwilioException
+import java.util.concurrent.TimeUnit
+import timber.log.Timber
+
+private const val AUDIO_FIRST_DEADLINE_MS = 500L
+private const val MAX_PUBLISH_ATTEMPTS = 3
+private const val RETRY_BASE_DELAY_MS = 1000L
+private const val VIDEO_BITRATE_RAMP_STEP_MS = 2000L
+private val VIDEO_BITRATE_STEPS = listOf(300, 800)
+
+/*
+ * Publishes the local tracks of a newly connected participant in stages so that video
+ * negotiation does not delay audio. Audio is published first. Video follows once audio is
+ * published, or after a short deadline, at LOW priority with a capped bitrate that is raised to
+ * the configured maximum in steps, letting the upper simulcast layers start after the base
+ * layer. Failed publications are retried with exponential backoff. Callbacks are expected on a
+ * single thread, and the scheduled actions must run on that thread as well.
+ */
+internal class TrackPublicationScheduler(
+    private val schedule: (delayMillis: Long, action: () -> Unit) -> Unit,
+    private val clock: () -> Long = System::nanoTime
+) {
+
+    private var generation = 0
+    private var localParticipant: LocalParticipant? = null
+    private var encodingParameters = EncodingParameters(0, 0)
+    private val audioPublication = PendingPublication<LocalAudioTrack>("audio")
+    private val videoPublication = PendingPublication<LocalVideoTrack>("video")
+    private var isVideoScheduled = false
+
+    fun start(
+        localParticipant: LocalParticipant,
+        audioTrack: LocalAudioTrack?,
+        videoTrack: LocalVideoTrack?,
+        encodingParameters: EncodingParameters
+    ) {
+        stop()
+        this.localParticipant = localParticipant
+        this.encodingParameters = encodingParameters
+        videoPublication.reset(videoTrack)
+        val isAudioPublished = audioTrack == null ||
+                localParticipant.localAudioTracks.any { it.localAudioTrack == audioTrack }
+        if (isAudioPublished) {
+            publishVideo()
+        } else {
+            audioPublication.reset(audioTrack)
+            publishAudio()
+            val generation = generation
+            schedule(AUDIO_FIRST_DEADLINE_MS) {
+                if (generation == this.generation) publishVideo()
+            }
+        }
+    }
+
+    fun stop() {
+        generation++
+        localParticipant = null
+        audioPublication.reset(null)
+        videoPublication.reset(null)
+        isVideoScheduled = false
+    }
+
+    /*
+     * Forgets a pending track that was unpublished or released in the meantime.
+     */
+    fun remove(localAudioTrack: LocalAudioTrack) {
+        if (audioPublication.track == localAudioTrack) audioPublication.reset(null)
+    }
+
+    fun remove(localVideoTrack: LocalVideoTrack) {
+        if (videoPublication.track == localVideoTrack) videoPublication.reset(null)
+    }
+
+    fun onAudioTrackPublished(localAudioTrack: LocalAudioTrack) {
+        if (audioPublication.onPublished(localAudioTrack)) publishVideo()
+    }
+
+    fun onAudioTrackPublicationFailed(
+        localAudioTrack: LocalAudioTrack,
+        twilioException: TwilioException
+    ) {
+        if (audioPublication.track != localAudioTrack) return
+        if (!retry(audioPublication, twilioException) { publishAudio() }) publishVideo()
+    }
+
+    fun onVideoTrackPublished(localVideoTrack: LocalVideoTrack) {
+        if (videoPublication.onPublished(localVideoTrack)) rampUpVideoBitrate(0)
+    }
+
+    fun onVideoTrackPublicationFailed(
+        localVideoTrack: LocalVideoTrack,
+        twilioException: TwilioException
+    ) {
+        if (videoPublication.track != localVideoTrack) return
+        retry(videoPublication, twilioException) { publishVideoTrack() }
+    }
+
+    private fun publishAudio() {
+        val localAudioTrack = audioPublication.track ?: return
+        audioPublication.onRequested()
+        localParticipant?.publishTrack(localAudioTrack)
+    }
+
+    private fun publishVideo() {
+        if (isVideoScheduled) return
+        isVideoScheduled = true
+        if (videoPublication.track == null) return
+        videoBitrateSteps().firstOrNull()?.let { setMaxVideoBitrate(it) }
+        publishVideoTrack()
+    }
+
+    private fun publishVideoTrack() {
+        val localVideoTrack = videoPublication.track ?: return
+        videoPublication.onRequested()
+        localParticipant?.publishTrack(localVideoTrack,
+                LocalTrackPublicationOptions(TrackPriority.LOW))
+    }
+
+    /*
+     * Retries a failed publication after a backoff delay. Returns false once the attempts are
+     * exhausted and the publication was given up.
+     */
+    private fun retry(
+        publication: PendingPublication<*>,
+        twilioException: TwilioException,
+        publish: () -> Unit
+    ): Boolean {
+        if (publication.attempts >= MAX_PUBLISH_ATTEMPTS) {
+            Timber.e(twilioException, "Giving up publishing the %s track after %d attempts",
+                    publication.kind, publication.attempts)
+            publication.reset(null)
+            return false
+        }
+        val delayMillis = RETRY_BASE_DELAY_MS shl (publication.attempts - 1)
+        Timber.w(twilioException, "Failed to publish the %s track, retrying in %d ms",
+                publication.kind, delayMillis)
+        val generation = generation
+        schedule(delayMillis) { if (generation == this.generation) publish() }
+        return true
+    }
+
+    private fun rampUpVideoBitrate(step: Int) {
+        val videoBitrateSteps = videoBitrateSteps()
+        if (step >= videoBitrateSteps.size) return
+        val generation = generation
+        schedule(VIDEO_BITRATE_RAMP_STEP_MS) {
+            if (generation == this.generation) {
+                setMaxVideoBitrate(videoBitrateSteps.getOrNull(step + 1)
+                        ?: encodingParameters.maxVideoBitrate)
+                rampUpVideoBitrate(step + 1)
+            }
+        }
+    }
+
+    /*
+     * The bitrate steps below the configured maximum, where zero means unlimited.
+     */
+    private fun videoBitrateSteps() = VIDEO_BITRATE_STEPS.filter { bitrate ->
+        encodingParameters.maxVideoBitrate == 0 || bitrate < encodingParameters.maxVideoBitrate
+    }
+
+    private fun setMaxVideoBitrate(maxVideoBitrate: Int) {
+        localParticipant?.setEncodingParameters(
+                EncodingParameters(encodingParameters.maxAudioBitrate, maxVideoBitrate))
+    }
+
+    private inner class PendingPublication<T>(val kind: String) {
+        var track: T? = null
+            private set
+        var attempts = 0
+            private set
+        private var requestNanos = 0L
+        private var firstRequestNanos = 0L
+
+        fun reset(track: T?) {
+            this.track = track
+            attempts = 0
+        }
+
+        fun onRequested() {
+            requestNanos = clock()
+            if (attempts == 0) firstRequestNanos = requestNanos
+            attempts++
+        }
+
+        /*
+         * Returns true when the published track is the pending one.
+         */
+        fun onPublished(publishedTrack: T): Boolean {
+            if (track != publishedTrack || attempts == 0) return false
+            val nowNanos = clock()
+            Timber.i("Published the %s track in %d ms, %d ms since the first of %d attempts",
+                    kind,
+                    TimeUnit.NANOSECONDS.toMillis(nowNanos - requestNanos),
+                    TimeUnit.NANOSECONDS.toMillis(nowNanos - firstRequestNanos),
+                    attempts)
+            reset(null)
+            return true
+        }
+    }
+}
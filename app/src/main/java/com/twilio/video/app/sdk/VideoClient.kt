@@ -1,6 +1,7 @@
 package com.twilio.video.app.sdk
 
 import android.content.Context
+import com.twilio.video.LocalAudioTrack
 import com.twilio.video.Room
 import com.twilio.video.Video
 
@@ -12,12 +13,13 @@ class VideoClient(
     suspend fun connect(
         identity: String,
         roomName: String,
-        roomListener: Room.Listener
+        roomListener: Room.Listener,
+        audioTracks: List<LocalAudioTrack> = emptyList()
     ): Room {
 
             return Video.connect(
                     context,
-                    connectOptionsFactory.newInstance(identity, roomName),
+                    connectOptionsFactory.newInstance(identity, roomName, audioTracks),
                     roomListener)
     }
 }
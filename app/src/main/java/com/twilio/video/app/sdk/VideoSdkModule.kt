@@ -1,9 +1,9 @@
 package com.twilio.video.app.sdk
 
 import android.app.Application
-import android.content.SharedPreferences
 import com.twilio.video.app.ApplicationModule
 import com.twilio.video.app.ApplicationScope
+import com.twilio.video.app.data.CallConfigurationProvider
 import com.twilio.video.app.data.DataModule
 import com.twilio.video.app.data.api.TokenService
 import com.twilio.video.app.data.api.VideoAppServiceModule
@@ -19,10 +19,12 @@ class VideoSdkModule {
     @Provides
     fun providesConnectOptionsFactory(
         application: Application,
-        sharedPreferences: SharedPreferences,
-        tokenService: TokenService
+        callConfigurationProvider: CallConfigurationProvider,
+        tokenService: TokenService,
+        renderDimensionsTracker: RenderDimensionsTracker
     ): ConnectOptionsFactory =
-            ConnectOptionsFactory(application, sharedPreferences, tokenService)
+            ConnectOptionsFactory(application, callConfigurationProvider, tokenService,
+                    renderDimensionsTracker)
 
     @Provides
     fun providesRoomFactory(
@@ -36,7 +38,9 @@ class VideoSdkModule {
     fun providesRoomManager(
         application: Application,
         videoClient: VideoClient,
-        sharedPreferences: SharedPreferences
+        callConfigurationProvider: CallConfigurationProvider,
+        renderDimensionsTracker: RenderDimensionsTracker
     ): RoomManager =
-            RoomManager(application, videoClient, sharedPreferences)
+            RoomManager(application, videoClient, callConfigurationProvider,
+                    renderDimensionsTracker = renderDimensionsTracker)
 }
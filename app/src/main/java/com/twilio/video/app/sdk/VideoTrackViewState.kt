@@ -4,5 +4,6 @@ import com.twilio.video.VideoTrack
 
 data class VideoTrackViewState constructor (
     val videoTrack: VideoTrack,
-    val isSwitchedOff: Boolean = false
+    val isSwitchedOff: Boolean = false,
+    val isEnabled: Boolean = videoTrack.isEnabled
 )
@@ -0,0 +1,76 @@
+package com.twilio.video.app.ui.room
+
+import java.util.concurrent.TimeUnit
+
+/*
+ * The role of a participant view and the frame rate it renders at.
+ */
+enum class VideoViewRole(val targetFps: Int) {
+    PRIMARY(30),
+    PICTURE_IN_PICTURE(15),
+    THUMBNAIL(15),
+    GRID(10),
+    DEGRADED(5)
+}
+
+/*
+ * Decides, based on frame timestamps, which frames a view renders so that it does not render
+ * faster than its role requires. Dropping a frame only means not forwarding it: sinks do not
+ * own the frames they receive so dropped frames must not be released. Frames are delivered on
+ * the renderer thread while the role may be changed from the main thread.
+ */
+class FrameRateLimiter(role: VideoViewRole = VideoViewRole.PRIMARY) {
+
+    @Volatile
+    var role: VideoViewRole = role
+        set(value) {
+            if (field == value) return
+            field = value
+            nextFrameTimestampNs = UNSET
+        }
+
+    @Volatile
+    var deliveredFrames = 0L
+        private set
+    @Volatile
+    var droppedFrames = 0L
+        private set
+
+    @Volatile
+    private var nextFrameTimestampNs = UNSET
+    private var lastFrameTimestampNs = UNSET
+
+    fun shouldDeliver(timestampNs: Long): Boolean {
+        val frameIntervalNs = FRAME_INTERVALS_NS[role.ordinal]
+        val nextFrameTimestampNs = nextFrameTimestampNs
+        // Allow frames a quarter interval early so jitter on the source does not halve the rate
+        if (nextFrameTimestampNs != UNSET && timestampNs >= lastFrameTimestampNs &&
+                timestampNs < nextFrameTimestampNs - frameIntervalNs / 4) {
+            droppedFrames++
+            return false
+        }
+        this.nextFrameTimestampNs = if (nextFrameTimestampNs == UNSET ||
+                timestampNs - nextFrameTimestampNs > frameIntervalNs ||
+                timestampNs < lastFrameTimestampNs) {
+            // First frame, a gap or a timestamp discontinuity restarts the cadence
+            timestampNs + frameIntervalNs
+        } else {
+            nextFrameTimestampNs + frameIntervalNs
+        }
+        lastFrameTimestampNs = timestampNs
+        deliveredFrames++
+        return true
+    }
+
+    fun resetCounts() {
+        deliveredFrames = 0
+        droppedFrames = 0
+    }
+
+    private companion object {
+        const val UNSET = Long.MIN_VALUE
+        val FRAME_INTERVALS_NS = VideoViewRole.values()
+                .map { TimeUnit.SECONDS.toNanos(1) / it.targetFps }
+                .toLongArray()
+    }
+}
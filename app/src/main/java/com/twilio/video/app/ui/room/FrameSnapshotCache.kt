@@ -0,0 +1,129 @@
+package com.twilio.video.app.ui.room
+
+import android.graphics.Bitmap
+import android.graphics.Matrix
+import androidx.annotation.VisibleForTesting
+import androidx.collection.LruCache
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+import kotlin.math.max
+import kotlin.math.min
+import timber.log.Timber
+import tvi.webrtc.VideoFrame
+
+const val FRAME_SNAPSHOT_CACHE_MAX_BYTES = 2 * 1024 * 1024
+private const val SNAPSHOT_MAX_DIMENSION = 96
+private val SNAPSHOT_INTERVAL_NS = TimeUnit.SECONDS.toNanos(2)
+
+/*
+ * Bounded LRU cache of downscaled last frames keyed by participant sid. Thumbnails sample a
+ * frame every couple of seconds from the sink path and show the cached snapshot while their
+ * track is switched off, so switching off tracks does not leave a black tile behind.
+ *
+ * Snapshots are at most 96 pixels on their longest side and the cache is bounded by the byte
+ * count of the bitmaps it holds. Evicted bitmaps are not recycled as they might still be shown.
+ */
+class FrameSnapshotCache(maxBytes: Int = FRAME_SNAPSHOT_CACHE_MAX_BYTES) {
+
+    private val snapshots = object : LruCache<String, Bitmap>(maxBytes) {
+        override fun sizeOf(key: String, value: Bitmap) = value.byteCount
+    }
+    private val lastSnapshotNanos = HashMap<String, Long>()
+
+    val sizeBytes: Int get() = snapshots.size()
+    val maxSizeBytes: Int get() = snapshots.maxSize()
+
+    fun get(key: String): Bitmap? = snapshots.get(key)
+
+    fun put(key: String, snapshot: Bitmap) {
+        snapshots.put(key, snapshot)
+    }
+
+    /*
+     * Captures a snapshot of the frame when the last one of the key is older than the sampling
+     * interval. Called on the renderer thread for every rendered frame.
+     */
+    @JvmOverloads
+    fun onFrame(key: String, videoFrame: VideoFrame, nowNs: Long = System.nanoTime()) {
+        synchronized(lastSnapshotNanos) {
+            val lastSnapshotNs = lastSnapshotNanos[key]
+            if (lastSnapshotNs != null && nowNs - lastSnapshotNs < SNAPSHOT_INTERVAL_NS) return
+            lastSnapshotNanos[key] = nowNs
+        }
+        try {
+            snapshot(videoFrame)?.let { put(key, it) }
+        } catch (e: RuntimeException) {
+            Timber.w(e, "Unable to capture a frame snapshot")
+        }
+    }
+
+    fun remove(key: String) {
+        snapshots.remove(key)
+        synchronized(lastSnapshotNanos) { lastSnapshotNanos.remove(key) }
+    }
+
+    fun trimToSize(maxBytes: Int) = snapshots.trimToSize(maxBytes)
+
+    fun clear() {
+        snapshots.evictAll()
+        synchronized(lastSnapshotNanos) { lastSnapshotNanos.clear() }
+    }
+
+    private fun snapshot(videoFrame: VideoFrame): Bitmap? {
+        val buffer = videoFrame.buffer
+        val scale = min(1f, SNAPSHOT_MAX_DIMENSION.toFloat() / max(buffer.width, buffer.height))
+        // I420 chroma planes are subsampled by two so keep the dimensions even
+        val width = max(2, (buffer.width * scale).toInt() and 1.inv())
+        val height = max(2, (buffer.height * scale).toInt() and 1.inv())
+        val scaledBuffer = buffer.cropAndScale(0, 0, buffer.width, buffer.height, width, height)
+        val i420Buffer = try {
+            scaledBuffer.toI420()
+        } finally {
+            scaledBuffer.release()
+        } ?: return null
+
+        val bitmap = try {
+            i420Buffer.run {
+                Bitmap.createBitmap(
+                        i420ToArgb(width, height, dataY, strideY, dataU, strideU, dataV, strideV),
+                        width, height, Bitmap.Config.ARGB_8888)
+            }
+        } finally {
+            i420Buffer.release()
+        }
+        if (videoFrame.rotation == 0) return bitmap
+        val matrix = Matrix().apply { postRotate(videoFrame.rotation.toFloat()) }
+        return Bitmap.createBitmap(bitmap, 0, 0, width, height, matrix, true).also {
+            if (it !== bitmap) bitmap.recycle()
+        }
+    }
+}
+
+/*
+ * Converts an I420 image with BT.601 limited range to ARGB pixels.
+ */
+@VisibleForTesting
+internal fun i420ToArgb(
+    width: Int,
+    height: Int,
+    dataY: ByteBuffer,
+    strideY: Int,
+    dataU: ByteBuffer,
+    strideU: Int,
+    dataV: ByteBuffer,
+    strideV: Int
+): IntArray {
+    val pixels = IntArray(width * height)
+    for (y in 0 until height) {
+        for (x in 0 until width) {
+            val luma = 298 * ((dataY.get(y * strideY + x).toInt() and 0xff) - 16)
+            val u = (dataU.get(y / 2 * strideU + x / 2).toInt() and 0xff) - 128
+            val v = (dataV.get(y / 2 * strideV + x / 2).toInt() and 0xff) - 128
+            val r = ((luma + 409 * v + 128) shr 8).coerceIn(0, 255)
+            val g = ((luma - 100 * u - 208 * v + 128) shr 8).coerceIn(0, 255)
+            val b = ((luma + 516 * u + 128) shr 8).coerceIn(0, 255)
+            pixels[y * width + x] = (0xff shl 24) or (r shl 16) or (g shl 8) or b
+        }
+    }
+    return pixels
+}
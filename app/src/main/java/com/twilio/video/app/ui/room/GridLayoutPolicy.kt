@@ -0,0 +1,55 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.TrackPriority
+import kotlin.math.min
+
+private const val MAX_COLUMNS = 4
+private const val MAX_ROWS = 4
+private const val VIDEO_ASPECT_RATIO = 4f / 3f
+
+/*
+ * The arrangement of a participant grid and the quality each tile is rendered and requested at.
+ */
+data class GridSpec(
+    val columns: Int,
+    val rows: Int,
+    val tileWidth: Int,
+    val tileHeight: Int,
+    val videoViewRole: VideoViewRole,
+    val trackPriority: TrackPriority
+)
+
+/*
+ * Chooses the grid arrangement for a number of participants and the available space. The column
+ * count maximizes the area a video can fill inside each tile. Up to 16 tiles are shown at once,
+ * with larger rooms scrolling. The more tiles are visible the smaller they are, so larger grids
+ * render at lower frame rates and request their tracks at lower priorities, which maps to
+ * smaller bandwidth profile render dimensions.
+ */
+object GridLayoutPolicy {
+
+    fun gridSpec(participantCount: Int, width: Int, height: Int): GridSpec {
+        val visibleTiles = participantCount.coerceIn(1, MAX_COLUMNS * MAX_ROWS)
+        val columns = (1..min(MAX_COLUMNS, visibleTiles)).maxByOrNull { columns ->
+            val rows = (visibleTiles + columns - 1) / columns
+            if (rows > MAX_ROWS) 0f else videoArea(width / columns, height / rows)
+        } ?: 1
+        val rows = (visibleTiles + columns - 1) / columns
+        val (videoViewRole, trackPriority) = when {
+            visibleTiles <= 2 -> VideoViewRole.PRIMARY to TrackPriority.HIGH
+            visibleTiles <= 4 -> VideoViewRole.THUMBNAIL to TrackPriority.STANDARD
+            visibleTiles <= 9 -> VideoViewRole.THUMBNAIL to TrackPriority.LOW
+            else -> VideoViewRole.GRID to TrackPriority.LOW
+        }
+        return GridSpec(columns, rows, width / columns, height / rows, videoViewRole,
+                trackPriority)
+    }
+
+    /*
+     * The area a 4:3 video covers when it is fit into a tile.
+     */
+    private fun videoArea(tileWidth: Int, tileHeight: Int): Float {
+        val videoWidth = min(tileWidth.toFloat(), tileHeight * VIDEO_ASPECT_RATIO)
+        return videoWidth * videoWidth / VIDEO_ASPECT_RATIO
+    }
+}
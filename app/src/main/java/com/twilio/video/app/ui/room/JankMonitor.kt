@@ -0,0 +1,64 @@
+package com.twilio.video.app.ui.room
+
+import android.view.Choreographer
+import java.util.concurrent.TimeUnit
+import timber.log.Timber
+
+private val FRAME_INTERVAL_NS = TimeUnit.SECONDS.toNanos(1) / 60
+
+/*
+ * Counts dropped frames on the main thread for a limited window, for example the burst of
+ * participant views created when joining a room. A frame is considered dropped for every vsync
+ * interval that passed without a frame being drawn.
+ */
+internal class JankMonitor(
+    private val name: String,
+    private val durationNs: Long = TimeUnit.SECONDS.toNanos(5),
+    private val onFinished: (JankMonitor) -> Unit = {}
+) : Choreographer.FrameCallback {
+
+    var frames = 0
+        private set
+    var droppedFrames = 0
+        private set
+    var isRunning = false
+        private set
+    private var isStarted = false
+    private var startFrameTimeNs = 0L
+    private var lastFrameTimeNs = 0L
+
+    fun start() {
+        if (isRunning) return
+        isRunning = true
+        frames = 0
+        droppedFrames = 0
+        isStarted = false
+        Choreographer.getInstance().postFrameCallback(this)
+    }
+
+    fun stop() {
+        if (!isRunning) return
+        isRunning = false
+        Choreographer.getInstance().removeFrameCallback(this)
+        Timber.d("%s: %d frames drawn, %d frames dropped", name, frames, droppedFrames)
+        onFinished(this)
+    }
+
+    override fun doFrame(frameTimeNanos: Long) {
+        if (!isStarted) {
+            isStarted = true
+            startFrameTimeNs = frameTimeNanos
+        } else {
+            frames++
+            val skippedIntervals = (frameTimeNanos - lastFrameTimeNs - FRAME_INTERVAL_NS / 2) /
+                    FRAME_INTERVAL_NS
+            if (skippedIntervals > 0) droppedFrames += skippedIntervals.toInt()
+        }
+        lastFrameTimeNs = frameTimeNanos
+        if (frameTimeNanos - startFrameTimeNs >= durationNs) {
+            stop()
+        } else {
+            Choreographer.getInstance().postFrameCallback(this)
+        }
+    }
+}
@@ -7,17 +7,34 @@ import androidx.recyclerview.widget.DiffUtil
 import androidx.recyclerview.widget.ListAdapter
 import com.twilio.video.app.participant.ParticipantViewState
 
-internal class ParticipantAdapter : ListAdapter<ParticipantViewState, ParticipantViewHolder>(
+internal class ParticipantAdapter(
+    private val videoSinkManager: VideoSinkManager,
+    private val participantViewPool: ParticipantViewPool,
+    private val frameSnapshotCache: FrameSnapshotCache
+) : ListAdapter<ParticipantViewState, ParticipantViewHolder>(
         ParticipantDiffCallback()) {
 
     private val mutableViewHolderEvents = MutableLiveData<RoomViewEvent>()
     val viewHolderEvents: LiveData<RoomViewEvent> = mutableViewHolderEvents
 
+    /*
+     * The grid the participants are laid out in or null when shown as a thumbnail strip.
+     */
+    var gridSpec: GridSpec? = null
+        set(value) {
+            if (field == value) return
+            field = value
+            notifyItemRangeChanged(0, itemCount)
+        }
+
     override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): ParticipantViewHolder =
-            ParticipantViewHolder(ParticipantThumbView(parent.context))
+            ParticipantViewHolder(participantViewPool.obtain(), videoSinkManager,
+                    frameSnapshotCache)
 
     override fun onBindViewHolder(holder: ParticipantViewHolder, position: Int) =
-            holder.bind(getItem(position)) { mutableViewHolderEvents.value = it }
+            holder.bind(getItem(position), gridSpec) { mutableViewHolderEvents.value = it }
+
+    override fun onViewRecycled(holder: ParticipantViewHolder) = holder.recycle()
 
     class ParticipantDiffCallback : DiffUtil.ItemCallback<ParticipantViewState>() {
         override fun areItemsTheSame(
@@ -18,10 +18,12 @@ package com.twilio.video.app.ui.room;
 
 import android.annotation.TargetApi;
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.os.Build;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
 import androidx.core.content.ContextCompat;
 import com.twilio.video.app.R;
 import com.twilio.video.app.databinding.ParticipantViewBinding;
@@ -62,6 +64,8 @@ public class ParticipantThumbView extends ParticipantView {
         selectedIdentity = binding.selectedIdentity;
         audioToggle = binding.audioToggle;
         pinImage = binding.pin;
+        metricsOverlay = binding.sinkMetrics;
+        setVideoRole(VideoViewRole.THUMBNAIL);
         setIdentity(identity);
         setState(state);
         setMirror(mirror);
@@ -74,6 +78,7 @@ public class ParticipantThumbView extends ParticipantView {
 
         binding.participantTrackSwitchOffBackground.setVisibility(isSwitchOffViewVisible(state));
         binding.participantTrackSwitchOffIcon.setVisibility(isSwitchOffViewVisible(state));
+        updateTrackSnapshot(state);
 
         int resId = R.drawable.participant_background;
         if (state == State.SELECTED) {
@@ -82,6 +87,34 @@ public class ParticipantThumbView extends ParticipantView {
         selectedLayout.setBackground(ContextCompat.getDrawable(getContext(), resId));
     }
 
+    /*
+     * Resizes the thumbnail to fill a tile of the provided size including its margins.
+     */
+    void setTileSize(int width, int height) {
+        View background = binding.getRoot();
+        ViewGroup.MarginLayoutParams params =
+                (ViewGroup.MarginLayoutParams) background.getLayoutParams();
+        int tileWidth = width - params.leftMargin - params.rightMargin;
+        int tileHeight = height - params.topMargin - params.bottomMargin;
+        if (params.width != tileWidth || params.height != tileHeight) {
+            params.width = tileWidth;
+            params.height = tileHeight;
+            background.setLayoutParams(params);
+        }
+    }
+
+    /*
+     * Shows the last sampled frame behind the switch off overlay instead of a black tile.
+     */
+    private void updateTrackSnapshot(int state) {
+        Bitmap snapshot =
+                state == State.SWITCHED_OFF && frameSnapshotCache != null && snapshotKey != null
+                        ? frameSnapshotCache.get(snapshotKey)
+                        : null;
+        binding.trackSnapshot.setImageBitmap(snapshot);
+        binding.trackSnapshot.setVisibility(snapshot != null ? View.VISIBLE : View.GONE);
+    }
+
     private int isSwitchOffViewVisible(int state) {
         return state == State.SWITCHED_OFF ? View.VISIBLE : View.GONE;
     }
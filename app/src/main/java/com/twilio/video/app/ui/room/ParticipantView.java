@@ -43,12 +43,16 @@ import tvi.webrtc.VideoSink;
 abstract class ParticipantView extends FrameLayout implements VideoSink {
 
     private static final VideoScaleType DEFAULT_VIDEO_SCALE_TYPE = VideoScaleType.ASPECT_FIT;
+    private static final long METRICS_OVERLAY_UPDATE_INTERVAL_MS = 1000;
 
     String identity = "";
     int state = State.NO_VIDEO;
     boolean mirror = false;
     int scaleType = DEFAULT_VIDEO_SCALE_TYPE.ordinal();
 
+    final FrameRateLimiter frameRateLimiter = new FrameRateLimiter(VideoViewRole.PRIMARY);
+    final SinkMetrics sinkMetrics = new SinkMetrics();
+    boolean showMetrics = false;
     VideoTrack videoTrack;
     ConstraintLayout videoLayout;
     TextView videoIdentity;
@@ -59,6 +63,19 @@ abstract class ParticipantView extends FrameLayout implements VideoSink {
     TextView selectedIdentity;
     @Nullable ImageView audioToggle;
     @Nullable ImageView pinImage;
+    @Nullable TextView metricsOverlay;
+    @Nullable FrameSnapshotCache frameSnapshotCache;
+    @Nullable String snapshotKey;
+
+    private final Runnable metricsOverlayUpdate =
+            new Runnable() {
+                @Override
+                public void run() {
+                    if (metricsOverlay == null) return;
+                    metricsOverlay.setText(sinkMetrics.snapshot().toOverlayText());
+                    postDelayed(this, METRICS_OVERLAY_UPDATE_INTERVAL_MS);
+                }
+            };
 
     public ParticipantView(@NonNull Context context) {
         super(context);
@@ -142,9 +159,62 @@ abstract class ParticipantView extends FrameLayout implements VideoSink {
         if (pinImage != null) pinImage.setVisibility(pinned ? VISIBLE : GONE);
     }
 
+    public void setVideoRole(VideoViewRole role) {
+        frameRateLimiter.setRole(role);
+    }
+
+    public FrameRateLimiter getFrameRateLimiter() {
+        return frameRateLimiter;
+    }
+
+    public SinkMetrics getSinkMetrics() {
+        return sinkMetrics;
+    }
+
+    /*
+     * Samples rendered frames into the cache under the provided key. A null key stops sampling.
+     */
+    public void setFrameSnapshotCache(
+            @Nullable FrameSnapshotCache frameSnapshotCache, @Nullable String snapshotKey) {
+        this.frameSnapshotCache = frameSnapshotCache;
+        this.snapshotKey = snapshotKey;
+    }
+
+    /*
+     * Shows the rendering metrics of this sink on top of the video, refreshed every second.
+     */
+    public void setShowMetrics(boolean showMetrics) {
+        if (metricsOverlay == null || this.showMetrics == showMetrics) return;
+        this.showMetrics = showMetrics;
+        metricsOverlay.setVisibility(showMetrics ? VISIBLE : GONE);
+        removeCallbacks(metricsOverlayUpdate);
+        if (showMetrics) post(metricsOverlayUpdate);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (showMetrics) post(metricsOverlayUpdate);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(metricsOverlayUpdate);
+        super.onDetachedFromWindow();
+    }
+
     @Override
     public void onFrame(VideoFrame videoFrame) {
-        videoView.onFrame(videoFrame);
+        boolean deliver = frameRateLimiter.shouldDeliver(videoFrame.getTimestampNs());
+        sinkMetrics.onFrame(deliver);
+        if (deliver) {
+            videoView.onFrame(videoFrame);
+            FrameSnapshotCache frameSnapshotCache = this.frameSnapshotCache;
+            String snapshotKey = this.snapshotKey;
+            if (frameSnapshotCache != null && snapshotKey != null) {
+                frameSnapshotCache.onFrame(snapshotKey, videoFrame);
+            }
+        }
     }
 
     void initParams(Context context, AttributeSet attrs) {
@@ -10,19 +10,26 @@ import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
 import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_THREE
 import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_TWO
 import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ZERO
-import com.twilio.video.VideoTrack
+import com.twilio.video.RemoteVideoTrack
 import com.twilio.video.app.R
 import com.twilio.video.app.participant.ParticipantViewState
 import com.twilio.video.app.sdk.VideoTrackViewState
 import com.twilio.video.app.ui.room.RoomViewEvent.PinParticipant
 import timber.log.Timber
 
-internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
-        RecyclerView.ViewHolder(thumb) {
+internal class ParticipantViewHolder(
+    private val thumb: ParticipantThumbView,
+    private val videoSinkManager: VideoSinkManager,
+    private val frameSnapshotCache: FrameSnapshotCache
+) : RecyclerView.ViewHolder(thumb) {
 
     private val localParticipantIdentity = thumb.context.getString(R.string.you)
 
-    fun bind(participantViewState: ParticipantViewState, viewEventAction: (RoomViewEvent) -> Unit) {
+    fun bind(
+        participantViewState: ParticipantViewState,
+        gridSpec: GridSpec?,
+        viewEventAction: (RoomViewEvent) -> Unit
+    ) {
         Timber.d("bind ParticipantViewHolder with data item: %s", participantViewState)
         Timber.d("thumb: %s", thumb)
 
@@ -37,6 +44,11 @@ internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
             setIdentity(identity)
             setMuted(participantViewState.isMuted)
             setPinned(participantViewState.isPinned)
+            gridSpec?.let { setTileSize(it.tileWidth, it.tileHeight) }
+            setVideoRole(videoRole(participantViewState.networkQualityLevel, gridSpec))
+            updateTrackPriority(participantViewState.videoTrack, gridSpec)
+            setFrameSnapshotCache(frameSnapshotCache,
+                    participantViewState.sid.takeUnless { participantViewState.isLocalParticipant })
 
             updateVideoTrack(participantViewState)
 
@@ -46,25 +58,31 @@ internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
         }
     }
 
+    fun recycle() {
+        videoSinkManager.unbind(thumb)
+        thumb.setFrameSnapshotCache(null, null)
+    }
+
     private fun updateVideoTrack(participantViewState: ParticipantViewState) {
         thumb.run {
             val videoTrackViewState = participantViewState.videoTrack
             val newVideoTrack = videoTrackViewState?.let { it.videoTrack }
             if (videoTrack !== newVideoTrack) {
-                removeRender(videoTrack, this)
                 videoTrack = newVideoTrack
-                videoTrack?.let { videoTrack ->
-                    setVideoState(videoTrackViewState)
-                    if (videoTrack.isEnabled) videoTrack.addSink(this)
-                } ?: setState(ParticipantView.State.NO_VIDEO)
+                videoTrack?.let { setVideoState(videoTrackViewState) }
+                        ?: setState(ParticipantView.State.NO_VIDEO)
             } else {
                 setVideoState(videoTrackViewState)
             }
+            videoSinkManager.bind(this, videoTrackViewState?.takeIf { it.isEnabled }?.videoTrack)
         }
     }
 
     private fun ParticipantThumbView.setVideoState(videoTrackViewState: VideoTrackViewState?) {
         if (videoTrackViewState?.let { it.isSwitchedOff } == true) {
+            if (state != ParticipantView.State.SWITCHED_OFF) {
+                Timber.i("Track %s switched off, %s", videoTrack?.name, sinkMetrics.snapshot())
+            }
             setState(ParticipantView.State.SWITCHED_OFF)
         } else {
             videoTrackViewState?.videoTrack?.let { setState(ParticipantView.State.VIDEO) }
@@ -72,9 +90,21 @@ internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
         }
     }
 
-    private fun removeRender(videoTrack: VideoTrack?, view: ParticipantView) {
-        if (videoTrack == null || !videoTrack.sinks.contains(view)) return
-        videoTrack.removeSink(view)
+    private fun videoRole(networkQualityLevel: NetworkQualityLevel?, gridSpec: GridSpec?) =
+            when (networkQualityLevel) {
+                NETWORK_QUALITY_LEVEL_ZERO, NETWORK_QUALITY_LEVEL_ONE -> VideoViewRole.DEGRADED
+                else -> gridSpec?.videoViewRole ?: VideoViewRole.THUMBNAIL
+            }
+
+    /*
+     * Requests remote tracks shown in a grid at the priority of the grid. Outside of a grid the
+     * ParticipantManager owns the priorities, so thumbnails leave them untouched.
+     */
+    private fun updateTrackPriority(videoTrack: VideoTrackViewState?, gridSpec: GridSpec?) {
+        val priority = gridSpec?.trackPriority ?: return
+        (videoTrack?.videoTrack as? RemoteVideoTrack)?.let { remoteVideoTrack ->
+            if (remoteVideoTrack.priority != priority) remoteVideoTrack.priority = priority
+        }
     }
 
     private fun setNetworkQualityLevelImage(
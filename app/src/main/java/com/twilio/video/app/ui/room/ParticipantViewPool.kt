@@ -0,0 +1,71 @@
+package com.twilio.video.app.ui.room
+
+import android.content.Context
+import android.os.Looper
+import android.os.MessageQueue
+import java.util.ArrayDeque
+import java.util.concurrent.TimeUnit
+import timber.log.Timber
+
+/*
+ * Pool of participant thumbnail views that are inflated ahead of time while the main thread is
+ * idle, for example while the lobby is shown or the room is connecting. View holders created
+ * during the join burst take pre-inflated views instead of inflating synchronously.
+ */
+internal class ParticipantViewPool(
+    private val context: Context,
+    private val capacity: Int
+) : MessageQueue.IdleHandler {
+
+    private val views = ArrayDeque<ParticipantThumbView>(capacity)
+    private var isPrewarming = false
+
+    var pooledViewsUsed = 0
+        private set
+    var viewsInflatedOnDemand = 0
+        private set
+    var onDemandInflateNanos = 0L
+        private set
+
+    /*
+     * Inflates views one at a time whenever the main thread is idle until the pool is full.
+     */
+    fun prewarm() {
+        if (isPrewarming || views.size >= capacity) return
+        isPrewarming = true
+        Looper.myQueue().addIdleHandler(this)
+    }
+
+    fun obtain(): ParticipantThumbView = views.poll()?.also { pooledViewsUsed++ } ?: run {
+        val start = System.nanoTime()
+        inflate().also {
+            onDemandInflateNanos += System.nanoTime() - start
+            viewsInflatedOnDemand++
+        }
+    }
+
+    fun resetCounts() {
+        pooledViewsUsed = 0
+        viewsInflatedOnDemand = 0
+        onDemandInflateNanos = 0
+    }
+
+    fun release() {
+        if (isPrewarming) Looper.myQueue().removeIdleHandler(this)
+        isPrewarming = false
+        views.clear()
+    }
+
+    override fun queueIdle(): Boolean {
+        if (views.size < capacity) {
+            val start = System.nanoTime()
+            views.add(inflate())
+            Timber.v("Pre-inflated participant view %d of %d in %d us", views.size, capacity,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start))
+        }
+        isPrewarming = views.size < capacity
+        return isPrewarming
+    }
+
+    private fun inflate() = ParticipantThumbView(context)
+}
@@ -15,49 +15,82 @@
  */
 package com.twilio.video.app.ui.room
 
+import androidx.annotation.VisibleForTesting
 import com.twilio.video.VideoTrack
 import com.twilio.video.app.sdk.VideoTrackViewState
 
+/*
+ * Binds the primary participant to the primary view. Rendering is change detecting: the sink
+ * binding and view properties are only touched when they differ from what is currently bound,
+ * so re-rendering an unchanged participant on every view state emission is a no-op.
+ */
 internal class PrimaryParticipantController(
-    private val primaryView: ParticipantPrimaryView
+    private val primaryView: ParticipantPrimaryView,
+    private val videoSinkManager: VideoSinkManager
 ) {
     private var primaryItem: Item? = null
 
+    @VisibleForTesting
+    internal var sinkAdditions = 0
+        private set
+    @VisibleForTesting
+    internal var sinkRemovals = 0
+        private set
+    @VisibleForTesting
+    internal var viewUpdates = 0
+        private set
+
     fun renderAsPrimary(
         identity: String?,
         screenTrack: VideoTrackViewState?,
         videoTrack: VideoTrackViewState?,
         muted: Boolean,
-        mirror: Boolean
+        mirror: Boolean,
+        showIdentityBadge: Boolean = true
     ) {
-
         val old = primaryItem
-        val selectedTrack = screenTrack?.videoTrack ?: videoTrack?.videoTrack
-        val newItem = Item(identity, selectedTrack, muted, mirror)
-
-        // clean old primary video renderings
-        old?.let { removeRender(it.videoTrack, primaryView) }
-
+        val selectedTrack = screenTrack ?: videoTrack
+        val newItem = Item(identity, selectedTrack?.videoTrack, selectedTrack?.isEnabled == true,
+                muted, mirror, showIdentityBadge)
+        if (newItem == old) return
         primaryItem = newItem
-        primaryView.setIdentity(newItem.identity)
-        primaryView.showIdentityBadge(true)
-        primaryView.setMuted(newItem.muted)
-        primaryView.setMirror(newItem.mirror)
-        newItem.videoTrack?.let { newVideoTrack ->
-            if (newVideoTrack.isEnabled) newVideoTrack.addSink(primaryView)
-            primaryView.setState(ParticipantView.State.VIDEO)
-        } ?: primaryView.setState(ParticipantView.State.NO_VIDEO)
-    }
 
-    private fun removeRender(videoTrack: VideoTrack?, view: ParticipantView) {
-        if (videoTrack == null || !videoTrack.sinks.contains(view)) return
-        videoTrack.removeSink(view)
+        if (old == null || old.videoTrack != newItem.videoTrack ||
+                old.isVideoEnabled != newItem.isVideoEnabled) {
+            if (old?.isVideoEnabled == true) sinkRemovals++
+            val enabledTrack = newItem.videoTrack?.takeIf { newItem.isVideoEnabled }
+            if (enabledTrack != null) sinkAdditions++
+            videoSinkManager.bind(primaryView, enabledTrack)
+            if (old?.videoTrack == null || newItem.videoTrack == null) {
+                primaryView.setState(if (newItem.videoTrack != null)
+                    ParticipantView.State.VIDEO else ParticipantView.State.NO_VIDEO)
+                viewUpdates++
+            }
+        }
+        if (old == null || old.identity != newItem.identity) {
+            primaryView.setIdentity(newItem.identity)
+            viewUpdates++
+        }
+        if (old == null || old.showIdentityBadge != newItem.showIdentityBadge) {
+            primaryView.showIdentityBadge(newItem.showIdentityBadge)
+            viewUpdates++
+        }
+        if (old == null || old.muted != newItem.muted) {
+            primaryView.setMuted(newItem.muted)
+            viewUpdates++
+        }
+        if (old == null || old.mirror != newItem.mirror) {
+            primaryView.setMirror(newItem.mirror)
+            viewUpdates++
+        }
     }
 
-    internal class Item(
-        var identity: String?,
-        var videoTrack: VideoTrack?,
-        var muted: Boolean,
-        var mirror: Boolean
+    internal data class Item(
+        val identity: String?,
+        val videoTrack: VideoTrack?,
+        val isVideoEnabled: Boolean,
+        val muted: Boolean,
+        val mirror: Boolean,
+        val showIdentityBadge: Boolean
     )
 }
@@ -22,28 +22,35 @@ import android.animation.ValueAnimator
 import android.annotation.TargetApi
 import android.app.Activity
 import android.app.AlertDialog
+import android.app.PictureInPictureParams
+import android.content.ComponentCallbacks2
 import android.content.Context
 import android.content.DialogInterface
 import android.content.Intent
 import android.content.SharedPreferences
 import android.content.pm.PackageManager
+import android.content.res.Configuration
 import android.media.AudioManager
 import android.media.projection.MediaProjectionManager
 import android.net.Uri
 import android.os.Build
 import android.os.Bundle
 import android.text.TextUtils
+import android.util.Rational
 import android.view.Menu
 import android.view.MenuItem
 import android.view.View
 import android.view.WindowManager
+import androidx.annotation.VisibleForTesting
+import androidx.annotation.VisibleForTesting.PRIVATE
+import androidx.appcompat.widget.SearchView
 import androidx.core.content.ContextCompat
 import androidx.core.widget.doOnTextChanged
 import androidx.lifecycle.ViewModelProvider
+import androidx.recyclerview.widget.GridLayoutManager
 import androidx.recyclerview.widget.LinearLayoutManager
 import com.google.android.material.snackbar.BaseTransientBottomBar
 import com.google.android.material.snackbar.Snackbar
-import com.twilio.audioswitch.AudioDevice
 import com.twilio.audioswitch.AudioDevice.BluetoothHeadset
 import com.twilio.audioswitch.AudioDevice.Speakerphone
 import com.twilio.audioswitch.AudioDevice.WiredHeadset
@@ -56,6 +63,8 @@ import com.twilio.video.app.data.api.AuthServiceError
 import com.twilio.video.app.data.api.TokenService
 import com.twilio.video.app.databinding.RoomActivityBinding
 import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.participant.RosterCache
+import com.twilio.video.app.sdk.RenderDimensionsTracker
 import com.twilio.video.app.sdk.RoomManager
 import com.twilio.video.app.ui.room.RoomViewConfiguration.Connecting
 import com.twilio.video.app.ui.room.RoomViewConfiguration.Lobby
@@ -73,12 +82,15 @@ import com.twilio.video.app.ui.room.RoomViewEvent.DisableLocalVideo
 import com.twilio.video.app.ui.room.RoomViewEvent.Disconnect
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalVideo
+import com.twilio.video.app.ui.room.RoomViewEvent.FilterParticipants
 import com.twilio.video.app.ui.room.RoomViewEvent.OnPause
 import com.twilio.video.app.ui.room.RoomViewEvent.OnResume
+import com.twilio.video.app.ui.room.RoomViewEvent.PictureInPictureModeChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.SelectAudioDevice
 import com.twilio.video.app.ui.room.RoomViewEvent.StartScreenCapture
 import com.twilio.video.app.ui.room.RoomViewEvent.StopScreenCapture
 import com.twilio.video.app.ui.room.RoomViewEvent.SwitchCamera
+import com.twilio.video.app.ui.room.RoomViewEvent.ToggleGridLayout
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalVideo
 import com.twilio.video.app.ui.room.RoomViewModel.RoomViewModelFactory
@@ -87,6 +99,7 @@ import com.twilio.video.app.util.InputUtils
 import com.twilio.video.app.util.PermissionUtil
 import io.uniflow.androidx.flow.onEvents
 import io.uniflow.androidx.flow.onStates
+import java.util.concurrent.TimeUnit
 import javax.inject.Inject
 import timber.log.Timber
 
@@ -98,10 +111,25 @@ class RoomActivity : BaseActivity() {
     private lateinit var screenCaptureMenuItem: MenuItem
     private lateinit var settingsMenuItem: MenuItem
     private lateinit var deviceMenuItem: MenuItem
+    private lateinit var searchParticipantsMenuItem: MenuItem
+    private lateinit var gridLayoutMenuItem: MenuItem
     private var savedVolumeControlStream = 0
     private var displayName: String? = null
     private var localParticipantSid = LOCAL_PARTICIPANT_STUB_SID
     private lateinit var statsListAdapter: StatsListAdapter
+    private var isStatsEnabled = Preferences.ENABLE_STATS_DEFAULT
+    private var isInPictureInPicture = false
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal val roomViewStateRenderer = RoomViewStateRenderer(
+            { isInPictureInPicture },
+            { isStatsEnabled },
+            ::updateLayout,
+            ::updateLocalMediaControls,
+            ::updateAudioDevice,
+            ::renderThumbnails,
+            ::renderGrid,
+            ::renderPrimaryView,
+            ::updateStatsUI)
 
     @Inject
     lateinit var tokenService: TokenService
@@ -115,9 +143,28 @@ class RoomActivity : BaseActivity() {
     @Inject
     lateinit var audioSwitch: AudioSwitch
 
+    @Inject
+    lateinit var rosterCache: RosterCache
+
+    @Inject
+    lateinit var renderDimensionsTracker: RenderDimensionsTracker
+
+    @Inject
+    lateinit var frameSnapshotCache: FrameSnapshotCache
+
     /** Coordinates participant thumbs and primary participant rendering.  */
-    private lateinit var primaryParticipantController: PrimaryParticipantController
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal lateinit var primaryParticipantController: PrimaryParticipantController
     private lateinit var participantAdapter: ParticipantAdapter
+    private lateinit var participantGridAdapter: ParticipantAdapter
+    private lateinit var videoSinkManager: VideoSinkManager
+    private lateinit var participantViewPool: ParticipantViewPool
+    private val joinBurstMonitor = JankMonitor("Join burst") {
+        Timber.d("Join burst: %d pooled thumbnails used, %d inflated on demand in %d ms",
+                participantViewPool.pooledViewsUsed,
+                participantViewPool.viewsInflatedOnDemand,
+                TimeUnit.NANOSECONDS.toMillis(participantViewPool.onDemandInflateNanos))
+    }
     private lateinit var roomViewModel: RoomViewModel
     private lateinit var recordingAnimation: ObjectAnimator
 
@@ -132,7 +179,8 @@ class RoomActivity : BaseActivity() {
         binding.disconnect.setOnClickListener { disconnectButtonClick() }
         binding.localVideo.setOnClickListener { toggleLocalVideo() }
         binding.localAudio.setOnClickListener { toggleLocalAudio() }
-        val factory = RoomViewModelFactory(roomManager, audioSwitch, PermissionUtil(this))
+        val factory = RoomViewModelFactory(roomManager, audioSwitch, PermissionUtil(this),
+                rosterCache)
         roomViewModel = ViewModelProvider(this, factory).get(RoomViewModel::class.java)
 
         // So calls can be answered when screen is locked
@@ -140,8 +188,12 @@ class RoomActivity : BaseActivity() {
         window.addFlags(WindowManager.LayoutParams.FLAG_SHOW_WHEN_LOCKED)
         window.addFlags(WindowManager.LayoutParams.FLAG_TURN_SCREEN_ON)
 
+        videoSinkManager = VideoSinkManager(lifecycle, renderDimensionsTracker)
+
         // Grab views
         setupThumbnailRecyclerView()
+        setupParticipantGridRecyclerView()
+        setupStatsRecyclerView()
 
         // Setup toolbar
         setSupportActionBar(binding.toolbar)
@@ -150,13 +202,16 @@ class RoomActivity : BaseActivity() {
         savedVolumeControlStream = volumeControlStream
 
         // Setup participant controller
-        primaryParticipantController = PrimaryParticipantController(binding.room.primaryVideo)
+        primaryParticipantController = PrimaryParticipantController(binding.room.primaryVideo,
+                videoSinkManager)
 
         setupRecordingAnimation()
     }
 
     override fun onDestroy() {
         super.onDestroy()
+        joinBurstMonitor.stop()
+        participantViewPool.release()
         recordingAnimation.cancel()
     }
 
@@ -169,6 +224,15 @@ class RoomActivity : BaseActivity() {
         super.onResume()
         displayName = sharedPreferences.getString(Preferences.DISPLAY_NAME, null)
         setTitle(displayName)
+        isStatsEnabled = sharedPreferences.getBoolean(
+                Preferences.ENABLE_STATS, Preferences.ENABLE_STATS_DEFAULT)
+        videoSinkManager.isMetricsOverlayEnabled = sharedPreferences.getBoolean(
+                Preferences.SHOW_RENDER_METRICS, Preferences.SHOW_RENDER_METRICS_DEFAULT)
+        // Display name and preferences are not part of the view state so render every slice again
+        roomViewStateRenderer.invalidate()
+        if (::settingsMenuItem.isInitialized) {
+            (roomViewModel.getCurrentState() as? RoomViewState)?.let { bindRoomViewState(it) }
+        }
         roomViewModel.processInput(OnResume)
     }
 
@@ -177,10 +241,65 @@ class RoomActivity : BaseActivity() {
         roomViewModel.processInput(OnPause)
     }
 
+    override fun onTrimMemory(level: Int) {
+        super.onTrimMemory(level)
+        when {
+            level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND -> frameSnapshotCache.trimToSize(0)
+            level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW ->
+                frameSnapshotCache.trimToSize(frameSnapshotCache.maxSizeBytes / 2)
+        }
+    }
+
+    override fun onUserLeaveHint() {
+        super.onUserLeaveHint()
+        enterPictureInPicture()
+    }
+
+    override fun onPictureInPictureModeChanged(
+        isInPictureInPictureMode: Boolean,
+        newConfig: Configuration
+    ) {
+        super.onPictureInPictureModeChanged(isInPictureInPictureMode, newConfig)
+        isInPictureInPicture = isInPictureInPictureMode
+        val roomViewState = roomViewModel.getCurrentState() as? RoomViewState
+        binding.room.primaryVideo.setVideoRole(if (isInPictureInPictureMode)
+            VideoViewRole.PICTURE_IN_PICTURE else VideoViewRole.PRIMARY)
+        roomViewModel.processInput(PictureInPictureModeChanged(isInPictureInPictureMode))
+        roomViewState?.let { bindRoomViewState(it) }
+        Timber.i("%s picture-in-picture with %d live sinks, primary sink %s",
+                if (isInPictureInPictureMode) "Entered" else "Left",
+                videoSinkManager.liveSinkCount,
+                binding.room.primaryVideo.sinkMetrics.snapshot())
+    }
+
     public override fun onSaveInstanceState(outState: Bundle) {
         super.onSaveInstanceState(outState)
     }
 
+    /*
+     * Moves an ongoing call into a picture-in-picture window that only renders the primary
+     * participant. Thumbnails are unbound from their tracks, which are deprioritized so the
+     * server can switch them off, and the primary view renders at a reduced frame rate.
+     */
+    private fun enterPictureInPicture() {
+        val roomViewState = roomViewModel.getCurrentState() as? RoomViewState ?: return
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O ||
+                roomViewState.configuration !is RoomViewConfiguration.Connected ||
+                !packageManager.hasSystemFeature(PackageManager.FEATURE_PICTURE_IN_PICTURE)) {
+            return
+        }
+        val primaryVideo = binding.room.primaryVideo
+        val aspectRatio = if (primaryVideo.width > primaryVideo.height)
+            Rational(16, 9) else Rational(3, 4)
+        try {
+            enterPictureInPictureMode(PictureInPictureParams.Builder()
+                    .setAspectRatio(aspectRatio)
+                    .build())
+        } catch (e: IllegalStateException) {
+            Timber.w(e, "Unable to enter picture-in-picture")
+        }
+    }
+
     override fun onRequestPermissionsResult(
         requestCode: Int,
         permissions: Array<String>,
@@ -205,6 +324,9 @@ class RoomActivity : BaseActivity() {
         pauseAudioMenuItem = menu.findItem(R.id.pause_audio_menu_item)
         screenCaptureMenuItem = menu.findItem(R.id.share_screen_menu_item)
         deviceMenuItem = menu.findItem(R.id.device_menu_item)
+        searchParticipantsMenuItem = menu.findItem(R.id.search_participants_menu_item)
+        gridLayoutMenuItem = menu.findItem(R.id.grid_layout_menu_item)
+        setupParticipantSearch(searchParticipantsMenuItem.actionView as SearchView)
 
         onStates(roomViewModel) { state ->
             if (state is RoomViewState) bindRoomViewState(state)
@@ -249,6 +371,10 @@ class RoomActivity : BaseActivity() {
                     roomViewModel.processInput(EnableLocalVideo)
                 true
             }
+            R.id.grid_layout_menu_item -> {
+                roomViewModel.processInput(ToggleGridLayout)
+                true
+            }
             R.id.settings_menu_item -> {
                 val intent = Intent(this@RoomActivity, SettingsActivity::class.java)
                 startActivity(intent)
@@ -307,14 +433,61 @@ class RoomActivity : BaseActivity() {
 
     private fun setupThumbnailRecyclerView() {
         val layoutManager = LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false)
+        layoutManager.initialPrefetchItemCount = PARTICIPANT_THUMBNAIL_POOL_SIZE
         binding.room.remoteVideoThumbnails.layoutManager = layoutManager
-        participantAdapter = ParticipantAdapter()
+        binding.room.remoteVideoThumbnails.setHasFixedSize(true)
+        binding.room.remoteVideoThumbnails.recycledViewPool
+                .setMaxRecycledViews(0, PARTICIPANT_THUMBNAIL_POOL_SIZE)
+        participantViewPool = ParticipantViewPool(this, PARTICIPANT_THUMBNAIL_POOL_SIZE)
+        participantViewPool.prewarm()
+        participantAdapter = ParticipantAdapter(videoSinkManager, participantViewPool,
+                frameSnapshotCache)
         participantAdapter
                 .viewHolderEvents
                 .observe(this, { viewEvent: RoomViewEvent -> roomViewModel.processInput(viewEvent) })
         binding.room.remoteVideoThumbnails.adapter = participantAdapter
     }
 
+    private fun setupStatsRecyclerView() {
+        statsListAdapter = StatsListAdapter(this)
+        binding.statsRecyclerView.adapter = statsListAdapter
+        binding.statsRecyclerView.layoutManager = LinearLayoutManager(this)
+    }
+
+    private fun setupParticipantGridRecyclerView() {
+        binding.room.participantGrid.layoutManager = GridLayoutManager(this, 1)
+        binding.room.participantGrid.recycledViewPool
+                .setMaxRecycledViews(0, PARTICIPANT_GRID_MAX_TILES)
+        participantGridAdapter = ParticipantAdapter(videoSinkManager, participantViewPool,
+                frameSnapshotCache)
+        participantGridAdapter
+                .viewHolderEvents
+                .observe(this, { viewEvent: RoomViewEvent -> roomViewModel.processInput(viewEvent) })
+        binding.room.participantGrid.adapter = participantGridAdapter
+        // Tiles are sized from the grid so render again whenever its size changes
+        binding.room.participantGrid.addOnLayoutChangeListener {
+            _, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom ->
+            if (right - left != oldRight - oldLeft || bottom - top != oldBottom - oldTop) {
+                (roomViewModel.getCurrentState() as? RoomViewState)?.let { renderGrid(it) }
+            }
+        }
+    }
+
+    private fun setupParticipantSearch(searchView: SearchView) {
+        searchView.queryHint = getString(R.string.search_participants)
+        searchView.setOnQueryTextListener(object : SearchView.OnQueryTextListener {
+            override fun onQueryTextSubmit(query: String?): Boolean {
+                InputUtils.hideKeyboard(this@RoomActivity)
+                return true
+            }
+
+            override fun onQueryTextChange(newText: String?): Boolean {
+                roomViewModel.processInput(FilterParticipants(newText))
+                return true
+            }
+        })
+    }
+
     private fun roomNameTextChanged(text: CharSequence?) {
         binding.joinRoom.connect.isEnabled = !TextUtils.isEmpty(text)
     }
@@ -399,18 +572,6 @@ class RoomActivity : BaseActivity() {
                 binding.recordingIndicator.visibility = View.GONE
             }
         }
-        val isMicEnabled = roomViewState.isMicEnabled
-        val isCameraEnabled = roomViewState.isCameraEnabled
-        val isLocalMediaEnabled = isMicEnabled && isCameraEnabled
-        binding.localAudio.isEnabled = isLocalMediaEnabled
-        binding.localVideo.isEnabled = isLocalMediaEnabled
-        val micDrawable = if (roomViewState.isAudioMuted || !isLocalMediaEnabled) R.drawable.ic_mic_off_gray_24px else R.drawable.ic_mic_white_24px
-        val videoDrawable = if (roomViewState.isVideoOff || !isLocalMediaEnabled) R.drawable.ic_videocam_off_gray_24px else R.drawable.ic_videocam_white_24px
-        binding.localAudio.setImageResource(micDrawable)
-        binding.localVideo.setImageResource(videoDrawable)
-        statsListAdapter = StatsListAdapter(this)
-        binding.statsRecyclerView.adapter = statsListAdapter
-        binding.statsRecyclerView.layoutManager = LinearLayoutManager(this)
         binding.disconnect.visibility = disconnectButtonState
         binding.joinRoom.joinRoomLayout.visibility = joinRoomLayoutState
         binding.joinStatusLayout.visibility = joinStatusLayoutState
@@ -419,13 +580,18 @@ class RoomActivity : BaseActivity() {
         binding.joinStatus.text = joinStatus
         binding.joinRoomName.text = roomName
         binding.recordingNotice.visibility = recordingWarningVisibility
-        val pauseAudioTitle = getString(if (roomViewState.isAudioEnabled) R.string.pause_audio else R.string.resume_audio)
-        val pauseVideoTitle = getString(if (roomViewState.isVideoEnabled) R.string.pause_video else R.string.resume_video)
-        pauseAudioMenuItem.title = pauseAudioTitle
-        pauseVideoMenuItem.title = pauseVideoTitle
+        binding.lobbyToolbar.visibility = if (isInPictureInPicture) View.GONE else View.VISIBLE
+        binding.mediaControls.visibility = if (isInPictureInPicture) View.GONE else View.VISIBLE
 
         // TODO: Remove when we use a Service to obtainTokenAndConnect to a room
         settingsMenuItem.isVisible = settingsMenuItemState
+        val isConnected = roomViewState.configuration is RoomViewConfiguration.Connected
+        if (!isConnected && searchParticipantsMenuItem.isActionViewExpanded) {
+            searchParticipantsMenuItem.collapseActionView()
+        }
+        searchParticipantsMenuItem.isVisible = isConnected
+        gridLayoutMenuItem.isVisible = isConnected
+        gridLayoutMenuItem.isChecked = roomViewState.isGridLayout
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             screenCaptureMenuItem.isVisible = screenCaptureMenuItemState
             val screenCaptureResources = if (roomViewState.isScreenCaptureOn) {
@@ -439,6 +605,22 @@ class RoomActivity : BaseActivity() {
         }
     }
 
+    private fun updateLocalMediaControls(roomViewState: RoomViewState) {
+        val isMicEnabled = roomViewState.isMicEnabled
+        val isCameraEnabled = roomViewState.isCameraEnabled
+        val isLocalMediaEnabled = isMicEnabled && isCameraEnabled
+        binding.localAudio.isEnabled = isLocalMediaEnabled
+        binding.localVideo.isEnabled = isLocalMediaEnabled
+        val micDrawable = if (roomViewState.isAudioMuted || !isLocalMediaEnabled) R.drawable.ic_mic_off_gray_24px else R.drawable.ic_mic_white_24px
+        val videoDrawable = if (roomViewState.isVideoOff || !isLocalMediaEnabled) R.drawable.ic_videocam_off_gray_24px else R.drawable.ic_videocam_white_24px
+        binding.localAudio.setImageResource(micDrawable)
+        binding.localVideo.setImageResource(videoDrawable)
+        val pauseAudioTitle = getString(if (roomViewState.isAudioEnabled) R.string.pause_audio else R.string.resume_audio)
+        val pauseVideoTitle = getString(if (roomViewState.isVideoEnabled) R.string.pause_video else R.string.resume_video)
+        pauseAudioMenuItem.title = pauseAudioTitle
+        pauseVideoMenuItem.title = pauseVideoTitle
+    }
+
     private fun setTitle(toolbarTitle: String?) {
         val actionBar = supportActionBar
         if (actionBar != null) {
@@ -468,12 +650,14 @@ class RoomActivity : BaseActivity() {
     }
 
     private fun updateStatsUI(roomViewState: RoomViewState) {
-        val enableStats = sharedPreferences.getBoolean(
-                Preferences.ENABLE_STATS, Preferences.ENABLE_STATS_DEFAULT)
-        if (enableStats) {
+        if (isStatsEnabled) {
             when (roomViewState.configuration) {
                 RoomViewConfiguration.Connected -> {
                     statsListAdapter.updateStatsData(roomViewState.roomStats)
+                    // Log render metrics next to the stats they were sampled with
+                    if (videoSinkManager.isMetricsOverlayEnabled) {
+                        Timber.d("Sink metrics: %s", videoSinkManager.sinkMetrics())
+                    }
                     binding.statsRecyclerView.visibility = View.VISIBLE
                     binding.statsDisabled.visibility = View.GONE
 
@@ -509,21 +693,21 @@ class RoomActivity : BaseActivity() {
         roomViewModel.processInput(viewEvent)
     }
 
-    private fun bindRoomViewState(roomViewState: RoomViewState) {
-        deviceMenuItem.isVisible = roomViewState.availableAudioDevices?.isNotEmpty() ?: false
-        renderPrimaryView(roomViewState.primaryParticipant)
-        renderThumbnails(roomViewState)
-        updateLayout(roomViewState)
-        updateAudioDeviceIcon(roomViewState.selectedDevice)
-        updateStatsUI(roomViewState)
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal fun bindRoomViewState(roomViewState: RoomViewState) {
+        roomViewStateRenderer.render(roomViewState)
     }
 
     private fun bindRoomViewEffects(roomViewEffect: RoomViewEffect) {
         when (roomViewEffect) {
             is Connected -> {
                 toggleAudioDevice(true)
+                participantViewPool.resetCounts()
+                joinBurstMonitor.start()
             }
             Disconnected -> {
+                participantViewPool.prewarm()
+                frameSnapshotCache.clear()
                 localParticipantSid = LOCAL_PARTICIPANT_STUB_SID
                 // TODO Update stats
                 toggleAudioDevice(false)
@@ -552,8 +736,9 @@ class RoomActivity : BaseActivity() {
                     }
             )
 
-    private fun updateAudioDeviceIcon(selectedAudioDevice: AudioDevice?) {
-        val audioDeviceMenuIcon = when (selectedAudioDevice) {
+    private fun updateAudioDevice(roomViewState: RoomViewState) {
+        deviceMenuItem.isVisible = roomViewState.availableAudioDevices?.isNotEmpty() ?: false
+        val audioDeviceMenuIcon = when (roomViewState.selectedDevice) {
             is BluetoothHeadset -> R.drawable.ic_bluetooth_white_24dp
             is WiredHeadset -> R.drawable.ic_headset_mic_white_24dp
             is Speakerphone -> R.drawable.ic_volume_up_white_24dp
@@ -569,17 +754,42 @@ class RoomActivity : BaseActivity() {
                     screenTrack,
                     videoTrack,
                     isMuted,
-                    isMirrored)
-            binding.room.primaryVideo.showIdentityBadge(!primaryParticipant.isLocalParticipant)
+                    isMirrored,
+                    !isLocalParticipant)
         }
     }
 
     private fun renderThumbnails(roomViewState: RoomViewState) {
-        val newThumbnails = if (roomViewState.configuration is RoomViewConfiguration.Connected)
-            roomViewState.participantThumbnails else null
+        val thumbnails = roomViewState.participantThumbnails
+        val newThumbnails = when (roomViewState.configuration) {
+            RoomViewConfiguration.Connected -> thumbnails.takeUnless {
+                roomViewState.isGridLayout || isInPictureInPicture
+            }
+            // Show cached roster placeholders while connecting
+            RoomViewConfiguration.Connecting ->
+                thumbnails?.takeIf { it.any { participant -> !participant.isLocalParticipant } }
+            Lobby -> null
+        }
         participantAdapter.submitList(newThumbnails)
     }
 
+    private fun renderGrid(roomViewState: RoomViewState) {
+        val participantGrid = binding.room.participantGrid
+        val isGridShown = roomViewState.isGridLayout && !isInPictureInPicture &&
+                roomViewState.configuration is RoomViewConfiguration.Connected
+        participantGrid.visibility = if (isGridShown) View.VISIBLE else View.GONE
+        binding.room.primaryVideo.visibility = if (isGridShown) View.GONE else View.VISIBLE
+        val participants = roomViewState.participantThumbnails?.takeIf { isGridShown }
+
+        // The grid is sized once it has been laid out
+        val gridSpec = participants?.takeIf { participantGrid.width > 0 }?.let {
+            GridLayoutPolicy.gridSpec(it.size, participantGrid.width, participantGrid.height)
+        }
+        gridSpec?.let { (participantGrid.layoutManager as GridLayoutManager).spanCount = it.columns }
+        participantGridAdapter.gridSpec = gridSpec
+        participantGridAdapter.submitList(participants)
+    }
+
     private fun displayAudioDeviceList() {
         (roomViewModel.getCurrentState() as RoomViewState).let { viewState ->
             val selectedDevice = viewState.selectedDevice
@@ -631,6 +841,8 @@ class RoomActivity : BaseActivity() {
     companion object {
         private const val PERMISSIONS_REQUEST_CODE = 100
         private const val MEDIA_PROJECTION_REQUEST_CODE = 101
+        private const val PARTICIPANT_THUMBNAIL_POOL_SIZE = 6
+        private const val PARTICIPANT_GRID_MAX_TILES = 16
 
         // This will be used instead of real local participant sid,
         // because that information is unknown until room connection is fully established
@@ -29,6 +29,11 @@ sealed class RoomEvent {
         data class RemoteParticipantConnected(val participant: Participant) : RemoteParticipantEvent()
         data class VideoTrackUpdated(val sid: String, val videoTrack: VideoTrack?) : RemoteParticipantEvent()
         data class TrackSwitchOff(val sid: String, val videoTrack: VideoTrack, val switchOff: Boolean) : RemoteParticipantEvent()
+        data class VideoTrackEnabledChanged(
+            val sid: String,
+            val videoTrack: VideoTrack,
+            val isEnabled: Boolean
+        ) : RemoteParticipantEvent()
         data class ScreenTrackUpdated(
             val sid: String,
             val screenTrack: VideoTrack?
@@ -20,6 +20,9 @@ sealed class RoomViewEvent {
     object DeactivateAudioDevice : RoomViewEvent()
     data class Connect(val identity: String, val roomName: String) : RoomViewEvent()
     data class PinParticipant(val sid: String) : RoomViewEvent()
+    data class FilterParticipants(val filter: String?) : RoomViewEvent()
+    object ToggleGridLayout : RoomViewEvent()
+    data class PictureInPictureModeChanged(val isInPictureInPicture: Boolean) : RoomViewEvent()
     data class VideoTrackRemoved(val sid: String) : RoomViewEvent()
     data class ScreenTrackRemoved(val sid: String) : RoomViewEvent()
     object Disconnect : RoomViewEvent()
@@ -10,6 +10,8 @@ import androidx.lifecycle.viewModelScope
 import com.twilio.audioswitch.AudioSwitch
 import com.twilio.video.Participant
 import com.twilio.video.app.participant.ParticipantManager
+import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.participant.RosterCache
 import com.twilio.video.app.participant.buildParticipantViewState
 import com.twilio.video.app.sdk.RoomManager
 import com.twilio.video.app.sdk.VideoTrackViewState
@@ -37,6 +39,7 @@ import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParti
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantDisconnected
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackEnabledChanged
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
 import com.twilio.video.app.ui.room.RoomEvent.StatsUpdate
 import com.twilio.video.app.ui.room.RoomEvent.TokenError
@@ -53,14 +56,17 @@ import com.twilio.video.app.ui.room.RoomViewEvent.DisableLocalVideo
 import com.twilio.video.app.ui.room.RoomViewEvent.Disconnect
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalVideo
+import com.twilio.video.app.ui.room.RoomViewEvent.FilterParticipants
 import com.twilio.video.app.ui.room.RoomViewEvent.OnPause
 import com.twilio.video.app.ui.room.RoomViewEvent.OnResume
+import com.twilio.video.app.ui.room.RoomViewEvent.PictureInPictureModeChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.PinParticipant
 import com.twilio.video.app.ui.room.RoomViewEvent.ScreenTrackRemoved
 import com.twilio.video.app.ui.room.RoomViewEvent.SelectAudioDevice
 import com.twilio.video.app.ui.room.RoomViewEvent.StartScreenCapture
 import com.twilio.video.app.ui.room.RoomViewEvent.StopScreenCapture
 import com.twilio.video.app.ui.room.RoomViewEvent.SwitchCamera
+import com.twilio.video.app.ui.room.RoomViewEvent.ToggleGridLayout
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalVideo
 import com.twilio.video.app.ui.room.RoomViewEvent.VideoTrackRemoved
@@ -68,6 +74,7 @@ import com.twilio.video.app.util.PermissionUtil
 import io.uniflow.androidx.flow.AndroidDataFlow
 import io.uniflow.core.flow.actionOn
 import io.uniflow.core.flow.data.UIState
+import java.util.concurrent.TimeUnit
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.flow.collect
 import kotlinx.coroutines.launch
@@ -78,10 +85,13 @@ class RoomViewModel(
     private val audioSwitch: AudioSwitch,
     private val permissionUtil: PermissionUtil,
     private val participantManager: ParticipantManager = ParticipantManager(),
+    private val rosterCache: RosterCache = RosterCache(),
     initialViewState: RoomViewState = RoomViewState(participantManager.primaryParticipant)
 ) : AndroidDataFlow(defaultState = initialViewState) {
 
     private var permissionCheckRetry = false
+    private var connectedRoomName: String? = null
+    private var connectStartNanos = 0L
     @VisibleForTesting(otherwise = PRIVATE)
     internal var roomManagerJob: Job? = null
 
@@ -103,6 +113,7 @@ class RoomViewModel(
     @VisibleForTesting(otherwise = PROTECTED)
     public override fun onCleared() {
         super.onCleared()
+        connectedRoomName?.let { rosterCache.persist(it) }
         audioSwitch.stop()
         roomManagerJob?.cancel()
     }
@@ -119,12 +130,30 @@ class RoomViewModel(
             ActivateAudioDevice -> { audioSwitch.activate() }
             DeactivateAudioDevice -> { audioSwitch.deactivate() }
             is Connect -> {
+                showCachedRoster(viewEvent.roomName)
                 connect(viewEvent.identity, viewEvent.roomName)
             }
             is PinParticipant -> {
                 participantManager.changePinnedParticipant(viewEvent.sid)
                 updateParticipantViewState()
             }
+            is FilterParticipants -> {
+                participantManager.filterParticipants(viewEvent.filter)
+                updateParticipantViewState()
+            }
+            ToggleGridLayout -> setState {
+                // Grid tiles requested their own priorities, restore the ones of the strip
+                if (it.isGridLayout) participantManager.restoreTrackPriorities()
+                it.copy(isGridLayout = !it.isGridLayout)
+            }
+            is PictureInPictureModeChanged -> {
+                // Only the primary participant is shown in picture-in-picture
+                if (viewEvent.isInPictureInPicture) {
+                    participantManager.deprioritizeThumbnails()
+                } else {
+                    participantManager.restoreTrackPriorities()
+                }
+            }
             ToggleLocalVideo -> roomManager.toggleLocalVideo()
             EnableLocalVideo -> roomManager.enableLocalVideo()
             DisableLocalVideo -> roomManager.disableLocalVideo()
@@ -184,6 +213,7 @@ class RoomViewModel(
                 showConnectingViewState()
             }
             is Connected -> {
+                connectedRoomName = roomEvent.roomName
                 showConnectedViewState(roomEvent.roomName)
                 checkParticipants(roomEvent.participants)
                 action { sendEvent { RoomViewEffect.Connected(roomEvent.room) } }
@@ -231,6 +261,11 @@ class RoomViewModel(
                                 remoteParticipantEvent.switchOff))
                 updateParticipantViewState()
             }
+            is VideoTrackEnabledChanged -> {
+                participantManager.updateVideoTrackEnabled(remoteParticipantEvent.sid,
+                        remoteParticipantEvent.videoTrack, remoteParticipantEvent.isEnabled)
+                updateParticipantViewState()
+            }
             is ScreenTrackUpdated -> {
                 participantManager.updateParticipantScreenTrack(remoteParticipantEvent.sid,
                         remoteParticipantEvent.screenTrack?.let { VideoTrackViewState(it) })
@@ -267,8 +302,16 @@ class RoomViewModel(
             AudioDisabled -> setState { it.copy(isAudioEnabled = false) }
             ScreenCaptureOn -> setState { it.copy(isScreenCaptureOn = true) }
             ScreenCaptureOff -> setState { it.copy(isScreenCaptureOn = false) }
-            VideoEnabled -> setState { it.copy(isVideoEnabled = true) }
-            VideoDisabled -> setState { it.copy(isVideoEnabled = false) }
+            VideoEnabled -> {
+                participantManager.updateLocalParticipantVideoTrackEnabled(true)
+                updateParticipantViewState()
+                setState { it.copy(isVideoEnabled = true) }
+            }
+            VideoDisabled -> {
+                participantManager.updateLocalParticipantVideoTrackEnabled(false)
+                updateParticipantViewState()
+                setState { it.copy(isVideoEnabled = false) }
+            }
         }
     }
 
@@ -279,6 +322,8 @@ class RoomViewModel(
     }
 
     private fun showLobbyViewState() {
+        connectedRoomName?.let { rosterCache.persist(it) }
+        connectedRoomName = null
         action { sendEvent { RoomViewEffect.Disconnected } }
         setState {
             it.copy(configuration = Lobby)
@@ -300,17 +345,37 @@ class RoomViewModel(
     }
 
     private fun checkParticipants(participants: List<Participant>) {
+        val remoteParticipants = mutableListOf<ParticipantViewState>()
         for ((index, participant) in participants.withIndex()) {
             if (index == 0) { // local participant
                 participantManager.updateLocalParticipantSid(participant.sid)
             } else {
-                participantManager.addParticipant(buildParticipantViewState(participant))
+                remoteParticipants.add(buildParticipantViewState(participant))
             }
         }
+        participantManager.reconcileParticipants(remoteParticipants)
         updateParticipantViewState()
+        Timber.d("Full roster of %d remote participants shown %d ms after connecting",
+                remoteParticipants.size,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStartNanos))
+    }
+
+    /*
+     * Renders placeholders for the last known roster of the room while the connection is in
+     * progress. The placeholders are reconciled with the actual participants once connected.
+     */
+    private fun showCachedRoster(roomName: String) {
+        connectStartNanos = System.nanoTime()
+        rosterCache.get(roomName)?.takeIf { it.isNotEmpty() }?.let { roster ->
+            roster.forEach { participantManager.addParticipant(it.toParticipantViewState()) }
+            updateParticipantViewState()
+            Timber.d("Showing %d cached participants for room %s", roster.size, roomName)
+        }
     }
 
     private fun updateParticipantViewState() {
+        // Cache the whole roster, the search filter only applies to what is displayed
+        connectedRoomName?.let { rosterCache.update(it, participantManager.participants) }
         setState {
             it.copy(
                     participantThumbnails = participantManager.participantThumbnails,
@@ -333,11 +398,13 @@ class RoomViewModel(
     class RoomViewModelFactory(
         private val roomManager: RoomManager,
         private val audioDeviceSelector: AudioSwitch,
-        private val permissionUtil: PermissionUtil
+        private val permissionUtil: PermissionUtil,
+        private val rosterCache: RosterCache
     ) : ViewModelProvider.Factory {
 
         override fun <T : ViewModel> create(modelClass: Class<T>): T {
-            return RoomViewModel(roomManager, audioDeviceSelector, permissionUtil) as T
+            return RoomViewModel(roomManager, audioDeviceSelector, permissionUtil,
+                    rosterCache = rosterCache) as T
         }
     }
 }
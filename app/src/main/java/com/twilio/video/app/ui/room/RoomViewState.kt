@@ -23,6 +23,7 @@ data class RoomViewState(
     val isVideoOff: Boolean = false,
     val isScreenCaptureOn: Boolean = false,
     val isRecording: Boolean = false,
+    val isGridLayout: Boolean = false,
     val roomStats: RoomStats? = null
 ) : UIState()
 
@@ -0,0 +1,51 @@
+package com.twilio.video.app.ui.room
+
+import androidx.annotation.VisibleForTesting
+import com.twilio.video.app.participant.ParticipantViewState
+
+/*
+ * The slices RoomActivity renders its view state in. Each slice selects the parts of the view
+ * state, and of the activity state outside of it such as picture-in-picture, that its views
+ * depend on, so a change only rebinds the views that show it.
+ */
+internal class RoomViewStateRenderer(
+    isInPictureInPicture: () -> Boolean,
+    isStatsEnabled: () -> Boolean,
+    updateLayout: (RoomViewState) -> Unit,
+    updateLocalMediaControls: (RoomViewState) -> Unit,
+    updateAudioDevice: (RoomViewState) -> Unit,
+    renderThumbnails: (RoomViewState) -> Unit,
+    renderGrid: (RoomViewState) -> Unit,
+    renderPrimaryView: (ParticipantViewState) -> Unit,
+    updateStatsUI: (RoomViewState) -> Unit
+) {
+
+    private val renderer = ViewStateRenderer<RoomViewState>()
+    @VisibleForTesting
+    internal val layoutSlice = renderer.slice({ listOf(isInPictureInPicture(), it.configuration,
+            it.title, it.isRecording, it.isScreenCaptureOn, it.isGridLayout) }, updateLayout)
+    @VisibleForTesting
+    internal val localMediaSlice = renderer.slice({ listOf(it.isMicEnabled, it.isCameraEnabled,
+            it.isAudioMuted, it.isVideoOff, it.isAudioEnabled, it.isVideoEnabled) },
+            updateLocalMediaControls)
+    @VisibleForTesting
+    internal val audioDeviceSlice = renderer.slice({ listOf(it.selectedDevice,
+            it.availableAudioDevices) }, updateAudioDevice)
+    @VisibleForTesting
+    internal val thumbnailSlice = renderer.slice({ listOf(isInPictureInPicture(),
+            it.configuration, it.isGridLayout, it.participantThumbnails) }, renderThumbnails)
+    @VisibleForTesting
+    internal val gridSlice = renderer.slice({ listOf(isInPictureInPicture(), it.configuration,
+            it.isGridLayout, it.participantThumbnails) }, renderGrid)
+    @VisibleForTesting
+    internal val primarySlice = renderer.slice({ it.primaryParticipant }) {
+        renderPrimaryView(it.primaryParticipant)
+    }
+    @VisibleForTesting
+    internal val statsSlice = renderer.slice({ listOf(isStatsEnabled(), it.configuration,
+            it.roomStats, (it.participantThumbnails?.size ?: 0) > 1) }, updateStatsUI)
+
+    fun render(roomViewState: RoomViewState) = renderer.render(roomViewState)
+
+    fun invalidate() = renderer.invalidate()
+}
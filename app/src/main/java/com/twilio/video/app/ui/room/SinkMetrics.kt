@@ -0,0 +1,110 @@
+package com.twilio.video.app.ui.room
+
+import java.util.concurrent.TimeUnit
+import kotlin.math.max
+
+private val GAP_BUCKET_NS = TimeUnit.MILLISECONDS.toNanos(5)
+private const val GAP_BUCKETS = 400
+private val MIN_FREEZE_GAP_NS = TimeUnit.MILLISECONDS.toNanos(150)
+
+/*
+ * A point in time view of the rendering metrics of a sink.
+ */
+data class SinkMetricsSnapshot(
+    val framesReceived: Long,
+    val framesRendered: Long,
+    val framesDropped: Long,
+    val maxFrameGapMs: Long,
+    val p95FrameGapMs: Long,
+    val timeSinceLastFrameMs: Long?,
+    val freezeCount: Int,
+    val isFrozen: Boolean
+) {
+    override fun toString() = "in $framesReceived, rendered $framesRendered, " +
+            "dropped $framesDropped, max gap $maxFrameGapMs ms, p95 gap $p95FrameGapMs ms, " +
+            "last frame ${timeSinceLastFrameMs ?: "-"} ms ago, freezes $freezeCount" +
+            if (isFrozen) ", frozen" else ""
+
+    fun toOverlayText() = "in $framesReceived rendered $framesRendered dropped $framesDropped\n" +
+            "gap max $maxFrameGapMs p95 $p95FrameGapMs ms\n" +
+            "last ${timeSinceLastFrameMs ?: "-"} ms freezes $freezeCount" +
+            if (isFrozen) " FROZEN" else ""
+}
+
+/*
+ * Lightweight rendering counters of a video sink. Frames are recorded on the renderer thread
+ * and snapshots taken from any thread. Inter-frame gaps are kept in a fixed histogram of 5 ms
+ * buckets so percentiles cost no allocation per frame.
+ *
+ * A freeze follows the definition used by WebRTC: a gap between frames longer than three times
+ * the average gap, and at least 150 ms longer than it.
+ */
+class SinkMetrics @JvmOverloads constructor(private val clock: () -> Long = System::nanoTime) {
+
+    private var framesReceived = 0L
+    private var framesRendered = 0L
+    private var maxFrameGapNs = 0L
+    private var totalFrameGapNs = 0L
+    private var lastFrameNs = 0L
+    private var freezeCount = 0
+    private val frameGapHistogram = IntArray(GAP_BUCKETS)
+
+    @Synchronized
+    fun onFrame(rendered: Boolean) {
+        val now = clock()
+        if (framesReceived > 0) {
+            val frameGapNs = now - lastFrameNs
+            if (isFreeze(frameGapNs)) freezeCount++
+            maxFrameGapNs = max(maxFrameGapNs, frameGapNs)
+            totalFrameGapNs += frameGapNs
+            frameGapHistogram[(frameGapNs / GAP_BUCKET_NS).toInt().coerceIn(0, GAP_BUCKETS - 1)]++
+        }
+        lastFrameNs = now
+        framesReceived++
+        if (rendered) framesRendered++
+    }
+
+    @Synchronized
+    fun snapshot(): SinkMetricsSnapshot {
+        val timeSinceLastFrameNs = if (framesReceived > 0) clock() - lastFrameNs else null
+        return SinkMetricsSnapshot(
+                framesReceived,
+                framesRendered,
+                framesReceived - framesRendered,
+                TimeUnit.NANOSECONDS.toMillis(maxFrameGapNs),
+                TimeUnit.NANOSECONDS.toMillis(frameGapPercentileNs(95)),
+                timeSinceLastFrameNs?.let { TimeUnit.NANOSECONDS.toMillis(it) },
+                freezeCount,
+                timeSinceLastFrameNs?.let { isFreeze(it) } ?: false)
+    }
+
+    @Synchronized
+    fun reset() {
+        framesReceived = 0
+        framesRendered = 0
+        maxFrameGapNs = 0
+        totalFrameGapNs = 0
+        lastFrameNs = 0
+        freezeCount = 0
+        frameGapHistogram.fill(0)
+    }
+
+    private fun isFreeze(frameGapNs: Long): Boolean {
+        if (framesReceived < 2) return false
+        val averageFrameGapNs = totalFrameGapNs / (framesReceived - 1)
+        return frameGapNs > 3 * averageFrameGapNs &&
+                frameGapNs > averageFrameGapNs + MIN_FREEZE_GAP_NS
+    }
+
+    private fun frameGapPercentileNs(percentile: Int): Long {
+        val frameGaps = framesReceived - 1
+        if (frameGaps <= 0) return 0
+        val rank = (frameGaps * percentile + 99) / 100
+        var count = 0L
+        frameGapHistogram.forEachIndexed { bucket, bucketCount ->
+            count += bucketCount
+            if (count >= rank) return (bucket + 1) * GAP_BUCKET_NS
+        }
+        return maxFrameGapNs
+    }
+}
@@ -0,0 +1,51 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.VideoTrack
+import java.util.WeakHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/*
+ * Process wide registry of the participant views attached as sinks to video tracks. Tracks are
+ * owned by the application scoped RoomManager and outlive the activities rendering them, so a
+ * sink that is never removed keeps its view, and with it the whole activity, reachable for as
+ * long as the track lives. Every VideoSinkManager registers the sinks it attaches under its own
+ * owner id and releases them when its lifecycle is destroyed.
+ */
+internal object SinkRegistry {
+
+    private class Registration(val videoTrack: VideoTrack, val ownerId: Int)
+
+    private val nextOwnerId = AtomicInteger()
+    private val registrations = WeakHashMap<ParticipantView, Registration>()
+
+    val liveSinkCount: Int @Synchronized get() = registrations.size
+
+    fun newOwnerId() = nextOwnerId.incrementAndGet()
+
+    @Synchronized
+    fun liveSinkCount(ownerId: Int) = registrations.values.count { it.ownerId == ownerId }
+
+    @Synchronized
+    fun register(view: ParticipantView, videoTrack: VideoTrack, ownerId: Int) {
+        registrations[view] = Registration(videoTrack, ownerId)
+    }
+
+    @Synchronized
+    fun unregister(view: ParticipantView) {
+        registrations.remove(view)
+    }
+
+    /*
+     * Removes every sink still registered to the owner from its track and returns the views that
+     * were removed this way.
+     */
+    @Synchronized
+    fun release(ownerId: Int): List<ParticipantView> {
+        val leakedViews = registrations.filterValues { it.ownerId == ownerId }
+        leakedViews.forEach { (view, registration) ->
+            registration.videoTrack.removeSink(view)
+            registrations.remove(view)
+        }
+        return leakedViews.keys.toList()
+    }
+}
@@ -0,0 +1,245 @@
+package com.twilio.video.app.ui.room
+
+import android.os.Handler
+import android.os.Looper
+import android.view.View
+import android.view.ViewTreeObserver
+import androidx.core.view.ViewCompat
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleEventObserver
+import androidx.lifecycle.LifecycleOwner
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.TrackPriority
+import com.twilio.video.VideoTrack
+import com.twilio.video.app.BuildConfig
+import com.twilio.video.app.sdk.RenderDimensionsTracker
+import timber.log.Timber
+
+private const val RENDER_SIZE_REPORT_DELAY_MS = 500L
+
+/*
+ * Attaches participant views as sinks of their video tracks only while the pixels can actually
+ * be seen: the view is attached to a window, is shown and the hosting lifecycle is at least
+ * started. Views are bound to the track they should render and the manager adds or removes the
+ * underlying sink as those conditions change. Live sinks are counted per track.
+ *
+ * The sizes remote tracks are rendered at are reported to the RenderDimensionsTracker once
+ * layout has settled. The rendering metrics of every live sink can be queried per track and
+ * optionally shown on top of the bound views.
+ *
+ * Once the lifecycle is destroyed every binding is released and all sinks registered by this
+ * manager in the SinkRegistry are removed from their tracks. Debug builds report any sink that
+ * had to be removed this way, or that is still attached to a track after release, as a leak.
+ */
+internal class VideoSinkManager(
+    private val lifecycle: Lifecycle,
+    private val renderDimensionsTracker: RenderDimensionsTracker? = null
+) : LifecycleEventObserver {
+
+    private val bindings = HashMap<ParticipantView, Binding>()
+    private val liveSinks = HashMap<VideoTrack, MutableSet<ParticipantView>>()
+    private var isStarted = lifecycle.currentState.isAtLeast(Lifecycle.State.STARTED)
+    private val renderSizeHandler by lazy { Handler(Looper.getMainLooper()) }
+    private val renderSizeReport = Runnable { reportRenderSizes() }
+    private val ownerId = SinkRegistry.newOwnerId()
+    private var isDestroyed = false
+
+    init {
+        lifecycle.addObserver(this)
+    }
+
+    val liveSinkCount: Int get() = liveSinks.values.sumBy { it.size }
+
+    fun liveSinkCount(videoTrack: VideoTrack) = liveSinks[videoTrack]?.size ?: 0
+
+    var isMetricsOverlayEnabled = false
+        set(value) {
+            field = value
+            bindings.keys.forEach { it.setShowMetrics(value) }
+        }
+
+    fun sinkMetrics(videoTrack: VideoTrack): List<SinkMetricsSnapshot> =
+            liveSinks[videoTrack]?.map { it.sinkMetrics.snapshot() } ?: emptyList()
+
+    fun sinkMetrics(): Map<String, List<SinkMetricsSnapshot>> =
+            liveSinks.entries.associate { (videoTrack, views) ->
+                videoTrack.name to views.map { it.sinkMetrics.snapshot() }
+            }
+
+    /*
+     * Binds the view to the provided video track, replacing any previously bound track. A null
+     * track unbinds the view.
+     */
+    fun bind(view: ParticipantView, videoTrack: VideoTrack?) {
+        if (isDestroyed) {
+            Timber.w("Ignoring bind of %s after the lifecycle was destroyed", videoTrack?.name)
+            return
+        }
+        val binding = bindings[view]
+        if (binding?.videoTrack === videoTrack) {
+            update(view)
+            return
+        }
+        binding?.let { detachSink(view, it) }
+        if (videoTrack == null) {
+            unbind(view)
+            return
+        }
+        bindings[view]?.let { it.videoTrack = videoTrack } ?: run {
+            bindings[view] = Binding(view, videoTrack)
+            view.setShowMetrics(isMetricsOverlayEnabled)
+        }
+        update(view)
+    }
+
+    fun unbind(view: ParticipantView) {
+        bindings.remove(view)?.let { binding ->
+            detachSink(view, binding)
+            binding.release()
+            view.setShowMetrics(false)
+        }
+    }
+
+    override fun onStateChanged(source: LifecycleOwner, event: Lifecycle.Event) {
+        when (event) {
+            Lifecycle.Event.ON_START -> {
+                isStarted = true
+                updateAll()
+            }
+            Lifecycle.Event.ON_STOP -> {
+                isStarted = false
+                updateAll()
+            }
+            Lifecycle.Event.ON_DESTROY -> release()
+            else -> {}
+        }
+    }
+
+    private fun release() {
+        isDestroyed = true
+        lifecycle.removeObserver(this)
+        if (renderDimensionsTracker != null) renderSizeHandler.removeCallbacks(renderSizeReport)
+
+        val boundSinks = bindings.map { (view, binding) -> view to binding.videoTrack }
+        bindings.keys.toList().forEach { unbind(it) }
+
+        val leakedViews = SinkRegistry.release(ownerId).toMutableSet()
+        boundSinks.forEach { (view, videoTrack) ->
+            if (videoTrack.sinks.contains(view)) {
+                videoTrack.removeSink(view)
+                leakedViews.add(view)
+            }
+        }
+        if (BuildConfig.DEBUG) {
+            leakedViews.forEach { view ->
+                Timber.e("Leaked video sink %s of %s", view, view.identity)
+            }
+        }
+        Timber.d("Released %d video sink bindings, %d live sinks remain in the process",
+                boundSinks.size, SinkRegistry.liveSinkCount)
+    }
+
+    private fun updateAll() = bindings.keys.toList().forEach { update(it) }
+
+    private fun update(view: ParticipantView) {
+        val binding = bindings[view] ?: return
+        val isVisible = isStarted && ViewCompat.isAttachedToWindow(view) && view.isShown
+        if (isVisible == binding.isSinkAttached) return
+        if (isVisible) attachSink(view, binding) else detachSink(view, binding)
+    }
+
+    private fun attachSink(view: ParticipantView, binding: Binding) {
+        binding.videoTrack.addSink(view)
+        binding.isSinkAttached = true
+        SinkRegistry.register(view, binding.videoTrack, ownerId)
+        liveSinks.getOrPut(binding.videoTrack) { HashSet(1) }.add(view)
+        scheduleRenderSizeReport()
+        Timber.v("Attached sink to %s, %d live sinks", binding.videoTrack.name, liveSinkCount)
+    }
+
+    private fun detachSink(view: ParticipantView, binding: Binding) {
+        if (!binding.isSinkAttached) return
+        if (binding.videoTrack.sinks.contains(view)) binding.videoTrack.removeSink(view)
+        binding.isSinkAttached = false
+        SinkRegistry.unregister(view)
+        binding.reportedSize = 0L
+        (binding.videoTrack as? RemoteVideoTrack)?.let { videoTrack ->
+            renderDimensionsTracker?.onTrackHidden(videoTrack.sid)
+        }
+        liveSinks[binding.videoTrack]?.let { sinks ->
+            sinks.remove(view)
+            if (sinks.isEmpty()) liveSinks.remove(binding.videoTrack)
+        }
+        Timber.d("Detached sink from %s, %s, %d live sinks", binding.videoTrack.name,
+                view.sinkMetrics.snapshot(), liveSinkCount)
+        view.frameRateLimiter.resetCounts()
+        view.sinkMetrics.reset()
+    }
+
+    private fun scheduleRenderSizeReport() {
+        if (renderDimensionsTracker == null) return
+        renderSizeHandler.removeCallbacks(renderSizeReport)
+        renderSizeHandler.postDelayed(renderSizeReport, RENDER_SIZE_REPORT_DELAY_MS)
+    }
+
+    private fun reportRenderSizes() {
+        bindings.forEach { (view, binding) ->
+            val videoTrack = binding.videoTrack as? RemoteVideoTrack ?: return@forEach
+            val size = view.width.toLong() shl 32 or view.height.toLong()
+            if (!binding.isSinkAttached || binding.reportedSize == size) return@forEach
+            binding.reportedSize = size
+            // Grid tiles request their tracks at the priority of the grid
+            val priority = videoTrack.priority ?: when (view.frameRateLimiter.role) {
+                VideoViewRole.PRIMARY, VideoViewRole.PICTURE_IN_PICTURE -> TrackPriority.HIGH
+                else -> TrackPriority.LOW
+            }
+            renderDimensionsTracker?.onTrackRendered(videoTrack.sid, priority, view.width,
+                    view.height)
+        }
+    }
+
+    private inner class Binding(
+        private val view: ParticipantView,
+        var videoTrack: VideoTrack
+    ) : View.OnAttachStateChangeListener, ViewTreeObserver.OnGlobalLayoutListener {
+        var isSinkAttached = false
+        var reportedSize = 0L
+        private var viewTreeObserver: ViewTreeObserver? = null
+
+        init {
+            view.addOnAttachStateChangeListener(this)
+            if (ViewCompat.isAttachedToWindow(view)) observeLayout()
+        }
+
+        override fun onViewAttachedToWindow(view: View) {
+            observeLayout()
+            update(this.view)
+        }
+
+        override fun onViewDetachedFromWindow(view: View) {
+            stopObservingLayout()
+            update(this.view)
+        }
+
+        // Visibility and size changes of the view or any of its parents result in a layout pass
+        override fun onGlobalLayout() {
+            update(view)
+            if (isSinkAttached) scheduleRenderSizeReport()
+        }
+
+        fun release() {
+            view.removeOnAttachStateChangeListener(this)
+            stopObservingLayout()
+        }
+
+        private fun observeLayout() {
+            stopObservingLayout()
+            viewTreeObserver = view.viewTreeObserver.also { it.addOnGlobalLayoutListener(this) }
+        }
+
+        private fun stopObservingLayout() {
+            viewTreeObserver?.takeIf { it.isAlive }?.removeOnGlobalLayoutListener(this)
+            viewTreeObserver = null
+        }
+    }
+}
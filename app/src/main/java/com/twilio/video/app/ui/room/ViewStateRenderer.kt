@@ -0,0 +1,49 @@
+package com.twilio.video.app.ui.room
+
+import androidx.annotation.VisibleForTesting
+
+/*
+ * Splits the rendering of a view state into independent slices. Each slice only renders when
+ * the key selected from the incoming state differs from the last rendered key, the equivalent
+ * of distinctUntilChanged applied per slice.
+ */
+internal class ViewStateRenderer<S> {
+
+    private val slices = mutableListOf<SliceRenderer<S>>()
+
+    fun slice(selector: (S) -> Any?, render: (S) -> Unit): SliceRenderer<S> =
+            SliceRenderer(selector, render).also { slices.add(it) }
+
+    fun render(state: S) = slices.forEach { it.render(state) }
+
+    /*
+     * Forces every slice to render on the next state, for example after inputs outside of the
+     * view state such as preferences have changed.
+     */
+    fun invalidate() = slices.forEach { it.invalidate() }
+}
+
+internal class SliceRenderer<S>(
+    private val selector: (S) -> Any?,
+    private val render: (S) -> Unit
+) {
+    private var lastKey: Any? = Unset
+
+    @VisibleForTesting
+    internal var renderCount = 0
+        private set
+
+    fun render(state: S) {
+        val key = selector(state)
+        if (key == lastKey) return
+        lastKey = key
+        renderCount++
+        render.invoke(state)
+    }
+
+    fun invalidate() {
+        lastKey = Unset
+    }
+
+    private object Unset
+}
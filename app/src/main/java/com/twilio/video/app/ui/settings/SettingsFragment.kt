@@ -10,6 +10,8 @@ import com.twilio.video.app.BuildConfig
 import com.twilio.video.app.R
 import com.twilio.video.app.auth.Authenticator
 import com.twilio.video.app.data.Preferences
+import com.twilio.video.app.data.api.TokenCache
+import com.twilio.video.app.participant.RosterCache
 import com.twilio.video.app.ui.ScreenSelector
 import dagger.android.support.AndroidSupportInjection
 import javax.inject.Inject
@@ -20,6 +22,10 @@ class SettingsFragment : BaseSettingsFragment() {
     internal lateinit var screenSelector: ScreenSelector
     @Inject
     internal lateinit var authenticator: Authenticator
+    @Inject
+    internal lateinit var rosterCache: RosterCache
+    @Inject
+    internal lateinit var tokenCache: TokenCache
 
     override fun onAttach(context: Context) {
         AndroidSupportInjection.inject(this)
@@ -45,6 +51,8 @@ class SettingsFragment : BaseSettingsFragment() {
             // Clear all preferences and set defaults
             sharedPreferences.edit().clear().apply()
             PreferenceManager.setDefaultValues(activity, R.xml.preferences, true)
+            rosterCache.clear()
+            tokenCache.clear()
 
             // Return to login activity
             loginIntent.flags = Intent.FLAG_ACTIVITY_CLEAR_TOP
@@ -0,0 +1,129 @@
+package com.twilio.video.app.util
+
+import android.annotation.TargetApi
+import android.content.Context
+import android.hardware.camera2.CameraManager
+import android.os.Build
+import android.os.Handler
+import android.os.Looper
+import java.util.concurrent.Executor
+import java.util.concurrent.Executors
+import java.util.concurrent.FutureTask
+import timber.log.Timber
+import tvi.webrtc.CameraEnumerationAndroid.CaptureFormat
+
+/*
+ * The result of a camera scan: the cameras used by the app and what they can capture.
+ */
+data class CameraCapabilities(
+    val isCamera2: Boolean,
+    val frontCameraId: String?,
+    val backCameraId: String?,
+    val deviceNames: Set<String>,
+    val supportedFormats: Map<String, List<CaptureFormat>>
+) {
+    /*
+     * Returns the highest frame rate the camera can capture at or null if unknown.
+     */
+    fun maxFps(cameraId: String): Int? =
+            supportedFormats[cameraId]?.map { it.framerate.max }?.maxOrNull()
+                    ?.let { (it + 999) / 1000 }
+}
+
+/*
+ * Process wide cache of the camera scan done when creating a CameraCapturerCompat. Scanning
+ * queries the characteristics of every camera, so it is done once off the main thread and
+ * reused by every camera start. The cache is invalidated when a camera the scan did not see
+ * becomes available, for example an external camera being connected.
+ */
+class CameraCapabilityCache(
+    private val enumerateCameras: () -> CameraCapabilities?,
+    private val executor: Executor = Executors.newSingleThreadExecutor { runnable ->
+        Thread(runnable, "CameraCapabilityCache").apply { isDaemon = true }
+    }
+) {
+
+    private var scan: FutureTask<CameraCapabilities?>? = null
+
+    /*
+     * Starts a scan in the background unless one is cached or in progress.
+     */
+    fun prefetch() {
+        executor.execute(scan())
+    }
+
+    /*
+     * Returns the cached capabilities, waiting for or running a scan when needed.
+     */
+    fun get(): CameraCapabilities? {
+        val scan = scan()
+        if (!scan.isDone) scan.run()
+        return try {
+            scan.get()
+        } catch (e: Exception) {
+            Timber.e(e, "Camera scan failed")
+            invalidate()
+            null
+        }
+    }
+
+    @Synchronized
+    fun invalidate() {
+        scan = null
+    }
+
+    @Synchronized
+    private fun scan() = scan ?: FutureTask {
+        val startNanos = System.nanoTime()
+        enumerateCameras().also {
+            Timber.d("Scanned cameras in %d us", (System.nanoTime() - startNanos) / 1000)
+        }
+    }.also { scan = it }
+
+    private fun isKnownCamera(cameraId: String): Boolean {
+        val scan = synchronized(this) { scan }
+        if (scan?.isDone != true) return true
+        return try {
+            scan.get()?.deviceNames?.contains(cameraId) ?: false
+        } catch (e: Exception) {
+            false
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.LOLLIPOP)
+    private fun registerAvailabilityCallback(context: Context) {
+        val cameraManager = context.getSystemService(Context.CAMERA_SERVICE) as CameraManager
+        cameraManager.registerAvailabilityCallback(object : CameraManager.AvailabilityCallback() {
+            /*
+             * Called for every camera on registration and whenever a camera is closed, so only
+             * cameras missing from the last scan invalidate it.
+             */
+            override fun onCameraAvailable(cameraId: String) {
+                if (!isKnownCamera(cameraId)) {
+                    Timber.d("Camera %s became available, invalidating camera scan", cameraId)
+                    invalidate()
+                }
+            }
+        }, Handler(Looper.getMainLooper()))
+    }
+
+    companion object {
+        @Volatile
+        private var instance: CameraCapabilityCache? = null
+
+        fun getInstance(context: Context): CameraCapabilityCache =
+                instance ?: synchronized(this) {
+                    instance ?: (context.applicationContext ?: context).let { applicationContext ->
+                        CameraCapabilityCache({
+                            CameraCapturerCompat.enumerateCameras(applicationContext)
+                        }).also { cameraCapabilityCache ->
+                            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                                cameraCapabilityCache.registerAvailabilityCallback(
+                                        applicationContext)
+                            }
+                            instance = cameraCapabilityCache
+                        }
+                    }
+                }
+    }
+}
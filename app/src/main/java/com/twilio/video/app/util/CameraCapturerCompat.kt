@@ -37,12 +37,44 @@ class CameraCapturerCompat(
                 ?: camera2Capturer?.initialize(surfaceTextureHelper, context, capturerObserver)
     }
 
+    private var captureFormat: Triple<Int, Int, Int>? = null
+
+    var isCapturing = false
+        private set
+
     override fun startCapture(width: Int, height: Int, framerate: Int) {
         cameraCapturer?.startCapture(width, height, framerate) ?: camera2Capturer?.startCapture(width, height, framerate)
+        captureFormat = Triple(width, height, framerate)
+        isCapturing = true
     }
 
     override fun stopCapture() {
+        if (!isCapturing) return
         cameraCapturer?.stopCapture() ?: camera2Capturer?.stopCapture()
+        isCapturing = false
+    }
+
+    /*
+     * Switches the camera session to a new format on the camera thread while keeping the track
+     * the capturer belongs to. When not capturing the format is used by the next restartCapture.
+     */
+    override fun changeCaptureFormat(width: Int, height: Int, framerate: Int) {
+        captureFormat = Triple(width, height, framerate)
+        if (isCapturing) {
+            cameraCapturer?.changeCaptureFormat(width, height, framerate)
+                    ?: camera2Capturer?.changeCaptureFormat(width, height, framerate)
+        }
+    }
+
+    /*
+     * Starts capturing again with the format of the last capture after stopCapture. Returns
+     * false when capture was never started.
+     */
+    fun restartCapture(): Boolean {
+        if (isCapturing) return true
+        val (width, height, framerate) = captureFormat ?: return false
+        startCapture(width, height, framerate)
+        return true
     }
 
     override fun isScreencast() = cameraCapturer?.isScreencast ?: camera2Capturer?.isScreencast ?: false
@@ -56,19 +88,35 @@ class CameraCapturerCompat(
     }
 
     companion object {
-        fun newInstance(context: Context): CameraCapturerCompat? {
-            return if (Camera2Capturer.isSupported(context)) {
-                Camera2Enumerator(context).getFrontAndBackCameraIds(context)?.let { cameraIds ->
-                    val cameraCapturer = Camera2Capturer(context, cameraIds.first
-                            ?: cameraIds.second ?: "")
-                    CameraCapturerCompat(cameraIds.first, cameraIds.second, camera2Capturer = cameraCapturer)
-                }
+        fun newInstance(
+            context: Context,
+            cameraCapabilityCache: CameraCapabilityCache = CameraCapabilityCache.getInstance(context)
+        ): CameraCapturerCompat? {
+            val cameraCapabilities = cameraCapabilityCache.get() ?: return null
+            val frontCameraId = cameraCapabilities.frontCameraId
+            val backCameraId = cameraCapabilities.backCameraId
+            val cameraId = frontCameraId ?: backCameraId ?: return null
+            return if (cameraCapabilities.isCamera2) {
+                CameraCapturerCompat(frontCameraId, backCameraId,
+                        camera2Capturer = Camera2Capturer(context, cameraId))
             } else {
-                Camera1Enumerator().getFrontAndBackCameraIds(context, isCamera2 = false)?.let { cameraIds ->
-                    val cameraCapturer = CameraCapturer(context, cameraIds.first ?: cameraIds.second
-                    ?: "", getCameraListener())
-                    CameraCapturerCompat(cameraIds.first, cameraIds.second, cameraCapturer = cameraCapturer)
-                }
+                CameraCapturerCompat(frontCameraId, backCameraId,
+                        cameraCapturer = CameraCapturer(context, cameraId, getCameraListener()))
+            }
+        }
+
+        /*
+         * Scans the cameras of the device. This queries the characteristics of every camera and
+         * should only be called through the CameraCapabilityCache.
+         */
+        internal fun enumerateCameras(context: Context): CameraCapabilities? {
+            val isCamera2 = Camera2Capturer.isSupported(context)
+            val cameraEnumerator = if (isCamera2) Camera2Enumerator(context) else Camera1Enumerator()
+            return cameraEnumerator.getFrontAndBackCameraIds(context, isCamera2)?.let { cameraIds ->
+                val supportedFormats = listOfNotNull(cameraIds.first, cameraIds.second)
+                        .associateWith { cameraEnumerator.getSupportedFormats(it) ?: emptyList() }
+                CameraCapabilities(isCamera2, cameraIds.first, cameraIds.second,
+                        cameraEnumerator.deviceNames.toSet(), supportedFormats)
             }
         }
 
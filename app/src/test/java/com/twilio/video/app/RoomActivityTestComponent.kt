@@ -0,0 +1,56 @@
+package com.twilio.video.app
+
+import android.content.SharedPreferences
+import com.twilio.audioswitch.AudioSwitch
+import com.twilio.video.app.data.api.TokenService
+import com.twilio.video.app.participant.RosterCache
+import com.twilio.video.app.sdk.RenderDimensionsTracker
+import com.twilio.video.app.sdk.RoomManager
+import com.twilio.video.app.ui.room.FrameSnapshotCache
+import com.twilio.video.app.ui.room.RoomActivityModule
+import dagger.Component
+import dagger.Module
+import dagger.Provides
+import dagger.android.AndroidInjectionModule
+
+@Component(modules = [
+    AndroidInjectionModule::class,
+    RoomActivityModule::class,
+    RoomActivityTestModule::class
+])
+interface RoomActivityTestComponent {
+    fun inject(testApp: TestApp)
+}
+
+/*
+ * Provides the dependencies of RoomActivity without connecting to a room or capturing media.
+ */
+@Module
+class RoomActivityTestModule(
+    private val sharedPreferences: SharedPreferences,
+    private val roomManager: RoomManager,
+    private val tokenService: TokenService,
+    private val audioSwitch: AudioSwitch
+) {
+
+    @Provides
+    fun providesSharedPreferences() = sharedPreferences
+
+    @Provides
+    fun providesRoomManager() = roomManager
+
+    @Provides
+    fun providesTokenService() = tokenService
+
+    @Provides
+    fun providesAudioSwitch() = audioSwitch
+
+    @Provides
+    fun providesRosterCache() = RosterCache()
+
+    @Provides
+    fun providesRenderDimensionsTracker() = RenderDimensionsTracker(sharedPreferences)
+
+    @Provides
+    fun providesFrameSnapshotCache() = FrameSnapshotCache()
+}
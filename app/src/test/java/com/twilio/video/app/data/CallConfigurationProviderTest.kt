@@ -0,0 +1,86 @@
+package com.twilio.video.app.data
+
+import android.content.Context
+import androidx.core.content.edit
+import androidx.test.core.app.ApplicationProvider
+import com.twilio.video.H264Codec
+import com.twilio.video.TrackPriority
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import com.twilio.video.app.data.Preferences.BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS
+import com.twilio.video.app.data.Preferences.DISPLAY_NAME
+import com.twilio.video.app.data.Preferences.MAX_VIDEO_BITRATE
+import com.twilio.video.app.data.Preferences.VIDEO_CODEC
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.instanceOf
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class CallConfigurationProviderTest : BaseUnitTest() {
+
+    private val sharedPreferences = ApplicationProvider.getApplicationContext<Context>()
+            .getSharedPreferences("call_configuration_test", Context.MODE_PRIVATE)
+    private val callConfigurationProvider = CallConfigurationProvider(sharedPreferences)
+
+    @Test
+    fun `callConfiguration should be built from the preference defaults`() {
+        val callConfiguration = callConfigurationProvider.callConfiguration
+
+        assertThat(callConfiguration.maxVideoBitrate,
+                equalTo(Preferences.MAX_VIDEO_BITRATE_DEFAULT))
+        assertThat(callConfiguration.renderDimensions[TrackPriority.HIGH], nullValue())
+    }
+
+    @Test
+    fun `callConfiguration should reuse the snapshot while preferences are unchanged`() {
+        val callConfiguration = callConfigurationProvider.callConfiguration
+
+        assertThat(callConfigurationProvider.callConfiguration, sameInstance(callConfiguration))
+        assertThat(callConfigurationProvider.buildCount, equalTo(1))
+    }
+
+    @Test
+    fun `callConfiguration should be rebuilt when a relevant preference changes`() {
+        callConfigurationProvider.callConfiguration
+
+        sharedPreferences.edit(commit = true) {
+            putInt(MAX_VIDEO_BITRATE, 1200)
+            putString(VIDEO_CODEC, H264Codec.NAME)
+            putString(BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS, "1280x720")
+        }
+        val callConfiguration = callConfigurationProvider.callConfiguration
+
+        assertThat(callConfiguration.maxVideoBitrate, equalTo(1200))
+        assertThat(callConfiguration.videoCodec, instanceOf(H264Codec::class.java))
+        assertThat(callConfiguration.renderDimensions[TrackPriority.HIGH]?.width, equalTo(1280))
+        assertThat(callConfigurationProvider.buildCount, equalTo(2))
+    }
+
+    @Test
+    fun `callConfiguration should not be rebuilt when an unrelated preference changes`() {
+        callConfigurationProvider.callConfiguration
+
+        sharedPreferences.edit(commit = true) { putString(DISPLAY_NAME, "Alice") }
+        callConfigurationProvider.callConfiguration
+
+        assertThat(callConfigurationProvider.buildCount, equalTo(1))
+    }
+
+    @Test
+    fun `callConfiguration should be rebuilt when preferences are cleared`() {
+        sharedPreferences.edit(commit = true) { putInt(MAX_VIDEO_BITRATE, 1200) }
+        callConfigurationProvider.callConfiguration
+
+        sharedPreferences.edit(commit = true) { clear() }
+
+        assertThat(callConfigurationProvider.callConfiguration.maxVideoBitrate,
+                equalTo(Preferences.MAX_VIDEO_BITRATE_DEFAULT))
+    }
+}
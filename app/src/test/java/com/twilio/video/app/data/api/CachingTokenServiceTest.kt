@@ -0,0 +1,186 @@
+package com.twilio.video.app.data.api
+
+import android.content.Context
+import android.util.Base64
+import androidx.test.core.app.ApplicationProvider
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import com.twilio.video.app.data.CallConfigurationProvider
+import com.twilio.video.app.data.Preferences.RECORD_PARTICIPANTS_ON_CONNECT
+import java.util.concurrent.TimeUnit
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.runBlocking
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import retrofit2.Retrofit
+import retrofit2.converter.scalars.ScalarsConverterFactory
+
+private const val IDENTITY = "identity"
+private const val ROOM_NAME = "room"
+private const val NOW_MILLIS = 1_600_000_000_000L
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class CachingTokenServiceTest : BaseUnitTest() {
+
+    private val server = MockWebServer().apply { start() }
+    private val videoAppService = Retrofit.Builder()
+            .baseUrl(server.url("/"))
+            .addConverterFactory(ScalarsConverterFactory.create())
+            .build()
+            .create(VideoAppService::class.java)
+    private val sharedPreferences = ApplicationProvider.getApplicationContext<Context>()
+            .getSharedPreferences("caching_token_service_test", Context.MODE_PRIVATE)
+    private val callConfigurationProvider = CallConfigurationProvider(sharedPreferences)
+    private val videoAppServiceDelegate = VideoAppServiceDelegate(videoAppService,
+            videoAppService, videoAppService, callConfigurationProvider)
+    private val tokenCache = TokenCache()
+    private var nowMillis = NOW_MILLIS
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `a valid cached token should be served without a request`() {
+        val token = jwt(expiresInMillis = TimeUnit.HOURS.toMillis(1))
+        server.enqueue(MockResponse().setBody(token).setBodyDelay(100, TimeUnit.MILLISECONDS))
+
+        runBlocking {
+            val cachingTokenService = cachingTokenService(this)
+            assertThat(cachingTokenService.getToken(IDENTITY, ROOM_NAME), equalTo(token))
+            assertThat(cachingTokenService.getToken(IDENTITY, ROOM_NAME), equalTo(token))
+        }
+        assertThat(server.requestCount, equalTo(1))
+    }
+
+    @Test
+    fun `tokens should be cached per room`() {
+        server.enqueue(MockResponse().setBody(jwt(TimeUnit.HOURS.toMillis(1))))
+        server.enqueue(MockResponse().setBody(jwt(TimeUnit.HOURS.toMillis(1))))
+
+        runBlocking {
+            val cachingTokenService = cachingTokenService(this)
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+            cachingTokenService.getToken(IDENTITY, "other room")
+        }
+
+        assertThat(server.requestCount, equalTo(2))
+    }
+
+    @Test
+    fun `tokens should be cached per recording setting`() {
+        server.enqueue(MockResponse().setBody(jwt(TimeUnit.HOURS.toMillis(1))))
+        server.enqueue(MockResponse().setBody(jwt(TimeUnit.HOURS.toMillis(1))))
+
+        runBlocking {
+            val cachingTokenService = cachingTokenService(this)
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+            sharedPreferences.edit().putBoolean(RECORD_PARTICIPANTS_ON_CONNECT,
+                    !callConfigurationProvider.callConfiguration.isRecordParticipantsOnConnect)
+                    .commit()
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+        }
+
+        assertThat(server.requestCount, equalTo(2))
+    }
+
+    @Test
+    fun `a token about to expire should be requested again`() {
+        val expiringToken = jwt(expiresInMillis = TimeUnit.SECONDS.toMillis(30))
+        val token = jwt(expiresInMillis = TimeUnit.HOURS.toMillis(1))
+        server.enqueue(MockResponse().setBody(expiringToken))
+        server.enqueue(MockResponse().setBody(token))
+
+        runBlocking {
+            val cachingTokenService = cachingTokenService(this)
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+
+            assertThat(cachingTokenService.getToken(IDENTITY, ROOM_NAME), equalTo(token))
+        }
+    }
+
+    @Test
+    fun `a token inside the refresh window should be served and refreshed in the background`() {
+        val expiringToken = jwt(expiresInMillis = TimeUnit.MINUTES.toMillis(5))
+        val token = jwt(expiresInMillis = TimeUnit.HOURS.toMillis(1))
+        server.enqueue(MockResponse().setBody(expiringToken))
+        server.enqueue(MockResponse().setBody(token))
+
+        val cachingTokenService = runBlocking {
+            cachingTokenService(this).apply {
+                getToken(IDENTITY, ROOM_NAME)
+
+                assertThat(getToken(IDENTITY, ROOM_NAME), equalTo(expiringToken))
+            }
+        }
+
+        assertThat(server.requestCount, equalTo(2))
+        assertThat(runBlocking { cachingTokenService.getToken(IDENTITY, ROOM_NAME) },
+                equalTo(token))
+    }
+
+    @Test
+    fun `clear should drop the cached tokens`() {
+        server.enqueue(MockResponse().setBody(jwt(TimeUnit.HOURS.toMillis(1))))
+        server.enqueue(MockResponse().setBody(jwt(TimeUnit.HOURS.toMillis(1))))
+
+        runBlocking {
+            val cachingTokenService = cachingTokenService(this)
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+            tokenCache.clear()
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+        }
+
+        assertThat(server.requestCount, equalTo(2))
+    }
+
+    @Test
+    fun `tokens without an expiration should not be cached`() {
+        server.enqueue(MockResponse().setBody("token"))
+        server.enqueue(MockResponse().setBody("token"))
+
+        runBlocking {
+            val cachingTokenService = cachingTokenService(this)
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+            cachingTokenService.getToken(IDENTITY, ROOM_NAME)
+        }
+
+        assertThat(jwtExpirationMillis("token"), nullValue())
+        assertThat(server.requestCount, equalTo(2))
+    }
+
+    @Test
+    fun `the cache should evict the least recently used tokens`() {
+        val tokenCache = TokenCache(maxSize = 2)
+        val keys = (1..3).map { TokenKey(IDENTITY, "room $it", "group", "production", false) }
+
+        keys.forEach { tokenCache.put(it, CachedToken("token", NOW_MILLIS), 0) }
+
+        assertThat(tokenCache.get(keys[0]), nullValue())
+        assertThat(tokenCache.get(keys[2])?.token, equalTo("token"))
+    }
+
+    private fun cachingTokenService(refreshScope: CoroutineScope) = CachingTokenService(
+            videoAppServiceDelegate, tokenCache, callConfigurationProvider, refreshScope) {
+        nowMillis
+    }
+
+    private fun jwt(expiresInMillis: Long): String {
+        val flags = Base64.URL_SAFE or Base64.NO_WRAP or Base64.NO_PADDING
+        val header = Base64.encodeToString("""{"alg":"HS256","typ":"JWT"}""".toByteArray(), flags)
+        val expiresAtSeconds = TimeUnit.MILLISECONDS.toSeconds(nowMillis + expiresInMillis)
+        val payload = Base64.encodeToString(
+                """{"jti":"$expiresInMillis","exp":$expiresAtSeconds}""".toByteArray(), flags)
+        return "$header.$payload.signature"
+    }
+}
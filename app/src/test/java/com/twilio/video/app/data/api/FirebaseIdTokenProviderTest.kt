@@ -0,0 +1,168 @@
+package com.twilio.video.app.data.api
+
+import com.twilio.video.app.BaseUnitTest
+import java.io.IOException
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Test
+
+private const val USER_ID = "user"
+private const val NOW_MILLIS = 1_600_000_000_000L
+private const val TOKEN_DELAY_MS = 50L
+
+class FirebaseIdTokenProviderTest : BaseUnitTest() {
+
+    private val server = MockWebServer().apply { start() }
+    private val executor = Executors.newSingleThreadScheduledExecutor()
+    private val idTokenSource = FakeIdTokenSource()
+    private var nowMillis = NOW_MILLIS
+    private val idTokenProvider = FirebaseIdTokenProvider(idTokenSource) { nowMillis }
+    private val okHttpClient = OkHttpClient.Builder()
+            .addInterceptor(FirebaseAuthInterceptor(idTokenProvider))
+            .authenticator(FirebaseTokenAuthenticator(idTokenProvider))
+            .build()
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+        executor.shutdown()
+    }
+
+    @Test
+    fun `the second request should reuse the cached token without waiting for Firebase`() {
+        server.enqueue(MockResponse())
+        server.enqueue(MockResponse())
+
+        execute()
+        execute()
+
+        assertThat(idTokenProvider.requestCount, equalTo(1))
+        assertThat(server.takeRequest().getHeader("Authorization"), equalTo("token 1"))
+        assertThat(server.takeRequest().getHeader("Authorization"), equalTo("token 1"))
+    }
+
+    @Test
+    fun `concurrent requests should share one Firebase request`() {
+        val requestExecutor = Executors.newFixedThreadPool(4)
+
+        val tokens = (1..4).map { requestExecutor.submit<String?> { idTokenProvider.getToken() } }
+                .map { it.get() }
+
+        requestExecutor.shutdown()
+        assertThat(tokens.toSet(), equalTo(setOf<String?>("token 1")))
+        assertThat(idTokenSource.requests, equalTo(listOf(false)))
+    }
+
+    @Test
+    fun `a token close to its expiration should be used while it is refreshed`() {
+        idTokenProvider.getToken()
+        nowMillis += TimeUnit.MINUTES.toMillis(57)
+
+        assertThat(idTokenProvider.getToken(), equalTo("token 1"))
+
+        // Runs after the refresh that was scheduled with the same delay
+        executor.schedule({}, TOKEN_DELAY_MS, TimeUnit.MILLISECONDS).get()
+        assertThat(idTokenProvider.getToken(), equalTo("token 2"))
+        assertThat(idTokenSource.requests, equalTo(listOf(false, true)))
+    }
+
+    @Test
+    fun `an expired token should be replaced before the request`() {
+        idTokenProvider.getToken()
+        nowMillis += TimeUnit.HOURS.toMillis(1)
+
+        assertThat(idTokenProvider.getToken(), equalTo("token 2"))
+    }
+
+    @Test
+    fun `the token of another user should not be used`() {
+        idTokenProvider.getToken()
+        idTokenSource.userId = "other user"
+
+        assertThat(idTokenProvider.getToken(), equalTo("token 2"))
+    }
+
+    @Test
+    fun `a rejected token should be refreshed and the request retried once`() {
+        server.enqueue(MockResponse().setResponseCode(401))
+        server.enqueue(MockResponse())
+
+        val code = execute()
+
+        assertThat(code, equalTo(200))
+        assertThat(server.takeRequest().getHeader("Authorization"), equalTo("token 1"))
+        assertThat(server.takeRequest().getHeader("Authorization"), equalTo("token 2"))
+        assertThat(idTokenSource.requests, equalTo(listOf(false, true)))
+    }
+
+    @Test
+    fun `a forced refresh should not share a pending refresh that is not forced`() {
+        val requestExecutor = Executors.newSingleThreadExecutor()
+        val token = requestExecutor.submit<String?> { idTokenProvider.getToken() }
+        while (synchronized(idTokenSource.requests) { idTokenSource.requests.isEmpty() }) {
+            Thread.yield()
+        }
+
+        val refreshedToken = idTokenProvider.refreshToken(null)
+
+        requestExecutor.shutdown()
+        assertThat(token.get(), equalTo("token 1"))
+        assertThat(refreshedToken, equalTo("token 2"))
+        assertThat(idTokenSource.requests, equalTo(listOf(false, true)))
+        assertThat(idTokenProvider.getToken(), equalTo("token 2"))
+    }
+
+    @Test
+    fun `a request rejected again should not be retried`() {
+        server.enqueue(MockResponse().setResponseCode(401))
+        server.enqueue(MockResponse().setResponseCode(401))
+        server.enqueue(MockResponse())
+
+        assertThat(execute(), equalTo(401))
+        assertThat(server.requestCount, equalTo(2))
+    }
+
+    @Test(expected = IOException::class)
+    fun `a request should fail when no token can be retrieved`() {
+        idTokenSource.userId = null
+
+        execute()
+    }
+
+    private fun execute(): Int =
+            okHttpClient.newCall(Request.Builder().url(server.url("/")).build())
+                    .execute()
+                    .use { it.code() }
+
+    /*
+     * Completes token requests on a background thread after a delay like Firebase does.
+     */
+    private inner class FakeIdTokenSource : IdTokenSource {
+        val requests = mutableListOf<Boolean>()
+        override var userId: String? = USER_ID
+
+        override fun getIdToken(
+            forceRefresh: Boolean,
+            onSuccess: (IdToken) -> Unit,
+            onFailure: (Exception) -> Unit
+        ) {
+            val userId = userId
+                    ?: return onFailure(IllegalStateException("Firebase user is not found"))
+            val token = synchronized(requests) {
+                requests.add(forceRefresh)
+                "token ${requests.size}"
+            }
+            val expiresAtMillis = nowMillis + TimeUnit.HOURS.toMillis(1)
+            executor.schedule({
+                onSuccess(IdToken(token, expiresAtMillis, userId))
+            }, TOKEN_DELAY_MS, TimeUnit.MILLISECONDS)
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.twilio.video.app.data.api
+
+import com.twilio.video.app.BaseUnitTest
+import okhttp3.MediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Test
+
+class SampledLoggingInterceptorTest : BaseUnitTest() {
+
+    private val server = MockWebServer().apply { start() }
+    private val logs = mutableListOf<String>()
+    private val okHttpClient = OkHttpClient.Builder()
+            .addInterceptor(SampledLoggingInterceptor(bodySampleInterval = 2, maxBodyBytes = 16) {
+                logs.add(it)
+            })
+            .build()
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `every request should be logged and only sampled ones with bodies`() {
+        repeat(3) { server.enqueue(textResponse("token")) }
+
+        repeat(3) { execute() }
+
+        assertThat(logs.count { it.startsWith("GET ") }, equalTo(3))
+        assertThat(logs.count { it.startsWith("Response body: ") }, equalTo(2))
+    }
+
+    @Test
+    fun `response bodies should be logged up to the cap and read in full by the caller`() {
+        val body = "x".repeat(64 * 1024)
+        server.enqueue(textResponse(body))
+
+        val responseBody = execute()
+
+        assertThat(logs.last(), equalTo("Response body: " + "x".repeat(16)))
+        assertThat(responseBody, equalTo(body))
+    }
+
+    @Test
+    fun `request bodies larger than the cap should not be logged`() {
+        server.enqueue(textResponse("token"))
+        server.enqueue(textResponse("token"))
+        server.enqueue(textResponse("token"))
+        val mediaType = MediaType.parse("application/json")
+
+        execute(RequestBody.create(mediaType, "{}"))
+        execute()
+        execute(RequestBody.create(mediaType, "{\"passcode\":\"123456789012\"}"))
+
+        assertThat(logs.filter { it.startsWith("Request body: ") },
+                equalTo(listOf("Request body: {}")))
+    }
+
+    @Test
+    fun `binary bodies should not be logged`() {
+        server.enqueue(MockResponse().setHeader("Content-Type", "image/png").setBody("png"))
+
+        execute()
+
+        assertThat(logs.none { it.startsWith("Response body: ") }, equalTo(true))
+    }
+
+    private fun textResponse(body: String) =
+            MockResponse().setHeader("Content-Type", "text/plain").setBody(body)
+
+    private fun execute(requestBody: RequestBody? = null): String {
+        val request = Request.Builder()
+                .url(server.url("/"))
+                .apply { requestBody?.let { post(it) } }
+                .build()
+        return okHttpClient.newCall(request).execute().use { it.body()!!.string() }
+    }
+}
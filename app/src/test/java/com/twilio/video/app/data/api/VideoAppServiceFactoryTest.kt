@@ -0,0 +1,88 @@
+package com.twilio.video.app.data.api
+
+import com.twilio.video.app.BaseUnitTest
+import dagger.Lazy
+import java.net.InetAddress
+import java.util.concurrent.TimeUnit
+import kotlinx.coroutines.runBlocking
+import okhttp3.Dns
+import okhttp3.OkHttpClient
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Test
+import timber.log.Timber
+
+class VideoAppServiceFactoryTest : BaseUnitTest() {
+
+    private val server = MockWebServer().apply { start() }
+    private var clientBuildCount = 0
+    private val okHttpClient by lazy {
+        clientBuildCount++
+        OkHttpClient.Builder().dns(CachingDns()).build()
+    }
+    private val videoAppServiceFactory = VideoAppServiceFactory(Lazy { okHttpClient })
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `services should be built on the first request and report startup and first request time`() {
+        server.enqueue(MockResponse().setBody("token"))
+
+        var start = System.nanoTime()
+        val videoAppServices = listOf("dev", "stage", "prod")
+                .map { videoAppServiceFactory.create(server.url("/$it/").toString()) }
+        val startupNanos = System.nanoTime() - start
+        val clientBuildCountAtStartup = clientBuildCount
+        start = System.nanoTime()
+        val token = runBlocking { videoAppServices.last().getToken() }
+        val firstRequestNanos = System.nanoTime() - start
+
+        Timber.d("VideoAppService: %d us to create, %d us for the first request",
+                TimeUnit.NANOSECONDS.toMicros(startupNanos),
+                TimeUnit.NANOSECONDS.toMicros(firstRequestNanos))
+        assertThat(clientBuildCountAtStartup, equalTo(0))
+        assertThat(token, equalTo("token"))
+        assertThat(server.takeRequest().path.startsWith("/prod/api/v1/token"), equalTo(true))
+    }
+
+    @Test
+    fun `services should share one client and its connections`() {
+        server.enqueue(MockResponse().setBody("dev token"))
+        server.enqueue(MockResponse().setBody("stage token"))
+        val devService = videoAppServiceFactory.create(server.url("/dev/").toString())
+        val stageService = videoAppServiceFactory.create(server.url("/stage/").toString())
+
+        runBlocking {
+            devService.getToken()
+            stageService.getToken()
+        }
+
+        assertThat(clientBuildCount, equalTo(1))
+        assertThat(server.takeRequest().sequenceNumber, equalTo(0))
+        assertThat(server.takeRequest().sequenceNumber, equalTo(1))
+    }
+
+    @Test
+    fun `CachingDns should reuse addresses until they expire`() {
+        var lookupCount = 0
+        var nowMillis = 0L
+        val dns = CachingDns(Dns { lookupCount++; listOf(InetAddress.getLoopbackAddress()) },
+                TimeUnit.MINUTES.toMillis(1)) { nowMillis }
+
+        dns.lookup("localhost")
+        dns.lookup("localhost")
+        nowMillis += TimeUnit.MINUTES.toMillis(1)
+        dns.lookup("localhost")
+
+        assertThat(lookupCount, equalTo(2))
+    }
+
+    private suspend fun VideoAppService.getToken() =
+            getToken("identity", "room", "production", "group", false)
+}
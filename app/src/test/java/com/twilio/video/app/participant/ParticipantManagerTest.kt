@@ -1,13 +1,16 @@
 package com.twilio.video.app.participant
 
+import com.nhaarman.mockitokotlin2.clearInvocations
 import com.nhaarman.mockitokotlin2.inOrder
 import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.verifyZeroInteractions
+import com.nhaarman.mockitokotlin2.whenever
 import com.twilio.video.LocalVideoTrack
 import com.twilio.video.RemoteVideoTrack
 import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
 import com.twilio.video.VideoTrack
 import com.twilio.video.app.BaseUnitTest
 import com.twilio.video.app.sdk.VideoTrackViewState
@@ -276,6 +279,104 @@ class ParticipantManagerTest : BaseUnitTest() {
         }
     }
 
+    @Test
+    fun `filterParticipants should only expose thumbnails of participants matching the filter`() {
+        setupThreeParticipantScenario()
+
+        participantManager.filterParticipants("pant 3")
+
+        assertThat(participantManager.participantThumbnails.map { it.sid },
+                equalTo(listOf("1", "3")))
+    }
+
+    @Test
+    fun `filterParticipants should keep the local participant thumbnail when it does not match`() {
+        setupThreeParticipantScenario()
+
+        participantManager.filterParticipants("no such participant")
+
+        assertThat(participantManager.participantThumbnails.map { it.sid }, equalTo(listOf("1")))
+    }
+
+    @Test
+    fun `filterParticipants should expose all thumbnails when the filter is cleared`() {
+        setupThreeParticipantScenario()
+        participantManager.filterParticipants("pant 3")
+
+        participantManager.filterParticipants(null)
+
+        assertThat(participantManager.participantThumbnails.size, equalTo(3))
+    }
+
+    @Test
+    fun `removed participants should no longer match the filter`() {
+        setupThreeParticipantScenario()
+        participantManager.filterParticipants("participant")
+
+        participantManager.removeParticipant("3")
+
+        assertThat(participantManager.participantThumbnails.map { it.sid },
+                equalTo(listOf("1", "2")))
+    }
+
+    @Test
+    fun `reconcileParticipants should replace placeholders with the actual room roster`() {
+        participantManager.updateLocalParticipant(localParticipant)
+        participantManager.addParticipant(ParticipantViewState("2", "Participant 2", isPinned = true))
+        participantManager.addParticipant(ParticipantViewState("3", "Participant 3"))
+        val remoteVideoTrack = VideoTrackViewState(mock<RemoteVideoTrack>())
+
+        participantManager.reconcileParticipants(listOf(
+                ParticipantViewState("2", "Participant 2", videoTrack = remoteVideoTrack),
+                ParticipantViewState("4", "Participant 4")))
+
+        val thumbnails = participantManager.participantThumbnails
+        assertThat(thumbnails.map { it.sid }, equalTo(listOf("1", "2", "4")))
+        assertThat(thumbnails[1].videoTrack, equalTo(remoteVideoTrack))
+        assertThat(thumbnails[1].isPinned, equalTo(true))
+    }
+
+    @Test
+    fun `restoreTrackPriorities should clear the grid priorities and request the primary participant at high priority`() {
+        val pinnedParticipant = setupThreeParticipantScenario()
+        participantManager.changePinnedParticipant(pinnedParticipant.sid!!)
+        val pinnedVideoTrack = pinnedParticipant.getRemoteVideoTrack()!!
+        val otherVideoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+        whenever(pinnedVideoTrack.priority).thenReturn(LOW)
+        whenever(otherVideoTrack.priority).thenReturn(LOW)
+        clearInvocations(pinnedVideoTrack, otherVideoTrack)
+
+        participantManager.restoreTrackPriorities()
+
+        verify(otherVideoTrack).priority = null
+        verify(pinnedVideoTrack).priority = HIGH
+    }
+
+    @Test
+    fun `updateVideoTrackEnabled should enable the video track of a participant that was subscribed disabled`() {
+        val videoTrack = mock<RemoteVideoTrack>()
+        participantManager.addParticipant(ParticipantViewState("2", "Participant 2",
+                videoTrack = VideoTrackViewState(videoTrack, isEnabled = false)))
+
+        participantManager.updateVideoTrackEnabled("2", videoTrack, true)
+
+        assertThat(participantManager.getParticipant("2")?.videoTrack,
+                equalTo(VideoTrackViewState(videoTrack, isEnabled = true)))
+        assertThat(participantManager.primaryParticipant.videoTrack?.isEnabled, equalTo(true))
+    }
+
+    @Test
+    fun `updateVideoTrackEnabled should ignore tracks the participant no longer shows`() {
+        val videoTrack = mock<RemoteVideoTrack>()
+        val participant = ParticipantViewState("2", "Participant 2",
+                videoTrack = VideoTrackViewState(videoTrack, isEnabled = false))
+        participantManager.addParticipant(participant)
+
+        participantManager.updateVideoTrackEnabled("2", mock<RemoteVideoTrack>(), true)
+
+        assertThat(participantManager.getParticipant("2"), equalTo(participant))
+    }
+
     private fun setupExistingDominantSpeakerScenario() {
         val participant2 = ParticipantViewState("2", "Participant 2",
                 isDominantSpeaker = true)
@@ -0,0 +1,123 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.app.BaseUnitTest
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.lessThanOrEqualTo
+import org.junit.Test
+import timber.log.Timber
+
+private const val IDENTITY_COUNT = 1000
+private const val BENCHMARK_QUERY_COUNT = 10000
+
+class ParticipantSearchIndexTest : BaseUnitTest() {
+
+    private val searchIndex = ParticipantSearchIndex()
+
+    @Test
+    fun `search should return participants whose identity contains the query`() {
+        searchIndex.add("1", "Alice Smith")
+        searchIndex.add("2", "Bob Smithers")
+        searchIndex.add("3", "Carol Jones")
+
+        assertThat(searchIndex.search("smith"), equalTo(setOf("1", "2")))
+    }
+
+    @Test
+    fun `search should be case insensitive`() {
+        searchIndex.add("1", "Alice Smith")
+
+        assertThat(searchIndex.search("ALICE"), equalTo(setOf("1")))
+    }
+
+    @Test
+    fun `searchPrefix should only return participants whose identity starts with the query`() {
+        searchIndex.add("1", "Alice Smith")
+        searchIndex.add("2", "Smith Alice")
+
+        assertThat(searchIndex.searchPrefix("smi"), equalTo(setOf("2")))
+    }
+
+    @Test
+    fun `search should not return removed participants`() {
+        searchIndex.add("1", "Alice")
+        searchIndex.add("2", "Alicia")
+
+        searchIndex.remove("1")
+
+        assertThat(searchIndex.search("ali"), equalTo(setOf("2")))
+        assertThat(searchIndex.size, equalTo(1))
+    }
+
+    @Test
+    fun `add should replace the identity of an existing participant`() {
+        searchIndex.add("1", "Alice")
+
+        searchIndex.add("1", "Bob")
+
+        assertThat(searchIndex.search("alice").isEmpty(), equalTo(true))
+        assertThat(searchIndex.search("bob"), equalTo(setOf("1")))
+    }
+
+    @Test
+    fun `search should return all participants for an empty query`() {
+        searchIndex.add("1", "Alice")
+        searchIndex.add("2", "Bob")
+
+        assertThat(searchIndex.search(" "), equalTo(setOf("1", "2")))
+    }
+
+    @Test
+    fun `participants without an identity should not be indexed`() {
+        searchIndex.add("1", null)
+
+        assertThat(searchIndex.size, equalTo(0))
+    }
+
+    @Test
+    fun `search should only scan the suffixes matching the query with 1000 identities`() {
+        repeat(IDENTITY_COUNT) { index -> searchIndex.add("PA$index", "Participant $index") }
+
+        val matches = searchIndex.search("participant 999")
+
+        assertThat(matches, equalTo(setOf("PA999")))
+        assertThat(searchIndex.scannedSuffixCount, lessThanOrEqualTo(2))
+    }
+
+    @Test
+    fun `search should match a scan over every identity with 1000 identities`() {
+        val identities = (0 until IDENTITY_COUNT).associate { index ->
+            "PA$index" to "Participant $index ${index.toString(36)}"
+        }
+        identities.forEach { (sid, identity) -> searchIndex.add(sid, identity) }
+
+        listOf("participant 9", "42", "ant 1", "zz", "p").forEach { query ->
+            assertThat(searchIndex.search(query), equalTo(identities.filterValues {
+                it.contains(query, ignoreCase = true)
+            }.keys))
+        }
+    }
+
+    @Test
+    fun `search should report the average lookup time with 1000 identities`() {
+        repeat(IDENTITY_COUNT) { index ->
+            searchIndex.add("PA$index", "Participant $index ${index.toString(36)}")
+        }
+        val queries = listOf("participant 9", "42", "ant 1", "zz", "p")
+        repeat(BENCHMARK_QUERY_COUNT / 10) { searchIndex.search(queries[it % queries.size]) }
+
+        var matchCount = 0
+        val start = System.nanoTime()
+        repeat(BENCHMARK_QUERY_COUNT) {
+            matchCount += searchIndex.search(queries[it % queries.size]).size
+        }
+        val elapsedNanos = System.nanoTime() - start
+
+        Timber.d("Participant search: %d ns per lookup, %d us for %d lookups",
+                elapsedNanos / BENCHMARK_QUERY_COUNT,
+                TimeUnit.NANOSECONDS.toMicros(elapsedNanos), BENCHMARK_QUERY_COUNT)
+        assertThat(searchIndex.search("p").size, equalTo(IDENTITY_COUNT))
+        assertThat(matchCount > 0, equalTo(true))
+    }
+}
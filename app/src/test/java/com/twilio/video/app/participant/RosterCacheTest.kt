@@ -0,0 +1,47 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FOUR
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class RosterCacheTest : BaseUnitTest() {
+
+    private val rosterCache = RosterCache()
+
+    @Test
+    fun `decodeRoster should restore an encoded roster`() {
+        val roster = listOf(
+                RosterEntry("PA1", "Alice\\tab\tnewline\n", true, NETWORK_QUALITY_LEVEL_FOUR),
+                RosterEntry("PA2", null))
+
+        val decodedRoster = rosterCache.decodeRoster(rosterCache.encodeRoster(roster))
+
+        assertThat(decodedRoster, equalTo(roster))
+    }
+
+    @Test
+    fun `decodeRoster should skip malformed entries`() {
+        assertThat(rosterCache.decodeRoster("PA1\tAlice\n\ngarbage"), equalTo(emptyList()))
+    }
+
+    @Test
+    fun `update should only cache remote participants`() {
+        rosterCache.update("room", listOf(
+                ParticipantViewState("PA1", "Local", isLocalParticipant = true),
+                ParticipantViewState("PA2", "Remote", isMuted = true)))
+
+        assertThat(rosterCache.get("room"), equalTo(listOf(RosterEntry("PA2", "Remote", true))))
+    }
+
+    @Test
+    fun `clear should remove all cached rosters`() {
+        rosterCache.update("room", listOf(ParticipantViewState("PA2", "Remote")))
+
+        rosterCache.clear()
+
+        assertThat(rosterCache.get("room"), nullValue())
+    }
+}
@@ -0,0 +1,108 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_TWO
+import com.twilio.video.VideoDimensions
+import com.twilio.video.VideoFormat
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+private const val VGA_INDEX = 1
+private const val HEALTHY_BYTES_PER_SECOND = 250_000L
+
+class CaptureFormatGovernorTest : BaseUnitTest() {
+
+    private val captureFormatGovernor = CaptureFormatGovernor(VGA_INDEX, 30)
+    private var timestampMs = 0L
+    private var bytesSent = 0L
+
+    @Test
+    fun `onStats should step down after three constrained samples`() {
+        assertThat(captureFormatGovernor.onStats(sample(roundTripTimeMs = 500)), nullValue())
+        assertThat(captureFormatGovernor.onStats(sample(roundTripTimeMs = 500)), nullValue())
+
+        val videoFormat = captureFormatGovernor.onStats(sample(roundTripTimeMs = 500))
+
+        assertFormat(videoFormat, VideoDimensions.CIF_VIDEO_DIMENSIONS, 30)
+    }
+
+    @Test
+    fun `onStats should not step down when constrained samples are not consecutive`() {
+        repeat(5) {
+            captureFormatGovernor.onStats(sample(roundTripTimeMs = 500))
+            captureFormatGovernor.onStats(sample())
+        }
+
+        assertFormat(captureFormatGovernor.videoFormat, VideoDimensions.VGA_VIDEO_DIMENSIONS, 30)
+    }
+
+    @Test
+    fun `onStats should step down on a poor network quality level`() {
+        captureFormatGovernor.onNetworkQualityLevelChanged(NETWORK_QUALITY_LEVEL_TWO)
+
+        repeat(3) { captureFormatGovernor.onStats(sample()) }
+
+        assertFormat(captureFormatGovernor.videoFormat, VideoDimensions.CIF_VIDEO_DIMENSIONS, 30)
+    }
+
+    @Test
+    fun `onStats should step down when the encoder can not keep up`() {
+        repeat(3) { captureFormatGovernor.onStats(sample(encodeFps = 12)) }
+
+        assertFormat(captureFormatGovernor.videoFormat, VideoDimensions.CIF_VIDEO_DIMENSIONS, 30)
+    }
+
+    @Test
+    fun `onStats should lower the frame rate below the smallest dimensions`() {
+        repeat(30) { captureFormatGovernor.onStats(sample(roundTripTimeMs = 500)) }
+
+        assertFormat(captureFormatGovernor.videoFormat, VideoDimensions.CIF_VIDEO_DIMENSIONS, 15)
+    }
+
+    @Test
+    fun `onStats should only step up after the hold time and ten samples with headroom`() {
+        repeat(3) { captureFormatGovernor.onStats(sample(roundTripTimeMs = 500)) }
+
+        val videoFormats = (0 until 30).map { captureFormatGovernor.onStats(sample()) }
+
+        // 15 seconds of hold followed by 10 samples with headroom
+        assertThat(videoFormats.indexOfFirst { it != null }, equalTo(23))
+        assertThat(videoFormats.count { it != null }, equalTo(1))
+        assertFormat(videoFormats[23], VideoDimensions.VGA_VIDEO_DIMENSIONS, 30)
+    }
+
+    @Test
+    fun `onStats should not count the samples before the track was disabled`() {
+        repeat(2) { captureFormatGovernor.onStats(sample(roundTripTimeMs = 500)) }
+
+        captureFormatGovernor.onTrackDisabled()
+        // No bytes were sent while the track was disabled
+        timestampMs += 60_000
+        bytesSent -= HEALTHY_BYTES_PER_SECOND
+        val videoFormats = (0 until 2).map {
+            captureFormatGovernor.onStats(sample(roundTripTimeMs = 500))
+        }
+
+        assertThat(videoFormats, equalTo(listOf<VideoFormat?>(null, null)))
+        assertFormat(captureFormatGovernor.videoFormat, VideoDimensions.VGA_VIDEO_DIMENSIONS, 30)
+    }
+
+    private fun sample(
+        roundTripTimeMs: Long = 50,
+        encodeFps: Int = 30,
+        sentDimensions: VideoDimensions = captureFormatGovernor.videoFormat.dimensions
+    ): CaptureFormatSample {
+        timestampMs += 1000
+        bytesSent += HEALTHY_BYTES_PER_SECOND
+        return CaptureFormatSample(bytesSent, roundTripTimeMs, encodeFps, sentDimensions,
+                captureFormatGovernor.videoFormat.dimensions, timestampMs)
+    }
+
+    private fun assertFormat(videoFormat: VideoFormat?, dimensions: VideoDimensions, fps: Int) {
+        assertThat(videoFormat?.dimensions?.width, equalTo(dimensions.width))
+        assertThat(videoFormat?.dimensions?.height, equalTo(dimensions.height))
+        assertThat(videoFormat?.framerate, equalTo(fps))
+    }
+}
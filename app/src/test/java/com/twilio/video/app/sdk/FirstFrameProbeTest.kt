@@ -0,0 +1,45 @@
+package com.twilio.video.app.sdk
+
+import com.nhaarman.mockitokotlin2.mock
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class FirstFrameProbeTest : BaseUnitTest() {
+
+    private var nowNanos = 0L
+    private val latencies = mutableListOf<Long>()
+    private val firstFrameProbe = FirstFrameProbe({ nowNanos }) { latencies.add(it) }
+
+    @Test
+    fun `onFrame should report the latency of the first frame after start`() {
+        nowNanos = 100
+        firstFrameProbe.start()
+        nowNanos = 350
+
+        firstFrameProbe.onFrame(mock())
+        nowNanos = 400
+        firstFrameProbe.onFrame(mock())
+
+        assertThat(latencies, equalTo(listOf(250L)))
+        assertThat(firstFrameProbe.isWaiting, equalTo(false))
+    }
+
+    @Test
+    fun `onFrame should not report frames before start`() {
+        firstFrameProbe.onFrame(mock())
+
+        assertThat(latencies.isEmpty(), equalTo(true))
+    }
+
+    @Test
+    fun `cancel should stop waiting for the first frame`() {
+        firstFrameProbe.start()
+
+        firstFrameProbe.cancel()
+        firstFrameProbe.onFrame(mock())
+
+        assertThat(latencies.isEmpty(), equalTo(true))
+    }
+}
@@ -0,0 +1,215 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import timber.log.Timber
+import tvi.webrtc.VideoFrame
+
+private const val WIDTH = 640
+private const val HEIGHT = 480
+private const val STEADY_STATE_FRAME_COUNT = 3000
+private val FRAME_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / 30
+
+class FrameProcessorChainTest : BaseUnitTest() {
+
+    private val sourcePool = I420BufferPool()
+    private val bufferPool = I420BufferPool()
+
+    @Test
+    fun `acquire should reuse released buffers of the same dimensions`() {
+        val buffer = bufferPool.acquire(WIDTH, HEIGHT)
+        buffer.release()
+
+        assertThat(bufferPool.acquire(WIDTH, HEIGHT), sameInstance(buffer))
+        assertThat(bufferPool.allocationCount, equalTo(1))
+    }
+
+    @Test
+    fun `acquire should not reuse buffers that are still referenced`() {
+        val buffer = bufferPool.acquire(WIDTH, HEIGHT)
+        buffer.retain()
+        buffer.release()
+
+        assertThat(bufferPool.acquire(WIDTH, HEIGHT) === buffer, equalTo(false))
+    }
+
+    @Test
+    fun `acquire should reuse buffers of each stage of a chain`() {
+        bufferPool.acquire(WIDTH, HEIGHT).release()
+        bufferPool.acquire(HEIGHT, WIDTH).release()
+
+        bufferPool.acquire(WIDTH, HEIGHT)
+        bufferPool.acquire(HEIGHT, WIDTH)
+
+        assertThat(bufferPool.allocationCount, equalTo(2))
+    }
+
+    @Test
+    fun `acquire should drop the least recently used size`() {
+        (1..5).forEach { size -> bufferPool.acquire(size * 2, size * 2).release() }
+
+        bufferPool.acquire(10, 10)
+        bufferPool.acquire(2, 2)
+
+        assertThat(bufferPool.allocationCount, equalTo(6))
+    }
+
+    @Test
+    fun `FrameRateLimitingProcessor should drop frames faster than the maximum frame rate`() {
+        val frameRateLimitingProcessor = FrameRateLimitingProcessor(15)
+
+        val forwarded = (0 until 30).count { index ->
+            frameRateLimitingProcessor.process(frame(index * FRAME_INTERVAL_NANOS),
+                    bufferPool) != null
+        }
+
+        assertThat(forwarded, equalTo(15))
+    }
+
+    @Test
+    fun `CenterCropScaler should crop the center of a landscape frame to portrait`() {
+        val buffer = CropRecordingBuffer()
+
+        val processedFrame = CenterCropScaler(270, 480)
+                .process(VideoFrame(buffer, 0, 0), bufferPool)!!
+
+        assertThat(buffer.crop, equalTo(listOf(184, 0, 270, 480, 270, 480)))
+        assertThat(processedFrame.buffer.width, equalTo(270))
+        assertThat(processedFrame.buffer.height, equalTo(480))
+    }
+
+    @Test
+    fun `CenterCropScaler should crop rotated frames to the upright target dimensions`() {
+        val buffer = CropRecordingBuffer()
+
+        CenterCropScaler(270, 480).process(VideoFrame(buffer, 90, 0), bufferPool)
+
+        assertThat(buffer.crop, equalTo(listOf(0, 60, 640, 360, 480, 270)))
+    }
+
+    @Test
+    fun `CenterCropScaler should pass through frames that already fit`() {
+        val frame = frame()
+
+        assertThat(CenterCropScaler(WIDTH, HEIGHT).process(frame, bufferPool),
+                sameInstance(frame))
+    }
+
+    @Test
+    fun `RotationNormalizer should pass through upright frames`() {
+        val frame = frame(rotation = 360)
+
+        assertThat(RotationNormalizer().process(frame, bufferPool), sameInstance(frame))
+    }
+
+    @Test
+    fun `RotationNormalizer should rotate sideways frames into an upright pooled buffer`() {
+        val rotations = mutableListOf<Int>()
+        val rotationNormalizer = RotationNormalizer { _, _, rotation -> rotations.add(rotation) }
+
+        val processedFrame = rotationNormalizer.process(frame(rotation = 90), bufferPool)!!
+
+        assertThat(processedFrame.rotation, equalTo(0))
+        assertThat(processedFrame.buffer.width, equalTo(HEIGHT))
+        assertThat(processedFrame.buffer.height, equalTo(WIDTH))
+        assertThat(rotations, equalTo(listOf(90)))
+        assertThat(bufferPool.allocationCount, equalTo(1))
+    }
+
+    @Test
+    fun `process should return null when a processor drops the frame`() {
+        val chain = FrameProcessorChain(listOf(FrameRateLimitingProcessor(15),
+                RotationNormalizer()), bufferPool)
+        chain.process(frame(0))?.release()
+
+        assertThat(chain.process(frame(FRAME_INTERVAL_NANOS)), nullValue())
+    }
+
+    @Test
+    fun `steady state processing should only reuse pooled buffers`() {
+        val chain = FrameProcessorChain(listOf(
+                FrameRateLimitingProcessor(30),
+                PooledCopyProcessor(),
+                PooledCopyProcessor()), bufferPool)
+        val source = frame()
+        repeat(30) { index -> process(chain, source, index) }
+        val warmAllocationCount = bufferPool.allocationCount
+
+        repeat(300) { index -> process(chain, source, 30 + index) }
+
+        assertThat(warmAllocationCount, equalTo(2))
+        assertThat(bufferPool.allocationCount, equalTo(warmAllocationCount))
+    }
+
+    @Test
+    fun `steady state cropping should report the time per frame`() {
+        val chain = FrameProcessorChain(listOf(
+                FrameRateLimitingProcessor(15),
+                CenterCropScaler(270, 480)), bufferPool)
+        val source = VideoFrame(CropRecordingBuffer(), 0, 0)
+        repeat(30) { index -> process(chain, source, index) }
+        val warmAllocationCount = bufferPool.allocationCount
+
+        val start = System.nanoTime()
+        repeat(STEADY_STATE_FRAME_COUNT) { index -> process(chain, source, 30 + index) }
+        val elapsedNanos = System.nanoTime() - start
+
+        Timber.d("Frame processing: %d ns per frame over %d frames",
+                elapsedNanos / STEADY_STATE_FRAME_COUNT, STEADY_STATE_FRAME_COUNT)
+        assertThat(bufferPool.allocationCount, equalTo(warmAllocationCount))
+    }
+
+    private fun process(chain: FrameProcessorChain, source: VideoFrame, index: Int) {
+        val frame = VideoFrame(source.buffer, source.rotation, index * FRAME_INTERVAL_NANOS)
+        source.buffer.retain()
+        val processedFrame = chain.process(frame)
+        if (processedFrame !== frame) processedFrame?.release()
+        frame.release()
+    }
+
+    private fun frame(timestampNanos: Long = 0, rotation: Int = 0) =
+            VideoFrame(sourcePool.acquire(WIDTH, HEIGHT), rotation, timestampNanos)
+
+    /*
+     * Stands in for a processor producing a new frame of the same size from the pool.
+     */
+    private class PooledCopyProcessor : FrameProcessor {
+        override fun process(frame: VideoFrame, bufferPool: I420BufferPool) = VideoFrame(
+                bufferPool.acquire(frame.buffer.width, frame.buffer.height), frame.rotation,
+                frame.timestampNs)
+    }
+
+    /*
+     * Records the crop and scale requested from the buffer, which is done natively on device.
+     */
+    private inner class CropRecordingBuffer : VideoFrame.Buffer {
+        var crop: List<Int>? = null
+
+        override fun getWidth() = WIDTH
+
+        override fun getHeight() = HEIGHT
+
+        override fun toI420(): VideoFrame.I420Buffer = throw UnsupportedOperationException()
+
+        override fun retain() {}
+
+        override fun release() {}
+
+        override fun cropAndScale(
+            cropX: Int,
+            cropY: Int,
+            cropWidth: Int,
+            cropHeight: Int,
+            scaleWidth: Int,
+            scaleHeight: Int
+        ): VideoFrame.Buffer {
+            crop = listOf(cropX, cropY, cropWidth, cropHeight, scaleWidth, scaleHeight)
+            return bufferPool.acquire(scaleWidth, scaleHeight)
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.twilio.video.app.sdk
+
+import android.content.SharedPreferences
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.LocalAudioTrack
+import com.twilio.video.LocalAudioTrackPublication
+import com.twilio.video.LocalParticipant
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.data.CallConfigurationProvider
+import com.twilio.video.app.data.Preferences.AUDIO_IN_CONNECT_OPTIONS
+import com.twilio.video.app.data.Preferences.LOW_LATENCY_AUDIO_MUTE
+import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.AudioOff
+import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.AudioOn
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.mockito.Mockito.inOrder
+
+class LocalParticipantManagerTest : BaseUnitTest() {
+
+    private val roomManager = mock<RoomManager>()
+    private val sharedPreferences = mock<SharedPreferences> {
+        whenever(mock.getBoolean(LOW_LATENCY_AUDIO_MUTE, true)).thenReturn(true)
+        whenever(mock.getBoolean(AUDIO_IN_CONNECT_OPTIONS, true)).thenReturn(true)
+    }
+    private val localAudioTrack = mock<LocalAudioTrack>()
+    private val localParticipant = mock<LocalParticipant>()
+    private val localParticipantManager =
+            LocalParticipantManager(mock(), roomManager,
+                    CallConfigurationProvider(sharedPreferences), mock()).apply {
+                localAudioTrack = this@LocalParticipantManagerTest.localAudioTrack
+                localParticipant = this@LocalParticipantManagerTest.localParticipant
+            }
+
+    @Test
+    fun `toggleLocalAudio should disable and enable the published track without republishing`() {
+        localParticipantManager.toggleLocalAudio()
+        localParticipantManager.toggleLocalAudio()
+
+        inOrder(localAudioTrack, roomManager).run {
+            verify(localAudioTrack).enable(false)
+            verify(roomManager).sendRoomEvent(AudioOff)
+            verify(localAudioTrack).enable(true)
+            verify(roomManager).sendRoomEvent(AudioOn)
+        }
+        verify(localParticipant, never()).unpublishTrack(any<LocalAudioTrack>())
+        verify(localParticipant, never()).publishTrack(any<LocalAudioTrack>())
+        verify(localAudioTrack, never()).release()
+    }
+
+    @Test
+    fun `unmuting should keep the track disabled while audio is paused`() {
+        localParticipantManager.toggleLocalAudio()
+        localParticipantManager.disableLocalAudio()
+
+        localParticipantManager.toggleLocalAudio()
+
+        verify(localAudioTrack, never()).enable(true)
+    }
+
+    @Test
+    fun `enableLocalAudio should not enable a muted track`() {
+        localParticipantManager.toggleLocalAudio()
+
+        localParticipantManager.enableLocalAudio()
+
+        verify(localAudioTrack, never()).enable(true)
+    }
+
+    @Test
+    fun `toggleLocalAudio should unpublish and release the track when low latency mute is disabled`() {
+        whenever(sharedPreferences.getBoolean(LOW_LATENCY_AUDIO_MUTE, true)).thenReturn(false)
+
+        localParticipantManager.toggleLocalAudio()
+
+        verify(localParticipant).unpublishTrack(localAudioTrack)
+        verify(localAudioTrack).release()
+        verify(localAudioTrack, never()).enable(any())
+    }
+
+    @Test
+    fun `connectAudioTracks should hand the ready audio track to the connect options`() {
+        assertThat(localParticipantManager.connectAudioTracks(), equalTo(listOf(localAudioTrack)))
+    }
+
+    @Test
+    fun `connectAudioTracks should be empty once the audio track was released by muting`() {
+        whenever(sharedPreferences.getBoolean(LOW_LATENCY_AUDIO_MUTE, true)).thenReturn(false)
+        localParticipantManager.toggleLocalAudio()
+
+        assertThat(localParticipantManager.connectAudioTracks(),
+                equalTo(emptyList<LocalAudioTrack>()))
+    }
+
+    @Test
+    fun `connectAudioTracks should be empty when audio is published after connecting`() {
+        whenever(sharedPreferences.getBoolean(AUDIO_IN_CONNECT_OPTIONS, true)).thenReturn(false)
+
+        assertThat(localParticipantManager.connectAudioTracks(),
+                equalTo(emptyList<LocalAudioTrack>()))
+    }
+
+    @Test
+    fun `publishLocalTracks should not republish the audio track published while connecting`() {
+        val audioTrackPublication = mock<LocalAudioTrackPublication> {
+            whenever(mock.localAudioTrack).thenReturn(localAudioTrack)
+        }
+        whenever(localParticipant.localAudioTracks).thenReturn(listOf(audioTrackPublication))
+
+        localParticipantManager.publishLocalTracks()
+
+        verify(localParticipant, never()).publishTrack(any<LocalAudioTrack>())
+    }
+}
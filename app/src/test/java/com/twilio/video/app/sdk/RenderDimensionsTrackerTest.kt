@@ -0,0 +1,82 @@
+package com.twilio.video.app.sdk
+
+import android.content.Context
+import androidx.test.core.app.ApplicationProvider
+import com.twilio.video.TrackPriority
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class RenderDimensionsTrackerTest : BaseUnitTest() {
+
+    private val sharedPreferences = ApplicationProvider.getApplicationContext<Context>()
+            .getSharedPreferences("render_dimensions_test", Context.MODE_PRIVATE)
+    private val renderDimensionsTracker = RenderDimensionsTracker(sharedPreferences)
+
+    @Test
+    fun `renderDimensions should be null before any view was measured`() {
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.LOW), nullValue())
+    }
+
+    @Test
+    fun `renderDimensions should return the largest aligned size measured for the priority`() {
+        renderDimensionsTracker.onTrackRendered("MT1", TrackPriority.LOW, 170, 90)
+        renderDimensionsTracker.onTrackRendered("MT2", TrackPriority.LOW, 120, 90)
+        renderDimensionsTracker.onTrackRendered("MT3", TrackPriority.HIGH, 1080, 1920)
+
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.LOW)?.width,
+                equalTo(176))
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.LOW)?.height,
+                equalTo(96))
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.HIGH)?.height,
+                equalTo(1920))
+    }
+
+    @Test
+    fun `renderDimensions should shrink when the largest view of the priority shrinks`() {
+        renderDimensionsTracker.onTrackRendered("MT1", TrackPriority.LOW, 480, 352)
+        renderDimensionsTracker.onTrackRendered("MT2", TrackPriority.LOW, 160, 96)
+
+        renderDimensionsTracker.onTrackRendered("MT1", TrackPriority.LOW, 240, 176)
+
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.LOW)?.width,
+                equalTo(240))
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.LOW)?.height,
+                equalTo(176))
+    }
+
+    @Test
+    fun `renderDimensions should keep the last settled size after the view is hidden`() {
+        renderDimensionsTracker.onTrackRendered("MT1", TrackPriority.HIGH, 1080, 1920)
+
+        renderDimensionsTracker.onTrackHidden("MT1")
+
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.HIGH)?.height,
+                equalTo(1920))
+    }
+
+    @Test
+    fun `renderDimensions should be measured separately for standard priority tracks`() {
+        renderDimensionsTracker.onTrackRendered("MT1", TrackPriority.HIGH, 1080, 1920)
+        renderDimensionsTracker.onTrackRendered("MT2", TrackPriority.STANDARD, 540, 960)
+
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.HIGH)?.width,
+                equalTo(1088))
+        assertThat(renderDimensionsTracker.renderDimensions(TrackPriority.STANDARD)?.width,
+                equalTo(544))
+    }
+
+    @Test
+    fun `parseVideoDimensions should ignore values without dimensions`() {
+        assertThat(parseVideoDimensions("Server Default"), nullValue())
+        assertThat(parseVideoDimensions("640x480")?.width, equalTo(640))
+    }
+}
@@ -0,0 +1,139 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.not
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.lessThan
+import org.junit.Test
+import timber.log.Timber
+
+private const val WIDTH = 320
+private const val HEIGHT = 180
+private const val CAPTURE_FPS = 30
+private val FRAME_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / CAPTURE_FPS
+
+class StaticFrameDropperTest : BaseUnitTest() {
+
+    private val staticFrameDropper = StaticFrameDropper()
+
+    @Test
+    fun `hashLuma should change when a single pixel changes`() {
+        val frame = slide(1)
+        val hash = hashLuma(frame, WIDTH, HEIGHT, WIDTH)
+
+        frame.put(WIDTH * 100 + 200, 7)
+
+        assertThat(hashLuma(frame, WIDTH, HEIGHT, WIDTH), not(equalTo(hash)))
+    }
+
+    @Test
+    fun `hashLuma should ignore the padding of the stride`() {
+        val frame = slide(1)
+        val paddedFrame = ByteBuffer.allocate((WIDTH + 32) * HEIGHT)
+        for (y in 0 until HEIGHT) {
+            for (x in 0 until WIDTH + 32) {
+                paddedFrame.put(y * (WIDTH + 32) + x,
+                        if (x < WIDTH) frame.get(y * WIDTH + x) else y.toByte())
+            }
+        }
+
+        assertThat(hashLuma(paddedFrame, WIDTH, HEIGHT, WIDTH + 32),
+                equalTo(hashLuma(frame, WIDTH, HEIGHT, WIDTH)))
+    }
+
+    @Test
+    fun `shouldForward should drop unchanged frames down to the floor rate`() {
+        val forwarded = (0 until 3 * CAPTURE_FPS).count { index ->
+            staticFrameDropper.shouldForward(1, index * FRAME_INTERVAL_NANOS)
+        }
+
+        assertThat(forwarded, equalTo(3))
+    }
+
+    @Test
+    fun `shouldForward should forward the first frame of changed content immediately`() {
+        staticFrameDropper.shouldForward(1, 0)
+        staticFrameDropper.shouldForward(1, FRAME_INTERVAL_NANOS)
+
+        assertThat(staticFrameDropper.shouldForward(2, 2 * FRAME_INTERVAL_NANOS), equalTo(true))
+        assertThat(staticFrameDropper.shouldForward(3, 3 * FRAME_INTERVAL_NANOS), equalTo(true))
+    }
+
+    @Test
+    fun `reset should forward the next frame and clear the counters`() {
+        staticFrameDropper.shouldForward(1, 0)
+        staticFrameDropper.shouldForward(1, FRAME_INTERVAL_NANOS)
+
+        staticFrameDropper.reset()
+
+        assertThat(staticFrameDropper.framesSeen, equalTo(0L))
+        assertThat(staticFrameDropper.shouldForward(1, 2 * FRAME_INTERVAL_NANOS), equalTo(true))
+    }
+
+    @Test
+    fun `a slide deck sequence should forward a fraction of the frames`() {
+        // Ten seconds of slides changing every three seconds
+        val frames = (0 until 10 * CAPTURE_FPS).map { index -> slide(index / (3 * CAPTURE_FPS)) }
+
+        val forwardedBytes = runSequence(frames)
+
+        Timber.d("Slides: forwarded %d of %d frames, %d of %d changed bytes",
+                staticFrameDropper.framesForwarded, staticFrameDropper.framesSeen,
+                forwardedBytes, frames.size.toLong() * WIDTH * HEIGHT)
+        assertThat(staticFrameDropper.framesForwarded, lessThan(frames.size / 10L))
+    }
+
+    @Test
+    fun `a scrolling sequence should forward every frame`() {
+        val frames = (0 until 2 * CAPTURE_FPS).map { index -> slide(0, scrollOffset = index) }
+
+        runSequence(frames)
+
+        assertThat(staticFrameDropper.framesDropped, equalTo(0L))
+    }
+
+    @Test
+    fun `a moving cursor on a static slide should forward every frame`() {
+        val frames = (0 until CAPTURE_FPS).map { index ->
+            slide(0).apply { put(WIDTH * 90 + index * 4, -1) }
+        }
+
+        runSequence(frames)
+
+        assertThat(staticFrameDropper.framesDropped, equalTo(0L))
+    }
+
+    /*
+     * Feeds the frames at the capture rate and returns the number of luma bytes that differ from
+     * the previously forwarded frame, a rough proxy for what the encoder has to send.
+     */
+    private fun runSequence(frames: List<ByteBuffer>): Long {
+        var lastForwarded: ByteBuffer? = null
+        var forwardedBytes = 0L
+        frames.forEachIndexed { index, frame ->
+            val hash = hashLuma(frame, WIDTH, HEIGHT, WIDTH)
+            if (staticFrameDropper.shouldForward(hash, index * FRAME_INTERVAL_NANOS)) {
+                forwardedBytes += (0 until WIDTH * HEIGHT).count { offset ->
+                    lastForwarded?.get(offset) != frame.get(offset)
+                }
+                lastForwarded = frame
+            }
+        }
+        return forwardedBytes
+    }
+
+    private fun slide(number: Int, scrollOffset: Int = 0): ByteBuffer {
+        val frame = ByteBuffer.allocate(WIDTH * HEIGHT)
+        for (y in 0 until HEIGHT) {
+            val line = (y + scrollOffset) / 12
+            for (x in 0 until WIDTH) {
+                val isText = line % 2 == 0 && (x / 6 + line * 7 + number * 13) % 5 != 0
+                frame.put(y * WIDTH + x, if (isText) 32 else (200 + number).toByte())
+            }
+        }
+        return frame
+    }
+}
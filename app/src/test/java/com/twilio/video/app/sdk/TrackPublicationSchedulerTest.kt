@@ -0,0 +1,158 @@
+package com.twilio.video.app.sdk
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.argThat
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.EncodingParameters
+import com.twilio.video.LocalAudioTrack
+import com.twilio.video.LocalAudioTrackPublication
+import com.twilio.video.LocalParticipant
+import com.twilio.video.LocalTrackPublicationOptions
+import com.twilio.video.LocalVideoTrack
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class TrackPublicationSchedulerTest : BaseUnitTest() {
+
+    private val scheduledActions = mutableListOf<Pair<Long, () -> Unit>>()
+    private val localParticipant = mock<LocalParticipant>()
+    private val localAudioTrack = mock<LocalAudioTrack>()
+    private val localVideoTrack = mock<LocalVideoTrack>()
+    private val scheduler = TrackPublicationScheduler({ delayMillis, action ->
+        scheduledActions.add(delayMillis to action)
+    })
+
+    @Test
+    fun `start should publish audio before video`() {
+        start()
+
+        verify(localParticipant).publishTrack(localAudioTrack)
+        verify(localParticipant, never()).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    @Test
+    fun `video should be published once audio is published`() {
+        start()
+
+        scheduler.onAudioTrackPublished(localAudioTrack)
+
+        verify(localParticipant).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    @Test
+    fun `video should be published after the deadline when audio is slow`() {
+        start()
+
+        runScheduledActions()
+
+        verify(localParticipant).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    @Test
+    fun `video should be published only once`() {
+        start()
+
+        scheduler.onAudioTrackPublished(localAudioTrack)
+        runScheduledActions()
+
+        verify(localParticipant, times(1)).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    @Test
+    fun `video should be published immediately when audio was published on connect`() {
+        val publication = mock<LocalAudioTrackPublication> {
+            whenever(mock.localAudioTrack).thenReturn(localAudioTrack)
+        }
+        whenever(localParticipant.localAudioTracks).thenReturn(listOf(publication))
+
+        start()
+
+        verify(localParticipant, never()).publishTrack(localAudioTrack)
+        verify(localParticipant).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    @Test
+    fun `failed publications should be retried with backoff`() {
+        start()
+        scheduledActions.clear()
+
+        scheduler.onAudioTrackPublicationFailed(localAudioTrack, mock())
+        val firstDelays = scheduledActions.map { it.first }
+        runScheduledActions()
+        scheduler.onAudioTrackPublicationFailed(localAudioTrack, mock())
+
+        assertThat(firstDelays, equalTo(listOf(1000L)))
+        assertThat(scheduledActions.map { it.first }, equalTo(listOf(2000L)))
+    }
+
+    @Test
+    fun `failed publications should be given up after three attempts`() {
+        start()
+        scheduledActions.clear()
+
+        repeat(3) {
+            scheduler.onAudioTrackPublicationFailed(localAudioTrack, mock())
+            runScheduledActions()
+        }
+
+        verify(localParticipant, times(3)).publishTrack(localAudioTrack)
+        verify(localParticipant).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    @Test
+    fun `video bitrate should ramp up to the configured maximum after publishing`() {
+        start(maxVideoBitrate = 0)
+        scheduler.onAudioTrackPublished(localAudioTrack)
+        scheduledActions.clear()
+
+        scheduler.onVideoTrackPublished(localVideoTrack)
+        runScheduledActions()
+        runScheduledActions()
+
+        verify(localParticipant).setEncodingParameters(argThat { maxVideoBitrate == 300 })
+        verify(localParticipant).setEncodingParameters(argThat { maxVideoBitrate == 800 })
+        verify(localParticipant).setEncodingParameters(argThat { maxVideoBitrate == 0 })
+    }
+
+    @Test
+    fun `video bitrate should not ramp above the configured maximum`() {
+        start(maxVideoBitrate = 200)
+        scheduler.onAudioTrackPublished(localAudioTrack)
+        scheduler.onVideoTrackPublished(localVideoTrack)
+
+        verify(localParticipant, never()).setEncodingParameters(any())
+    }
+
+    @Test
+    fun `stop should cancel the pending publications`() {
+        start()
+
+        scheduler.stop()
+        runScheduledActions()
+
+        verify(localParticipant, never()).publishTrack(any<LocalVideoTrack>(),
+                any<LocalTrackPublicationOptions>())
+    }
+
+    private fun start(maxVideoBitrate: Int = 0) =
+            scheduler.start(localParticipant, localAudioTrack, localVideoTrack,
+                    EncodingParameters(16, maxVideoBitrate))
+
+    private fun runScheduledActions() {
+        val actions = scheduledActions.toList()
+        scheduledActions.clear()
+        actions.forEach { (_, action) -> action() }
+    }
+}
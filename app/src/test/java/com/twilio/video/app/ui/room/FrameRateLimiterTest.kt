@@ -0,0 +1,60 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.both
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.greaterThanOrEqualTo
+import org.hamcrest.Matchers.lessThanOrEqualTo
+import org.junit.Test
+
+class FrameRateLimiterTest : BaseUnitTest() {
+
+    @Test
+    fun `a thumbnail should render half of a 30 fps source with jitter`() {
+        val frameRateLimiter = FrameRateLimiter(VideoViewRole.THUMBNAIL)
+
+        deliverFrames(frameRateLimiter, sourceFps = 30, frameCount = 300)
+
+        assertThat(frameRateLimiter.deliveredFrames, equalTo(150L))
+        assertThat(frameRateLimiter.droppedFrames, equalTo(150L))
+    }
+
+    @Test
+    fun `a primary view should render every frame of a 30 fps source`() {
+        val frameRateLimiter = FrameRateLimiter(VideoViewRole.PRIMARY)
+
+        deliverFrames(frameRateLimiter, sourceFps = 30, frameCount = 300)
+
+        assertThat(frameRateLimiter.deliveredFrames, equalTo(300L))
+        assertThat(frameRateLimiter.droppedFrames, equalTo(0L))
+    }
+
+    @Test
+    fun `a degraded view should render 5 fps`() {
+        val frameRateLimiter = FrameRateLimiter(VideoViewRole.DEGRADED)
+
+        deliverFrames(frameRateLimiter, sourceFps = 30, frameCount = 300)
+
+        assertThat(frameRateLimiter.deliveredFrames, both(greaterThanOrEqualTo(49L))
+                .and(lessThanOrEqualTo(51L)))
+    }
+
+    @Test
+    fun `a timestamp discontinuity should not stall rendering`() {
+        val frameRateLimiter = FrameRateLimiter(VideoViewRole.THUMBNAIL)
+        frameRateLimiter.shouldDeliver(TimeUnit.SECONDS.toNanos(100))
+
+        assertThat(frameRateLimiter.shouldDeliver(0), equalTo(true))
+    }
+
+    private fun deliverFrames(frameRateLimiter: FrameRateLimiter, sourceFps: Int, frameCount: Int) {
+        val frameIntervalNs = TimeUnit.SECONDS.toNanos(1) / sourceFps
+        val jitterNs = TimeUnit.MILLISECONDS.toNanos(2)
+        repeat(frameCount) { index ->
+            val jitter = if (index % 2 == 0) jitterNs else -jitterNs
+            frameRateLimiter.shouldDeliver(index * frameIntervalNs + jitter)
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.twilio.video.app.ui.room
+
+import android.graphics.Bitmap
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import java.nio.ByteBuffer
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.notNullValue
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import tvi.webrtc.VideoFrame
+
+private const val SNAPSHOT_BYTES = 96 * 54 * 4
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class FrameSnapshotCacheTest : BaseUnitTest() {
+
+    private val frameSnapshotCache = FrameSnapshotCache(3 * SNAPSHOT_BYTES)
+
+    @Test
+    fun `put should evict the least recently used snapshot once the byte budget is exceeded`() {
+        frameSnapshotCache.put("PA1", snapshot())
+        frameSnapshotCache.put("PA2", snapshot())
+        frameSnapshotCache.put("PA3", snapshot())
+        frameSnapshotCache.get("PA1")
+
+        frameSnapshotCache.put("PA4", snapshot())
+
+        assertThat(frameSnapshotCache.get("PA2"), nullValue())
+        assertThat(frameSnapshotCache.get("PA1"), notNullValue())
+        assertThat(frameSnapshotCache.sizeBytes, equalTo(3 * SNAPSHOT_BYTES))
+    }
+
+    @Test
+    fun `trimToSize should release memory`() {
+        frameSnapshotCache.put("PA1", snapshot())
+        frameSnapshotCache.put("PA2", snapshot())
+
+        frameSnapshotCache.trimToSize(SNAPSHOT_BYTES)
+
+        assertThat(frameSnapshotCache.sizeBytes, equalTo(SNAPSHOT_BYTES))
+        assertThat(frameSnapshotCache.get("PA2"), notNullValue())
+    }
+
+    @Test
+    fun `onFrame should capture a downscaled snapshot at most every two seconds`() {
+        val i420Buffer = mockI420Buffer(96, 54)
+        val scaledBuffer = mock<VideoFrame.Buffer> {
+            whenever(mock.toI420()).thenReturn(i420Buffer)
+        }
+        val buffer = mock<VideoFrame.Buffer> {
+            whenever(mock.width).thenReturn(1280)
+            whenever(mock.height).thenReturn(720)
+            whenever(mock.cropAndScale(0, 0, 1280, 720, 96, 54)).thenReturn(scaledBuffer)
+        }
+        val videoFrame = VideoFrame(buffer, 0, 0)
+
+        frameSnapshotCache.onFrame("PA1", videoFrame, 0)
+        frameSnapshotCache.onFrame("PA1", videoFrame, TimeUnit.SECONDS.toNanos(1))
+        frameSnapshotCache.onFrame("PA1", videoFrame, TimeUnit.SECONDS.toNanos(2))
+
+        verify(buffer, times(2)).cropAndScale(any(), any(), any(), any(), any(), any())
+        verify(scaledBuffer, times(2)).release()
+        verify(i420Buffer, times(2)).release()
+        frameSnapshotCache.get("PA1")!!.run {
+            assertThat(width, equalTo(96))
+            assertThat(height, equalTo(54))
+        }
+    }
+
+    @Test
+    fun `i420ToArgb should convert limited range luma and chroma`() {
+        val pixels = i420ToArgb(2, 2,
+                ByteBuffer.wrap(byteArrayOf(16, 235.toByte(), 126, 126)), 2,
+                ByteBuffer.wrap(byteArrayOf(128.toByte())), 1,
+                ByteBuffer.wrap(byteArrayOf(128.toByte())), 1)
+
+        assertThat(pixels.toList(), equalTo(listOf(
+                0xff000000.toInt(), 0xffffffff.toInt(), 0xff808080.toInt(), 0xff808080.toInt())))
+    }
+
+    private fun snapshot() = Bitmap.createBitmap(96, 54, Bitmap.Config.ARGB_8888)
+
+    private fun mockI420Buffer(width: Int, height: Int): VideoFrame.I420Buffer = mock {
+        whenever(mock.width).thenReturn(width)
+        whenever(mock.height).thenReturn(height)
+        whenever(mock.dataY).thenReturn(ByteBuffer.allocate(width * height))
+        whenever(mock.strideY).thenReturn(width)
+        whenever(mock.dataU).thenReturn(ByteBuffer.allocate(width * height / 4))
+        whenever(mock.strideU).thenReturn(width / 2)
+        whenever(mock.dataV).thenReturn(ByteBuffer.allocate(width * height / 4))
+        whenever(mock.strideV).thenReturn(width / 2)
+    }
+}
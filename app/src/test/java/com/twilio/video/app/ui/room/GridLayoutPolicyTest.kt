@@ -0,0 +1,60 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.TrackPriority
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+private const val PORTRAIT_WIDTH = 1080
+private const val PORTRAIT_HEIGHT = 1920
+
+class GridLayoutPolicyTest : BaseUnitTest() {
+
+    @Test
+    fun `two participants in portrait should be stacked vertically`() {
+        val gridSpec = GridLayoutPolicy.gridSpec(2, PORTRAIT_WIDTH, PORTRAIT_HEIGHT)
+
+        assertThat(gridSpec.columns, equalTo(1))
+        assertThat(gridSpec.rows, equalTo(2))
+        assertThat(gridSpec.videoViewRole, equalTo(VideoViewRole.PRIMARY))
+        assertThat(gridSpec.trackPriority, equalTo(TrackPriority.HIGH))
+    }
+
+    @Test
+    fun `two participants in landscape should be placed side by side`() {
+        val gridSpec = GridLayoutPolicy.gridSpec(2, PORTRAIT_HEIGHT, PORTRAIT_WIDTH)
+
+        assertThat(gridSpec.columns, equalTo(2))
+        assertThat(gridSpec.rows, equalTo(1))
+    }
+
+    @Test
+    fun `sixteen participants should fill a four by four grid at a low priority and frame rate`() {
+        val gridSpec = GridLayoutPolicy.gridSpec(16, PORTRAIT_WIDTH, PORTRAIT_HEIGHT)
+
+        assertThat(gridSpec.columns, equalTo(4))
+        assertThat(gridSpec.rows, equalTo(4))
+        assertThat(gridSpec.tileWidth, equalTo(PORTRAIT_WIDTH / 4))
+        assertThat(gridSpec.videoViewRole, equalTo(VideoViewRole.GRID))
+        assertThat(gridSpec.trackPriority, equalTo(TrackPriority.LOW))
+    }
+
+    @Test
+    fun `rooms larger than sixteen participants should scroll instead of adding rows`() {
+        val gridSpec = GridLayoutPolicy.gridSpec(25, PORTRAIT_WIDTH, PORTRAIT_HEIGHT)
+
+        assertThat(gridSpec.rows, equalTo(4))
+        assertThat(gridSpec.tileHeight, equalTo(PORTRAIT_HEIGHT / 4))
+    }
+
+    @Test
+    fun `a sixteen tile grid should render a small fraction of the pixels of sixteen full streams`() {
+        val gridSpec = GridLayoutPolicy.gridSpec(16, PORTRAIT_WIDTH, PORTRAIT_HEIGHT)
+        val fullStreamPixels = 16L * 1280 * 720
+        val gridPixels = 16L * gridSpec.tileWidth * gridSpec.tileHeight *
+                gridSpec.videoViewRole.targetFps / VideoViewRole.PRIMARY.targetFps
+
+        assertThat(gridPixels * 4 < fullStreamPixels, equalTo(true))
+    }
+}
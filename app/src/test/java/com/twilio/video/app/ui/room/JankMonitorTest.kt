@@ -0,0 +1,53 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+private val FRAME_NS = TimeUnit.SECONDS.toNanos(1) / 60
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class JankMonitorTest : BaseUnitTest() {
+
+    private var finishedMonitor: JankMonitor? = null
+    private val jankMonitor = JankMonitor("Test", TimeUnit.MILLISECONDS.toNanos(500)) {
+        finishedMonitor = it
+    }
+
+    @Test
+    fun `frames drawn every vsync should not count as dropped`() {
+        jankMonitor.start()
+
+        repeat(10) { jankMonitor.doFrame(it * FRAME_NS) }
+
+        assertThat(jankMonitor.frames, equalTo(9))
+        assertThat(jankMonitor.droppedFrames, equalTo(0))
+    }
+
+    @Test
+    fun `every skipped vsync should count as a dropped frame`() {
+        jankMonitor.start()
+
+        listOf(0L, 1L, 2L, 5L, 6L, 10L).forEach { jankMonitor.doFrame(it * FRAME_NS) }
+
+        assertThat(jankMonitor.droppedFrames, equalTo(5))
+    }
+
+    @Test
+    fun `the monitor should stop after its duration`() {
+        jankMonitor.start()
+
+        jankMonitor.doFrame(0)
+        jankMonitor.doFrame(TimeUnit.MILLISECONDS.toNanos(500))
+
+        assertThat(jankMonitor.isRunning, equalTo(false))
+        assertThat(finishedMonitor, equalTo(jankMonitor))
+    }
+}
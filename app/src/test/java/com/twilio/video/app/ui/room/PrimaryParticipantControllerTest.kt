@@ -0,0 +1,81 @@
+package com.twilio.video.app.ui.room
+
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.sdk.VideoTrackViewState
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class PrimaryParticipantControllerTest : BaseUnitTest() {
+
+    private val primaryView = mock<ParticipantPrimaryView>()
+    private val videoTrack = mock<RemoteVideoTrack> {
+        whenever(mock.isEnabled).thenReturn(true)
+    }
+    private val videoSinkManager = mock<VideoSinkManager>()
+    private val controller = PrimaryParticipantController(primaryView, videoSinkManager)
+
+    @Test
+    fun `renderAsPrimary should not touch sinks or views across 100 unchanged renders`() {
+        controller.renderAsPrimary("Alice", null, VideoTrackViewState(videoTrack), false, false)
+        val viewUpdates = controller.viewUpdates
+
+        repeat(100) {
+            controller.renderAsPrimary("Alice", null, VideoTrackViewState(videoTrack), false, false)
+        }
+
+        verify(videoSinkManager, times(1)).bind(any(), any())
+        assertThat(controller.sinkAdditions, equalTo(1))
+        assertThat(controller.sinkRemovals, equalTo(0))
+        assertThat(controller.viewUpdates, equalTo(viewUpdates))
+    }
+
+    @Test
+    fun `renderAsPrimary should only update the mute indicator when only mute changes`() {
+        controller.renderAsPrimary("Alice", null, VideoTrackViewState(videoTrack), false, false)
+        val viewUpdates = controller.viewUpdates
+
+        controller.renderAsPrimary("Alice", null, VideoTrackViewState(videoTrack), true, false)
+
+        verify(primaryView).setMuted(true)
+        verify(primaryView, times(1)).setIdentity("Alice")
+        assertThat(controller.sinkAdditions, equalTo(1))
+        assertThat(controller.viewUpdates, equalTo(viewUpdates + 1))
+    }
+
+    @Test
+    fun `renderAsPrimary should bind the sink once a disabled track is enabled`() {
+        controller.renderAsPrimary("Alice", null,
+                VideoTrackViewState(videoTrack, isEnabled = false), false, false)
+
+        controller.renderAsPrimary("Alice", null,
+                VideoTrackViewState(videoTrack, isEnabled = true), false, false)
+
+        verify(videoSinkManager).bind(primaryView, null)
+        verify(videoSinkManager).bind(primaryView, videoTrack)
+        assertThat(controller.sinkAdditions, equalTo(1))
+        assertThat(controller.sinkRemovals, equalTo(0))
+    }
+
+    @Test
+    fun `renderAsPrimary should rebind the sink when the selected track changes`() {
+        val screenTrack = mock<RemoteVideoTrack> {
+            whenever(mock.isEnabled).thenReturn(true)
+        }
+        controller.renderAsPrimary("Alice", null, VideoTrackViewState(videoTrack), false, false)
+
+        controller.renderAsPrimary("Alice", VideoTrackViewState(screenTrack),
+                VideoTrackViewState(videoTrack), false, false)
+
+        verify(videoSinkManager).bind(primaryView, videoTrack)
+        verify(videoSinkManager).bind(primaryView, screenTrack)
+        assertThat(controller.sinkAdditions, equalTo(2))
+        assertThat(controller.sinkRemovals, equalTo(1))
+    }
+}
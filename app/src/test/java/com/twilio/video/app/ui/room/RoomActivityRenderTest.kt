@@ -0,0 +1,109 @@
+package com.twilio.video.app.ui.room
+
+import android.content.Context
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.core.app.ApplicationProvider
+import com.nhaarman.mockitokotlin2.mock
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.DaggerRoomActivityTestComponent
+import com.twilio.video.app.R
+import com.twilio.video.app.RoomActivityTestModule
+import com.twilio.video.app.TestApp
+import com.twilio.video.app.data.Preferences
+import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.RoomManager
+import com.twilio.video.app.sdk.RoomStats
+import com.twilio.video.app.ui.room.RoomViewConfiguration.Connected
+import io.uniflow.test.rule.TestDispatchersRule
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.TestCoroutineDispatcher
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@ExperimentalCoroutinesApi
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class RoomActivityRenderTest : BaseUnitTest() {
+
+    @get:Rule
+    val rule = InstantTaskExecutorRule()
+
+    private val testDispatcher = TestCoroutineDispatcher()
+    @get:Rule
+    val coroutineScope = TestDispatchersRule(testDispatcher)
+
+    private val testApp = ApplicationProvider.getApplicationContext<TestApp>()
+    private val sharedPreferences = testApp
+            .getSharedPreferences("room_activity_render_test", Context.MODE_PRIVATE)
+    private val roomManager = RoomManager(mock(), mock(), mock(), testDispatcher).apply {
+        localParticipantManager = mock()
+    }
+    private val remoteParticipant = ParticipantViewState("2", "Remote")
+    private val connectedState = RoomViewState(remoteParticipant,
+            participantThumbnails = listOf(ParticipantViewState(isLocalParticipant = true),
+                    remoteParticipant),
+            configuration = Connected)
+    private lateinit var activity: RoomActivity
+
+    @Before
+    fun setUp() {
+        sharedPreferences.edit().putBoolean(Preferences.ENABLE_STATS, true).commit()
+        DaggerRoomActivityTestComponent.builder()
+                .roomActivityTestModule(RoomActivityTestModule(sharedPreferences, roomManager,
+                        mock(), mock()))
+                .build()
+                .inject(testApp)
+        activity = Robolectric.buildActivity(RoomActivity::class.java).setup().get()
+        activity.bindRoomViewState(connectedState)
+    }
+
+    @Test
+    fun `a stats update should only rebind the stats`() {
+        val renderer = activity.roomViewStateRenderer
+        val statsAdapter = statsRecyclerView().adapter
+        val primaryRenderCount = renderer.primarySlice.renderCount
+        val thumbnailRenderCount = renderer.thumbnailSlice.renderCount
+        val layoutRenderCount = renderer.layoutSlice.renderCount
+        val statsRenderCount = renderer.statsSlice.renderCount
+        val primaryViewUpdates = activity.primaryParticipantController.viewUpdates
+
+        activity.bindRoomViewState(connectedState.copy(
+                roomStats = RoomStats(emptyList(), emptyMap())))
+
+        assertThat(renderer.statsSlice.renderCount, equalTo(statsRenderCount + 1))
+        assertThat(renderer.primarySlice.renderCount, equalTo(primaryRenderCount))
+        assertThat(renderer.thumbnailSlice.renderCount, equalTo(thumbnailRenderCount))
+        assertThat(renderer.layoutSlice.renderCount, equalTo(layoutRenderCount))
+        assertThat(statsRecyclerView().adapter, sameInstance(statsAdapter))
+        assertThat(activity.primaryParticipantController.viewUpdates,
+                equalTo(primaryViewUpdates))
+    }
+
+    @Test
+    fun `a new primary participant should only rebind the primary view`() {
+        val renderer = activity.roomViewStateRenderer
+        val thumbnailRenderCount = renderer.thumbnailSlice.renderCount
+        val statsRenderCount = renderer.statsSlice.renderCount
+        val primaryViewUpdates = activity.primaryParticipantController.viewUpdates
+
+        activity.bindRoomViewState(connectedState.copy(
+                primaryParticipant = remoteParticipant.copy(isMuted = true)))
+
+        assertThat(activity.primaryParticipantController.viewUpdates,
+                equalTo(primaryViewUpdates + 1))
+        assertThat(renderer.thumbnailSlice.renderCount, equalTo(thumbnailRenderCount))
+        assertThat(renderer.statsSlice.renderCount, equalTo(statsRenderCount))
+    }
+
+    private fun statsRecyclerView() =
+            activity.findViewById<RecyclerView>(R.id.stats_recycler_view)
+}
@@ -2,13 +2,22 @@ package com.twilio.video.app.ui.room
 
 import android.Manifest
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule
+import com.nhaarman.mockitokotlin2.inOrder
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.LocalParticipant
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_UNKNOWN
+import com.twilio.video.RemoteParticipant
 import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
 import com.twilio.video.app.BaseUnitTest
 import com.twilio.video.app.participant.ParticipantManager
 import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.participant.RosterCache
 import com.twilio.video.app.sdk.LocalParticipantManager
 import com.twilio.video.app.sdk.RoomManager
 import com.twilio.video.app.sdk.VideoTrackViewState
@@ -23,7 +32,9 @@ import com.twilio.video.app.ui.room.RoomViewEffect.PermissionsDenied
 import com.twilio.video.app.ui.room.RoomViewEffect.ShowConnectFailureDialog
 import com.twilio.video.app.ui.room.RoomViewEffect.ShowMaxParticipantFailureDialog
 import com.twilio.video.app.ui.room.RoomViewEvent.Connect
+import com.twilio.video.app.ui.room.RoomViewEvent.FilterParticipants
 import com.twilio.video.app.ui.room.RoomViewEvent.OnResume
+import com.twilio.video.app.ui.room.RoomViewEvent.PictureInPictureModeChanged
 import com.twilio.video.app.util.PermissionUtil
 import io.uniflow.android.test.TestViewObserver
 import io.uniflow.android.test.createTestObserver
@@ -39,6 +50,7 @@ import org.junit.Rule
 import org.junit.Test
 
 private const val PARTICIPANT_SID = "123"
+private const val ROOM_NAME = "Test Room"
 
 @ExperimentalCoroutinesApi
 class RoomViewModelTest : BaseUnitTest() {
@@ -242,6 +254,54 @@ class RoomViewModelTest : BaseUnitTest() {
         assertThat(viewModel.roomManagerJob!!.isCancelled, equalTo(true))
     }
 
+    @Test
+    fun `The roster cache should keep the participants hidden by the search filter`() {
+        val rosterCache = RosterCache()
+        viewModel = RoomViewModel(roomManager, mock(), permissionUtil, participantManager,
+                rosterCache)
+        val localParticipant = mock<LocalParticipant> {
+            whenever(mock.sid).thenReturn("local")
+        }
+        val remoteParticipant = mock<RemoteParticipant> {
+            whenever(mock.sid).thenReturn(PARTICIPANT_SID)
+            whenever(mock.identity).thenReturn("Test Participant")
+            whenever(mock.networkQualityLevel).thenReturn(NETWORK_QUALITY_LEVEL_UNKNOWN)
+        }
+        roomManager.sendRoomEvent(RoomEvent.Connected(
+                listOf(localParticipant, remoteParticipant), mock(), ROOM_NAME))
+
+        viewModel.processInput(FilterParticipants("no match"))
+
+        assertThat((viewModel.getCurrentState() as RoomViewState).participantThumbnails
+                ?.any { it.sid == PARTICIPANT_SID }, equalTo(false))
+        assertThat(rosterCache.get(ROOM_NAME)?.map { it.sid }, equalTo(listOf(PARTICIPANT_SID)))
+    }
+
+    @Test
+    fun `Leaving picture-in-picture should restore the priorities requested before entering it`() {
+        val primaryVideoTrack = mock<RemoteVideoTrack>()
+        val thumbnailVideoTrack = mock<RemoteVideoTrack>()
+        val participantManager = ParticipantManager().apply {
+            addParticipant(ParticipantViewState("1", "Participant 1",
+                    videoTrack = VideoTrackViewState(primaryVideoTrack)))
+            addParticipant(ParticipantViewState("2", "Participant 2",
+                    videoTrack = VideoTrackViewState(thumbnailVideoTrack)))
+            changePinnedParticipant("1")
+        }
+        viewModel = RoomViewModel(roomManager, mock(), permissionUtil, participantManager)
+
+        viewModel.processInput(PictureInPictureModeChanged(true))
+        whenever(thumbnailVideoTrack.priority).thenReturn(LOW)
+        viewModel.processInput(PictureInPictureModeChanged(false))
+
+        inOrder(thumbnailVideoTrack) {
+            verify(thumbnailVideoTrack).priority = LOW
+            verify(thumbnailVideoTrack).priority = null
+        }
+        verify(primaryVideoTrack, never()).priority = LOW
+        verify(primaryVideoTrack, times(2)).priority = HIGH
+    }
+
     private fun connect() =
-        viewModel.processInput(Connect("Test", "Test Room"))
+        viewModel.processInput(Connect("Test", ROOM_NAME))
 }
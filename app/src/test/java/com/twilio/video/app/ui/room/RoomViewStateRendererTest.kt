@@ -0,0 +1,102 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.RoomStats
+import com.twilio.video.app.ui.room.RoomViewConfiguration.Connected
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class RoomViewStateRendererTest : BaseUnitTest() {
+
+    private val renderCounts = mutableMapOf<String, Int>()
+    private var isInPictureInPicture = false
+    private var isStatsEnabled = true
+    private val renderer = RoomViewStateRenderer(
+            { isInPictureInPicture },
+            { isStatsEnabled },
+            { count("layout") },
+            { count("mediaControls") },
+            { count("audioDevice") },
+            { count("thumbnails") },
+            { count("grid") },
+            { count("primary") },
+            { count("stats") })
+    private val participant = ParticipantViewState("2", "Remote")
+    private val initialState = RoomViewState(ParticipantViewState("1", "Local"),
+            participantThumbnails = listOf(participant),
+            configuration = Connected)
+
+    @Test
+    fun `render should only render the stats when the room stats change`() {
+        renderer.render(initialState)
+        renderCounts.clear()
+
+        repeat(10) {
+            renderer.render(initialState.copy(roomStats = RoomStats(emptyList(), emptyMap())))
+        }
+
+        assertThat(renderCounts, equalTo(mapOf("stats" to 1)))
+    }
+
+    @Test
+    fun `render should only render the primary view when the primary participant changes`() {
+        renderer.render(initialState)
+        renderCounts.clear()
+
+        renderer.render(initialState.copy(primaryParticipant = participant))
+
+        assertThat(renderCounts, equalTo(mapOf("primary" to 1)))
+    }
+
+    @Test
+    fun `render should only render the media controls when the local media changes`() {
+        renderer.render(initialState)
+        renderCounts.clear()
+
+        renderer.render(initialState.copy(isAudioMuted = true))
+
+        assertThat(renderCounts, equalTo(mapOf("mediaControls" to 1)))
+    }
+
+    @Test
+    fun `render should render the layout and participants again after entering picture-in-picture`() {
+        renderer.render(initialState)
+        renderCounts.clear()
+
+        isInPictureInPicture = true
+        renderer.render(initialState)
+
+        assertThat(renderCounts, equalTo(mapOf("layout" to 1, "thumbnails" to 1, "grid" to 1)))
+    }
+
+    @Test
+    fun `render should render the stats again after they were enabled`() {
+        isStatsEnabled = false
+        renderer.render(initialState)
+        renderCounts.clear()
+
+        isStatsEnabled = true
+        renderer.render(initialState)
+
+        assertThat(renderCounts, equalTo(mapOf("stats" to 1)))
+    }
+
+    @Test
+    fun `invalidate should render every slice again on the next state`() {
+        renderer.render(initialState)
+        renderCounts.clear()
+
+        renderer.invalidate()
+        renderer.render(initialState)
+
+        assertThat(renderCounts.keys, equalTo(setOf("layout", "mediaControls", "audioDevice",
+                "thumbnails", "grid", "primary", "stats")))
+        assertThat(renderCounts.values.toSet(), equalTo(setOf(1)))
+    }
+
+    private fun count(slice: String) {
+        renderCounts[slice] = (renderCounts[slice] ?: 0) + 1
+    }
+}
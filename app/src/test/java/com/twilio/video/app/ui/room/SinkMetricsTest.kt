@@ -0,0 +1,98 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import java.util.concurrent.TimeUnit
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class SinkMetricsTest : BaseUnitTest() {
+
+    private var nowNs = 0L
+    private val sinkMetrics = SinkMetrics { nowNs }
+
+    @Test
+    fun `snapshot should be empty before the first frame`() {
+        val snapshot = sinkMetrics.snapshot()
+
+        assertThat(snapshot.framesReceived, equalTo(0L))
+        assertThat(snapshot.timeSinceLastFrameMs, nullValue())
+        assertThat(snapshot.isFrozen, equalTo(false))
+    }
+
+    @Test
+    fun `onFrame should count received, rendered and dropped frames`() {
+        repeat(10) { index ->
+            sinkMetrics.onFrame(index % 2 == 0)
+            advanceMs(33)
+        }
+
+        val snapshot = sinkMetrics.snapshot()
+
+        assertThat(snapshot.framesReceived, equalTo(10L))
+        assertThat(snapshot.framesRendered, equalTo(5L))
+        assertThat(snapshot.framesDropped, equalTo(5L))
+        assertThat(snapshot.timeSinceLastFrameMs, equalTo(33L))
+    }
+
+    @Test
+    fun `snapshot should report the max and p95 inter-frame gap`() {
+        repeat(96) {
+            sinkMetrics.onFrame(true)
+            advanceMs(33)
+        }
+        repeat(5) {
+            sinkMetrics.onFrame(true)
+            advanceMs(98)
+        }
+
+        val snapshot = sinkMetrics.snapshot()
+
+        assertThat(snapshot.maxFrameGapMs, equalTo(98L))
+        assertThat(snapshot.p95FrameGapMs, equalTo(35L))
+    }
+
+    @Test
+    fun `a long gap between frames should be counted as a freeze`() {
+        repeat(30) {
+            sinkMetrics.onFrame(true)
+            advanceMs(33)
+        }
+        advanceMs(500)
+        sinkMetrics.onFrame(true)
+
+        assertThat(sinkMetrics.snapshot().freezeCount, equalTo(1))
+    }
+
+    @Test
+    fun `snapshot should report frozen while no frame has arrived for a long time`() {
+        repeat(30) {
+            sinkMetrics.onFrame(true)
+            advanceMs(33)
+        }
+        advanceMs(500)
+
+        val snapshot = sinkMetrics.snapshot()
+
+        assertThat(snapshot.isFrozen, equalTo(true))
+        assertThat(snapshot.freezeCount, equalTo(0))
+    }
+
+    @Test
+    fun `reset should clear all metrics`() {
+        repeat(5) {
+            sinkMetrics.onFrame(true)
+            advanceMs(33)
+        }
+
+        sinkMetrics.reset()
+
+        assertThat(sinkMetrics.snapshot(), equalTo(SinkMetricsSnapshot(0, 0, 0, 0, 0, null, 0,
+                false)))
+    }
+
+    private fun advanceMs(ms: Long) {
+        nowNs += TimeUnit.MILLISECONDS.toNanos(ms)
+    }
+}
@@ -0,0 +1,96 @@
+package com.twilio.video.app.ui.room
+
+import android.os.Bundle
+import android.widget.FrameLayout
+import androidx.activity.ComponentActivity
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.doAnswer
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.hamcrest.Matchers.lessThanOrEqualTo
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.Robolectric
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+import tvi.webrtc.VideoSink
+
+private const val RECREATE_COUNT = 50
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class SinkRegistryTest : BaseUnitTest() {
+
+    private val sinks = mutableListOf<VideoSink>()
+    // Stands in for a track owned by the application scoped RoomManager
+    private val videoTrack = mock<RemoteVideoTrack> {
+        whenever(mock.name).thenReturn("video")
+        whenever(mock.sinks).thenReturn(sinks)
+        doAnswer { sinks.add(it.getArgument(0)) }.whenever(mock).addSink(any())
+        doAnswer { sinks.remove(it.getArgument<VideoSink>(0)) }.whenever(mock).removeSink(any())
+    }
+
+    @Before
+    fun setUp() {
+        SinkHostActivity.videoTrack = videoTrack
+    }
+
+    @After
+    fun tearDown() {
+        SinkHostActivity.videoTrack = null
+    }
+
+    @Test
+    fun `recreating the activity should not accumulate sinks`() {
+        val activityController = Robolectric.buildActivity(SinkHostActivity::class.java).setup()
+        assertThat(sinks.size, equalTo(1))
+
+        repeat(RECREATE_COUNT) {
+            activityController.recreate()
+
+            assertThat(sinks.size, lessThanOrEqualTo(1))
+            assertThat(SinkRegistry.liveSinkCount, lessThanOrEqualTo(1))
+        }
+        assertThat(sinks.single(), equalTo<VideoSink>(activityController.get().participantView))
+
+        activityController.pause().stop().destroy()
+
+        assertThat(sinks.isEmpty(), equalTo(true))
+        assertThat(SinkRegistry.liveSinkCount, equalTo(0))
+    }
+
+    @Test
+    fun `destroying the activity should remove sinks attached behind the manager`() {
+        val activityController = Robolectric.buildActivity(SinkHostActivity::class.java).setup()
+        videoTrack.addSink(activityController.get().participantView)
+
+        activityController.pause().stop().destroy()
+
+        assertThat(sinks.isEmpty(), equalTo(true))
+    }
+}
+
+internal class SinkHostActivity : ComponentActivity() {
+
+    lateinit var participantView: ParticipantThumbView
+    private lateinit var videoSinkManager: VideoSinkManager
+
+    override fun onCreate(savedInstanceState: Bundle?) {
+        super.onCreate(savedInstanceState)
+        participantView = ParticipantThumbView(this)
+        setContentView(FrameLayout(this).apply { addView(participantView) })
+        videoSinkManager = VideoSinkManager(lifecycle)
+        videoSinkManager.bind(participantView, videoTrack)
+    }
+
+    companion object {
+        var videoTrack: RemoteVideoTrack? = null
+    }
+}
@@ -0,0 +1,136 @@
+package com.twilio.video.app.ui.room
+
+import android.view.ViewTreeObserver
+import androidx.lifecycle.Lifecycle
+import androidx.lifecycle.LifecycleOwner
+import androidx.lifecycle.LifecycleRegistry
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
+import com.nhaarman.mockitokotlin2.times
+import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.TestApp
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.robolectric.RobolectricTestRunner
+import org.robolectric.annotation.Config
+
+@RunWith(RobolectricTestRunner::class)
+@Config(application = TestApp::class)
+class VideoSinkManagerTest : BaseUnitTest() {
+
+    private val lifecycleOwner = mock<LifecycleOwner>()
+    private val lifecycle = LifecycleRegistry(lifecycleOwner).apply {
+        handleLifecycleEvent(Lifecycle.Event.ON_START)
+    }
+    private val view = mock<ParticipantView> {
+        whenever(mock.isAttachedToWindow).thenReturn(true)
+        whenever(mock.isShown).thenReturn(true)
+        whenever(mock.viewTreeObserver).thenReturn(mock<ViewTreeObserver>())
+    }
+    private val videoTrack = mockTrack()
+    private val videoSinkManager = VideoSinkManager(lifecycle)
+
+    @Test
+    fun `bind should attach the sink when the view is visible`() {
+        videoSinkManager.bind(view, videoTrack)
+
+        verify(videoTrack).addSink(view)
+        assertThat(videoSinkManager.liveSinkCount(videoTrack), equalTo(1))
+    }
+
+    @Test
+    fun `bind should not attach the sink when the view is not shown`() {
+        whenever(view.isShown).thenReturn(false)
+
+        videoSinkManager.bind(view, videoTrack)
+
+        verify(videoTrack, never()).addSink(view)
+        assertThat(videoSinkManager.liveSinkCount, equalTo(0))
+    }
+
+    @Test
+    fun `bind should not attach the same sink twice`() {
+        videoSinkManager.bind(view, videoTrack)
+        videoSinkManager.bind(view, videoTrack)
+
+        verify(videoTrack, times(1)).addSink(view)
+    }
+
+    @Test
+    fun `sinks should be detached while stopped and attached again when started`() {
+        videoSinkManager.bind(view, videoTrack)
+
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+
+        verify(videoTrack).removeSink(view)
+        assertThat(videoSinkManager.liveSinkCount, equalTo(0))
+
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_START)
+
+        verify(videoTrack, times(2)).addSink(view)
+        assertThat(videoSinkManager.liveSinkCount, equalTo(1))
+    }
+
+    @Test
+    fun `bind should move the sink to a new track`() {
+        val newVideoTrack = mockTrack()
+        videoSinkManager.bind(view, videoTrack)
+
+        videoSinkManager.bind(view, newVideoTrack)
+
+        verify(videoTrack).removeSink(view)
+        verify(newVideoTrack).addSink(view)
+        assertThat(videoSinkManager.liveSinkCount(videoTrack), equalTo(0))
+        assertThat(videoSinkManager.liveSinkCount(newVideoTrack), equalTo(1))
+    }
+
+    @Test
+    fun `unbind should detach the sink`() {
+        videoSinkManager.bind(view, videoTrack)
+
+        videoSinkManager.unbind(view)
+
+        verify(videoTrack).removeSink(view)
+        assertThat(videoSinkManager.liveSinkCount, equalTo(0))
+    }
+
+    @Test
+    fun `all sinks should be detached and released when the lifecycle is destroyed`() {
+        val otherView = mock<ParticipantView> {
+            whenever(mock.isAttachedToWindow).thenReturn(true)
+            whenever(mock.isShown).thenReturn(true)
+            whenever(mock.viewTreeObserver).thenReturn(mock<ViewTreeObserver>())
+        }
+        val otherVideoTrack = mock<RemoteVideoTrack> {
+            whenever(mock.sinks).thenReturn(listOf(otherView))
+        }
+        videoSinkManager.bind(view, videoTrack)
+        videoSinkManager.bind(otherView, otherVideoTrack)
+
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+
+        verify(videoTrack).removeSink(view)
+        verify(otherVideoTrack).removeSink(otherView)
+        assertThat(videoSinkManager.liveSinkCount, equalTo(0))
+    }
+
+    @Test
+    fun `bind should be ignored after the lifecycle is destroyed`() {
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_STOP)
+        lifecycle.handleLifecycleEvent(Lifecycle.Event.ON_DESTROY)
+
+        videoSinkManager.bind(view, videoTrack)
+
+        verify(videoTrack, never()).addSink(view)
+    }
+
+    private fun mockTrack() = mock<RemoteVideoTrack> {
+        whenever(mock.sinks).thenReturn(listOf(view))
+    }
+}
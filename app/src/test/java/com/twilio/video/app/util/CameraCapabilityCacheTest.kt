@@ -0,0 +1,91 @@
+package com.twilio.video.app.util
+
+import com.twilio.video.app.BaseUnitTest
+import java.util.concurrent.Executor
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+import tvi.webrtc.CameraEnumerationAndroid.CaptureFormat
+
+private const val RESUME_COUNT = 20
+
+class CameraCapabilityCacheTest : BaseUnitTest() {
+
+    private val cameraCapabilities = CameraCapabilities(
+            true,
+            "1",
+            "0",
+            setOf("0", "1"),
+            mapOf("0" to listOf(CaptureFormat(1280, 720, 15000, 30000)),
+                    "1" to listOf(CaptureFormat(1280, 720, 15000, 24000),
+                            CaptureFormat(640, 480, 15000, 15000))))
+    private var scanCount = 0
+    private val queuedTasks = mutableListOf<Runnable>()
+    private val cameraCapabilityCache = CameraCapabilityCache({
+        scanCount++
+        cameraCapabilities
+    }, Executor { queuedTasks.add(it) })
+
+    @Test
+    fun `get should only scan the cameras once`() {
+        assertThat(cameraCapabilityCache.get(), equalTo(cameraCapabilities))
+        assertThat(cameraCapabilityCache.get(), equalTo(cameraCapabilities))
+
+        assertThat(scanCount, equalTo(1))
+    }
+
+    @Test
+    fun `get should use the prefetched scan`() {
+        cameraCapabilityCache.prefetch()
+        queuedTasks.forEach { it.run() }
+
+        cameraCapabilityCache.get()
+
+        assertThat(scanCount, equalTo(1))
+    }
+
+    @Test
+    fun `get should scan the cameras again after invalidate`() {
+        cameraCapabilityCache.get()
+
+        cameraCapabilityCache.invalidate()
+        cameraCapabilityCache.get()
+
+        assertThat(scanCount, equalTo(2))
+    }
+
+    @Test
+    fun `get should return null and scan again when the scan fails`() {
+        var shouldFail = true
+        val cameraCapabilityCache = CameraCapabilityCache({
+            if (shouldFail) throw IllegalStateException("Camera service unavailable")
+            cameraCapabilities
+        }, Executor { it.run() })
+
+        assertThat(cameraCapabilityCache.get(), nullValue())
+
+        shouldFail = false
+        assertThat(cameraCapabilityCache.get(), equalTo(cameraCapabilities))
+    }
+
+    @Test
+    fun `maxFps should return the highest frame rate of the camera`() {
+        assertThat(cameraCapabilities.maxFps("0"), equalTo(30))
+        assertThat(cameraCapabilities.maxFps("1"), equalTo(24))
+        assertThat(cameraCapabilities.maxFps("2"), nullValue())
+    }
+
+    @Test
+    fun `repeated resumes should skip the camera scan`() {
+        repeat(RESUME_COUNT) {
+            cameraCapabilityCache.invalidate()
+            cameraCapabilityCache.get()
+        }
+        assertThat(scanCount, equalTo(RESUME_COUNT))
+
+        repeat(RESUME_COUNT) { cameraCapabilityCache.get() }
+
+        assertThat(scanCount, equalTo(RESUME_COUNT))
+    }
+}
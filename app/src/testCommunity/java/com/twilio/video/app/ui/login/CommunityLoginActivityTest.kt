@@ -79,7 +79,8 @@ class CommunityLoginActivityTest {
     private val authServiceModule: AuthServiceModule = mock {
         whenever(mock.providesOkHttpClient()).thenReturn(mock())
         whenever(mock.providesAuthService(any())).thenReturn(authService)
-        whenever(mock.providesTokenService(any(), any(), any())).thenReturn(authServiceRepository)
+        whenever(mock.providesTokenService(any(), any(), any(), any(), any()))
+                .thenReturn(authServiceRepository)
     }
     private val authenticator = CommunityAuthenticator(
             preferences,